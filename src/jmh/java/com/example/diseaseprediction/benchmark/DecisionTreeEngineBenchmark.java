@@ -0,0 +1,81 @@
+package com.example.diseaseprediction.benchmark;
+
+import com.example.diseaseprediction.service.DecisionTreeEngine;
+import com.example.diseaseprediction.support.SyntheticCatalog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Scoring cost of {@link DecisionTreeEngine#predict} by catalog size, input size and scoring mode.
+ * {@code catalogSize=seed} uses the built-in rules; numeric sizes use a synthetic catalog.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DecisionTreeEngineBenchmark {
+
+    private static final int QUERY_POOL = 1024;
+
+    @Param({"seed", "1000", "10000", "100000"})
+    public String catalogSize;
+
+    @Param({"1", "3", "5", "10"})
+    public int inputSize;
+
+    @Param({"BITSET", "INVERTED", "VECTOR", "COMPILED", "WEIGHTED"})
+    public DecisionTreeEngine.ScoringMode mode;
+
+    private DecisionTreeEngine engine;
+    private List<List<String>> queries;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        queries = new ArrayList<>(QUERY_POOL);
+        if ("seed".equals(catalogSize)) {
+            engine = new DecisionTreeEngine(mode);
+            List<String> vocabulary = List.of("fever", "high fever", "cough", "sore throat", "fatigue", "headache",
+                    "nausea", "vomiting", "diarrhea", "rash", "sneezing", "runny nose", "dizziness", "chest pain");
+            for (int i = 0; i < QUERY_POOL; i++) {
+                List<String> query = new ArrayList<>(inputSize);
+                for (int j = 0; j < inputSize; j++) {
+                    query.add(vocabulary.get(random.nextInt(vocabulary.size())));
+                }
+                queries.add(query);
+            }
+        } else {
+            int diseases = Integer.parseInt(catalogSize);
+            SyntheticCatalog catalog = SyntheticCatalog.generate(diseases, Math.max(500, diseases / 20), 7);
+            engine = new DecisionTreeEngine(mode, catalog.rules, catalog.precautions);
+            for (int i = 0; i < QUERY_POOL; i++) {
+                queries.add(catalog.patientQuery(random, inputSize));
+            }
+        }
+    }
+
+    @Benchmark
+    public DecisionTreeEngine.Outcome predict() {
+        List<String> query = queries.get(next);
+        next = (next + 1) & (QUERY_POOL - 1);
+        return engine.predict(query);
+    }
+}
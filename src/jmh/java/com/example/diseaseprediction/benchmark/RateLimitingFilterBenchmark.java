@@ -0,0 +1,62 @@
+package com.example.diseaseprediction.benchmark;
+
+import com.example.diseaseprediction.config.RateLimitingFilter;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead of {@link RateLimitingFilter} on an API request, for a single client and for many distinct clients.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class RateLimitingFilterBenchmark {
+
+    @Param({"1", "10000"})
+    public int clients;
+
+    private RateLimitingFilter filter;
+    private final FilterChain chain = (request, response) -> { };
+
+    @Setup
+    public void setUp() {
+        filter = new RateLimitingFilter();
+        ReflectionTestUtils.setField(filter, "enabled", true);
+        ReflectionTestUtils.setField(filter, "requestsPerMinute", Integer.MAX_VALUE);
+        ReflectionTestUtils.setField(filter, "burstCapacity", Integer.MAX_VALUE);
+    }
+
+    @State(Scope.Thread)
+    public static class Exchange {
+        private final MockHttpServletRequest request = new MockHttpServletRequest("POST", "/predict");
+        private final MockHttpServletResponse response = new MockHttpServletResponse();
+        private int next;
+    }
+
+    @Benchmark
+    public void doFilter(Exchange exchange) throws Exception {
+        exchange.next = (exchange.next + 1) % clients;
+        exchange.request.setRemoteAddr("10.0." + (exchange.next >>> 8) + "." + (exchange.next & 0xFF));
+        filter.doFilter(exchange.request, exchange.response, chain);
+    }
+}
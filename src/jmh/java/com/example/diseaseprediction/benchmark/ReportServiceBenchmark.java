@@ -0,0 +1,82 @@
+package com.example.diseaseprediction.benchmark;
+
+import com.example.diseaseprediction.model.Disease;
+import com.example.diseaseprediction.model.Prediction;
+import com.example.diseaseprediction.model.Role;
+import com.example.diseaseprediction.model.User;
+import com.example.diseaseprediction.repository.PredictionRepository;
+import com.example.diseaseprediction.repository.SymptomRepository;
+import com.example.diseaseprediction.repository.UserRepository;
+import com.example.diseaseprediction.service.ReportService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * PDF rendering cost of {@link ReportService}, with repositories stubbed out so only rendering is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReportServiceBenchmark {
+
+    private static final String EMAIL = "user@demo.com";
+
+    @Param({"10", "1000"})
+    public int historySize;
+
+    private ReportService reportService;
+
+    @Setup
+    public void setUp() {
+        User user = new User("Demo User", EMAIL, "secret", Role.USER);
+        ReflectionTestUtils.setField(user, "id", 1L);
+        Disease disease = new Disease("Flu (Influenza)", "Influenza is a viral infection that attacks your respiratory system.",
+                "Rest, drink fluids, take antiviral medications if prescribed. Avoid contact with others.");
+        List<Prediction> history = new ArrayList<>(historySize);
+        for (int i = 0; i < historySize; i++) {
+            history.add(new Prediction(user, disease, 0.5 + (i % 50) / 100.0));
+        }
+
+        UserRepository userRepository = mock(UserRepository.class);
+        PredictionRepository predictionRepository = mock(PredictionRepository.class);
+        when(userRepository.findByEmail(EMAIL)).thenReturn(Optional.of(user));
+        when(predictionRepository.findWithDiseaseById(1L)).thenReturn(Optional.of(history.get(0)));
+        when(predictionRepository.findByUserEmailOrderByCreatedAtDesc(EMAIL)).thenReturn(history);
+
+        reportService = new ReportService(predictionRepository, userRepository, mock(SymptomRepository.class));
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(EMAIL, null, List.of()));
+    }
+
+    @Benchmark
+    public byte[] singlePredictionReport() {
+        return reportService.generatePredictionReport(1L);
+    }
+
+    @Benchmark
+    public byte[] historyReport() {
+        return reportService.generateUserHistoryReport();
+    }
+}
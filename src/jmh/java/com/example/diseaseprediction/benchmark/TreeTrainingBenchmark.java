@@ -0,0 +1,84 @@
+package com.example.diseaseprediction.benchmark;
+
+import com.example.diseaseprediction.service.DecisionTreeEngine;
+import com.example.diseaseprediction.service.TrainedTreeEngine;
+import com.example.diseaseprediction.support.SyntheticCatalog;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wall-clock time to read a labeled CSV and train a tree with {@link TrainedTreeEngine#train},
+ * over rows sampled from a synthetic catalog (rule symptoms with dropout plus random noise symptoms).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class TreeTrainingBenchmark {
+
+    @Param({"10000", "100000"})
+    public int rows;
+
+    @Param({"500"})
+    public int symptoms;
+
+    private Path dataset;
+    private TrainedTreeEngine engine;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        SyntheticCatalog catalog = SyntheticCatalog.generate(200, symptoms, 7);
+        List<String> diseases = List.copyOf(catalog.rules.keySet());
+        Random random = new Random(42);
+        dataset = Files.createTempFile("tree-training", ".csv");
+        try (BufferedWriter writer = Files.newBufferedWriter(dataset)) {
+            for (int i = 0; i < rows; i++) {
+                String disease = diseases.get(random.nextInt(diseases.size()));
+                StringBuilder line = new StringBuilder(disease);
+                for (String symptom : catalog.rules.get(disease)) {
+                    if (random.nextInt(10) < 8) {
+                        line.append(',').append(symptom);
+                    }
+                }
+                for (String noise : catalog.sampleSymptoms(random, 2)) {
+                    line.append(',').append(noise);
+                }
+                writer.write(line.toString());
+                writer.newLine();
+            }
+        }
+        engine = new TrainedTreeEngine(new DecisionTreeEngine(), "");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(dataset);
+    }
+
+    @Benchmark
+    public boolean train() {
+        engine.train(dataset);
+        return engine.isTrained();
+    }
+}
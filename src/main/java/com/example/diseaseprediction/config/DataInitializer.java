@@ -7,12 +7,17 @@ import com.example.diseaseprediction.model.User;
 import com.example.diseaseprediction.repository.DiseaseRepository;
 import com.example.diseaseprediction.repository.SymptomRepository;
 import com.example.diseaseprediction.repository.UserRepository;
+import com.example.diseaseprediction.service.DecisionTreeEngine;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Configuration
 public class DataInitializer {
@@ -106,6 +111,22 @@ public class DataInitializer {
                 ));
             }
 
+            // Scoring rules: on first start, attach the built-in rule symptoms to the seeded diseases
+            List<Disease> diseases = diseaseRepository.findAllWithRuleSymptoms();
+            if (diseases.stream().allMatch(d -> d.getRuleSymptoms().isEmpty())) {
+                Map<String, Disease> byName = diseases.stream()
+                        .collect(Collectors.toMap(Disease::getDiseaseName, Function.identity()));
+                Map<String, String> precautions = DecisionTreeEngine.defaultPrecautions();
+                List<Disease> ruled = new ArrayList<>();
+                DecisionTreeEngine.defaultRules().forEach((name, symptoms) -> {
+                    Disease disease = byName.computeIfAbsent(name,
+                            n -> new Disease(n, "Auto-generated from rule set", precautions.get(n)));
+                    disease.setRuleSymptoms(new ArrayList<>(symptoms));
+                    ruled.add(disease);
+                });
+                diseaseRepository.saveAll(ruled);
+            }
+
             if (symptomRepository.count() == 0) {
                 symptomRepository.saveAll(List.of(
                         // General Symptoms
@@ -0,0 +1,70 @@
+package com.example.diseaseprediction.config;
+
+import com.example.diseaseprediction.service.CachingPredictionEngine;
+import com.example.diseaseprediction.service.DecisionTreeEngine;
+import com.example.diseaseprediction.service.NaiveBayesEngine;
+import com.example.diseaseprediction.service.PredictionEngine;
+import com.example.diseaseprediction.service.ShadowPredictionEngine;
+import com.example.diseaseprediction.service.TrainedTreeEngine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Chooses the engine that serves predictions. The Naive Bayes engine only builds its model and
+ * learns from confirmed diagnoses when it is selected here or listed as a shadow.
+ * The rule-based engine is deterministic per rule-set version, so its outcomes are cached
+ * unless {@code app.engine.cache.maximum-size} is 0. Engines listed in {@code app.engine.shadow.engines}
+ * re-score live requests in the background for comparison without serving them.
+ */
+@Configuration
+public class PredictionEngineConfig {
+
+    @Bean
+    @Primary
+    public PredictionEngine predictionEngine(@Value("${app.engine.type:decision-tree}") PredictionEngine.Type type,
+                                             @Value("${app.engine.cache.maximum-size:10000}") long cacheSize,
+                                             @Value("${app.engine.shadow.engines:}") List<PredictionEngine.Type> shadowTypes,
+                                             @Value("${app.engine.shadow.threads:1}") int shadowThreads,
+                                             @Value("${app.engine.shadow.queue-capacity:1000}") int shadowQueueCapacity,
+                                             DecisionTreeEngine decisionTreeEngine,
+                                             NaiveBayesEngine naiveBayesEngine,
+                                             TrainedTreeEngine trainedTreeEngine,
+                                             ObjectProvider<MeterRegistry> meterRegistry) {
+        PredictionEngine primary = switch (type) {
+            case DECISION_TREE -> cacheSize > 0
+                    ? new CachingPredictionEngine(decisionTreeEngine, cacheSize, meterRegistry.getIfAvailable())
+                    : decisionTreeEngine;
+            case NAIVE_BAYES -> naiveBayesEngine;
+            case TRAINED_TREE -> trainedTreeEngine;
+        };
+        Map<String, PredictionEngine> shadows = new LinkedHashMap<>();
+        for (PredictionEngine.Type shadowType : shadowTypes) {
+            if (shadowType != type) {
+                shadows.put(name(shadowType), switch (shadowType) {
+                    case DECISION_TREE -> decisionTreeEngine;
+                    case NAIVE_BAYES -> naiveBayesEngine;
+                    case TRAINED_TREE -> trainedTreeEngine;
+                });
+            }
+        }
+        if (shadows.isEmpty()) {
+            return primary;
+        }
+        return new ShadowPredictionEngine(name(type), primary, shadows, shadowThreads, shadowQueueCapacity,
+                meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    private static String name(PredictionEngine.Type type) {
+        return type.name().toLowerCase(Locale.ROOT).replace('_', '-');
+    }
+}
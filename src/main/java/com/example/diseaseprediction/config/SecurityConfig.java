@@ -1,6 +1,7 @@
 package com.example.diseaseprediction.config;
 
 import com.example.diseaseprediction.security.JwtAuthFilter;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -34,6 +35,8 @@ public class SecurityConfig {
         http
                 .csrf(csrf -> csrf.disable())
                 .authorizeHttpRequests(auth -> auth
+                    // Completion of a streamed response (exports); the request itself was authorized when it started
+                    .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                     .requestMatchers(HttpMethod.GET,
                         "/", "/*.html", "/*.css", "/*.js", "/css/**", "/js/**", "/static/**", "/favicon.ico").permitAll()
                     .requestMatchers("/auth/register", "/auth/login").permitAll()
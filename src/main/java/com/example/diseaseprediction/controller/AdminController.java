@@ -1,16 +1,21 @@
 package com.example.diseaseprediction.controller;
 
+import com.example.diseaseprediction.dto.ConfirmedDiagnosisRequest;
 import com.example.diseaseprediction.dto.DiseaseDto;
 import com.example.diseaseprediction.dto.StatisticsResponse;
 import com.example.diseaseprediction.dto.UserDto;
 import com.example.diseaseprediction.model.Disease;
 import com.example.diseaseprediction.service.AdminService;
+import com.example.diseaseprediction.service.PredictionExportService;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/admin")
@@ -18,9 +23,11 @@ import java.util.List;
 public class AdminController {
 
     private final AdminService adminService;
+    private final PredictionExportService predictionExportService;
 
-    public AdminController(AdminService adminService) {
+    public AdminController(AdminService adminService, PredictionExportService predictionExportService) {
         this.adminService = adminService;
+        this.predictionExportService = predictionExportService;
     }
 
     @GetMapping("/users")
@@ -49,9 +56,30 @@ public class AdminController {
         return ResponseEntity.ok(adminService.saveDisease(dto));
     }
 
+    @PostMapping("/rules/reload")
+    public ResponseEntity<Map<String, Long>> reloadRules() {
+        return ResponseEntity.ok(Map.of("ruleSetVersion", adminService.reloadRules()));
+    }
+
+    @PostMapping("/diagnoses")
+    public ResponseEntity<Void> confirmDiagnosis(@RequestBody @Valid ConfirmedDiagnosisRequest request) {
+        adminService.confirmDiagnosis(request);
+        return ResponseEntity.noContent().build();
+    }
+
     @DeleteMapping("/diseases/{id}")
     public ResponseEntity<Void> deleteDisease(@PathVariable Long id) {
         adminService.deleteDisease(id);
         return ResponseEntity.noContent().build();
     }
+
+    @GetMapping("/predictions/export")
+    public ResponseEntity<StreamingResponseBody> exportPredictions(@RequestParam(defaultValue = "ndjson") String format) {
+        PredictionExportService.Format exportFormat = PredictionExportService.Format.of(format);
+        StreamingResponseBody body = predictionExportService.streamAll(exportFormat);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=predictions." + exportFormat.extension())
+                .contentType(exportFormat.mediaType())
+                .body(body);
+    }
 }
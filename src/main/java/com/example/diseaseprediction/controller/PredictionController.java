@@ -1,15 +1,23 @@
 package com.example.diseaseprediction.controller;
 
+import com.example.diseaseprediction.dto.BatchPredictionRequest;
+import com.example.diseaseprediction.dto.PredictionHistoryPage;
 import com.example.diseaseprediction.dto.PredictionRequest;
 import com.example.diseaseprediction.dto.PredictionResponse;
 import com.example.diseaseprediction.dto.PredictionHistoryResponse;
+import com.example.diseaseprediction.dto.PredictionSessionRequest;
+import com.example.diseaseprediction.dto.PredictionSessionResponse;
 import com.example.diseaseprediction.model.Symptom;
 import com.example.diseaseprediction.repository.SymptomRepository;
+import com.example.diseaseprediction.service.PredictionExportService;
 import com.example.diseaseprediction.service.PredictionService;
+import com.example.diseaseprediction.service.PredictionSessionService;
 import jakarta.validation.Valid;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -18,10 +26,16 @@ public class PredictionController {
 
     private final PredictionService predictionService;
     private final SymptomRepository symptomRepository;
+    private final PredictionSessionService predictionSessionService;
+    private final PredictionExportService predictionExportService;
 
-    public PredictionController(PredictionService predictionService, SymptomRepository symptomRepository) {
+    public PredictionController(PredictionService predictionService, SymptomRepository symptomRepository,
+                                PredictionSessionService predictionSessionService,
+                                PredictionExportService predictionExportService) {
         this.predictionService = predictionService;
         this.symptomRepository = symptomRepository;
+        this.predictionSessionService = predictionSessionService;
+        this.predictionExportService = predictionExportService;
     }
 
     @GetMapping("/symptoms")
@@ -31,9 +45,54 @@ public class PredictionController {
 
     @PostMapping({"/predict", "/predictions"})
     public ResponseEntity<PredictionResponse> predict(Authentication authentication,
-                                                      @RequestBody @Valid PredictionRequest request) {
+                                                      @RequestBody @Valid PredictionRequest request,
+                                                      @RequestParam(required = false) Integer top) {
         String email = authentication.getName();
-        return ResponseEntity.ok(predictionService.predict(email, request));
+        return ResponseEntity.ok(predictionService.predict(email, request, top));
+    }
+
+    @PostMapping("/predictions/batch")
+    public ResponseEntity<List<PredictionResponse>> predictBatch(Authentication authentication,
+                                                                 @RequestBody @Valid BatchPredictionRequest request) {
+        String email = authentication.getName();
+        return ResponseEntity.ok(predictionService.predictBatch(email, request.getRequests()));
+    }
+
+    @PostMapping("/predict/sessions")
+    public ResponseEntity<PredictionSessionResponse> createSession(Authentication authentication,
+                                                                   @RequestBody(required = false) @Valid PredictionSessionRequest request,
+                                                                   @RequestParam(required = false) Integer top) {
+        List<String> symptoms = request != null ? request.getSymptoms() : null;
+        return ResponseEntity.ok(predictionSessionService.create(authentication.getName(), symptoms, top));
+    }
+
+    @GetMapping("/predict/sessions/{sessionId}")
+    public ResponseEntity<PredictionSessionResponse> getSession(Authentication authentication,
+                                                                @PathVariable String sessionId,
+                                                                @RequestParam(required = false) Integer top) {
+        return ResponseEntity.ok(predictionSessionService.get(authentication.getName(), sessionId, top));
+    }
+
+    @PutMapping("/predict/sessions/{sessionId}/symptoms/{symptom}")
+    public ResponseEntity<PredictionSessionResponse> addSessionSymptom(Authentication authentication,
+                                                                       @PathVariable String sessionId,
+                                                                       @PathVariable String symptom,
+                                                                       @RequestParam(required = false) Integer top) {
+        return ResponseEntity.ok(predictionSessionService.addSymptom(authentication.getName(), sessionId, symptom, top));
+    }
+
+    @DeleteMapping("/predict/sessions/{sessionId}/symptoms/{symptom}")
+    public ResponseEntity<PredictionSessionResponse> removeSessionSymptom(Authentication authentication,
+                                                                          @PathVariable String sessionId,
+                                                                          @PathVariable String symptom,
+                                                                          @RequestParam(required = false) Integer top) {
+        return ResponseEntity.ok(predictionSessionService.removeSymptom(authentication.getName(), sessionId, symptom, top));
+    }
+
+    @DeleteMapping("/predict/sessions/{sessionId}")
+    public ResponseEntity<Void> closeSession(Authentication authentication, @PathVariable String sessionId) {
+        predictionSessionService.close(authentication.getName(), sessionId);
+        return ResponseEntity.noContent().build();
     }
 
     @GetMapping("/predictions/me")
@@ -41,4 +100,22 @@ public class PredictionController {
         String email = authentication.getName();
         return ResponseEntity.ok(predictionService.findCurrentUserHistory(email));
     }
+
+    @GetMapping("/predictions/me/history")
+    public ResponseEntity<PredictionHistoryPage> myPredictionPage(Authentication authentication,
+                                                                  @RequestParam(required = false) Integer size,
+                                                                  @RequestParam(required = false) String cursor) {
+        return ResponseEntity.ok(predictionService.findCurrentUserHistory(authentication.getName(), size, cursor));
+    }
+
+    @GetMapping("/predictions/me/export")
+    public ResponseEntity<StreamingResponseBody> exportMyPredictions(Authentication authentication,
+                                                                     @RequestParam(defaultValue = "ndjson") String format) {
+        PredictionExportService.Format exportFormat = PredictionExportService.Format.of(format);
+        StreamingResponseBody body = predictionExportService.streamUser(authentication.getName(), exportFormat);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=predictions." + exportFormat.extension())
+                .contentType(exportFormat.mediaType())
+                .body(body);
+    }
 }
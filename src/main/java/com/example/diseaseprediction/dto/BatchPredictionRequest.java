@@ -0,0 +1,21 @@
+package com.example.diseaseprediction.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public class BatchPredictionRequest {
+
+    @NotEmpty(message = "Please provide at least one symptom set")
+    @Size(max = 1000, message = "A batch may contain at most 1000 symptom sets")
+    private List<@Valid PredictionRequest> requests;
+
+    public List<PredictionRequest> getRequests() {
+        return requests;
+    }
+
+    public void setRequests(List<PredictionRequest> requests) {
+        this.requests = requests;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.diseaseprediction.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import java.util.List;
+
+public class ConfirmedDiagnosisRequest {
+
+    @NotBlank(message = "Disease name is required")
+    private String diseaseName;
+
+    @NotEmpty(message = "Please select at least one symptom")
+    private List<String> symptoms;
+
+    public String getDiseaseName() {
+        return diseaseName;
+    }
+
+    public void setDiseaseName(String diseaseName) {
+        this.diseaseName = diseaseName;
+    }
+
+    public List<String> getSymptoms() {
+        return symptoms;
+    }
+
+    public void setSymptoms(List<String> symptoms) {
+        this.symptoms = symptoms;
+    }
+}
@@ -2,6 +2,8 @@ package com.example.diseaseprediction.dto;
 
 import jakarta.validation.constraints.NotBlank;
 
+import java.util.List;
+
 public class DiseaseDto {
     private Long id;
 
@@ -11,6 +13,9 @@ public class DiseaseDto {
     private String description;
     private String precautions;
 
+    // Rule symptoms used for scoring; null leaves the current rule unchanged
+    private List<String> symptoms;
+
     public Long getId() {
         return id;
     }
@@ -42,4 +47,12 @@ public class DiseaseDto {
     public void setPrecautions(String precautions) {
         this.precautions = precautions;
     }
+
+    public List<String> getSymptoms() {
+        return symptoms;
+    }
+
+    public void setSymptoms(List<String> symptoms) {
+        this.symptoms = symptoms;
+    }
 }
@@ -0,0 +1,25 @@
+package com.example.diseaseprediction.dto;
+
+import java.util.List;
+
+/**
+ * One page of a user's prediction history, newest first. {@code nextCursor} is passed back as
+ * {@code cursor} to get the following page and is {@code null} on the last page.
+ */
+public class PredictionHistoryPage {
+    private final List<PredictionHistoryResponse> items;
+    private final String nextCursor;
+
+    public PredictionHistoryPage(List<PredictionHistoryResponse> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<PredictionHistoryResponse> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
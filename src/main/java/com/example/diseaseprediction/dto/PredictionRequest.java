@@ -1,11 +1,13 @@
 package com.example.diseaseprediction.dto;
 
 import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
 import java.util.List;
 
 public class PredictionRequest {
 
     @NotEmpty(message = "Please select at least one symptom")
+    @Size(max = 100, message = "At most 100 symptoms can be submitted")
     private List<String> symptoms;
 
     public List<String> getSymptoms() {
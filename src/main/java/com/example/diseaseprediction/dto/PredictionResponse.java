@@ -1,18 +1,31 @@
 package com.example.diseaseprediction.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.time.LocalDateTime;
+import java.util.List;
 
 public class PredictionResponse {
     private String diseaseName;
     private double confidence;
     private String precautions;
     private LocalDateTime timestamp;
+    private long ruleSetVersion;
+    // Submitted symptoms found in the predicted disease's rule, and rule symptoms that were not submitted
+    private List<String> matchedSymptoms = List.of();
+    private List<String> missingSymptoms = List.of();
+
+    // Ranked alternatives, only present when top-K candidates were requested
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<Candidate> candidates;
 
-    public PredictionResponse(String diseaseName, double confidence, String precautions, LocalDateTime timestamp) {
+    public PredictionResponse(String diseaseName, double confidence, String precautions, LocalDateTime timestamp,
+                              long ruleSetVersion) {
         this.diseaseName = diseaseName;
         this.confidence = confidence;
         this.precautions = precautions;
         this.timestamp = timestamp;
+        this.ruleSetVersion = ruleSetVersion;
     }
 
     public String getDiseaseName() {
@@ -30,4 +43,67 @@ public class PredictionResponse {
     public LocalDateTime getTimestamp() {
         return timestamp;
     }
+
+    public long getRuleSetVersion() {
+        return ruleSetVersion;
+    }
+
+    public List<String> getMatchedSymptoms() {
+        return matchedSymptoms;
+    }
+
+    public List<String> getMissingSymptoms() {
+        return missingSymptoms;
+    }
+
+    public void setExplanation(List<String> matchedSymptoms, List<String> missingSymptoms) {
+        this.matchedSymptoms = matchedSymptoms;
+        this.missingSymptoms = missingSymptoms;
+    }
+
+    public List<Candidate> getCandidates() {
+        return candidates;
+    }
+
+    public void setCandidates(List<Candidate> candidates) {
+        this.candidates = candidates;
+    }
+
+    // Inner class for ranked candidates
+    public static class Candidate {
+        private final String diseaseName;
+        private final double confidence;
+        private final String precautions;
+        private final List<String> matchedSymptoms;
+        private final List<String> missingSymptoms;
+
+        public Candidate(String diseaseName, double confidence, String precautions,
+                         List<String> matchedSymptoms, List<String> missingSymptoms) {
+            this.diseaseName = diseaseName;
+            this.confidence = confidence;
+            this.precautions = precautions;
+            this.matchedSymptoms = matchedSymptoms;
+            this.missingSymptoms = missingSymptoms;
+        }
+
+        public String getDiseaseName() {
+            return diseaseName;
+        }
+
+        public double getConfidence() {
+            return confidence;
+        }
+
+        public String getPrecautions() {
+            return precautions;
+        }
+
+        public List<String> getMatchedSymptoms() {
+            return matchedSymptoms;
+        }
+
+        public List<String> getMissingSymptoms() {
+            return missingSymptoms;
+        }
+    }
 }
@@ -0,0 +1,19 @@
+package com.example.diseaseprediction.dto;
+
+import jakarta.validation.constraints.Size;
+import java.util.List;
+
+public class PredictionSessionRequest {
+
+    // Symptoms already selected when the session starts; may be empty
+    @Size(max = 200, message = "A session may start with at most 200 symptoms")
+    private List<String> symptoms;
+
+    public List<String> getSymptoms() {
+        return symptoms;
+    }
+
+    public void setSymptoms(List<String> symptoms) {
+        this.symptoms = symptoms;
+    }
+}
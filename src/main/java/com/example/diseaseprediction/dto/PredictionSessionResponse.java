@@ -0,0 +1,35 @@
+package com.example.diseaseprediction.dto;
+
+import java.util.List;
+
+public class PredictionSessionResponse {
+    private final String sessionId;
+    private final List<String> symptoms;
+    private final long ruleSetVersion;
+    // Best matching diseases for the current symptoms, best first; empty until a symptom matches a rule
+    private final List<PredictionResponse.Candidate> candidates;
+
+    public PredictionSessionResponse(String sessionId, List<String> symptoms, long ruleSetVersion,
+                                     List<PredictionResponse.Candidate> candidates) {
+        this.sessionId = sessionId;
+        this.symptoms = symptoms;
+        this.ruleSetVersion = ruleSetVersion;
+        this.candidates = candidates;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public List<String> getSymptoms() {
+        return symptoms;
+    }
+
+    public long getRuleSetVersion() {
+        return ruleSetVersion;
+    }
+
+    public List<PredictionResponse.Candidate> getCandidates() {
+        return candidates;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.diseaseprediction.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Training examples of the Naive Bayes engine; written and replayed in plain JDBC by ConfirmedDiagnosisRepository
+@Entity
+@Table(name = "confirmed_diagnoses")
+public class ConfirmedDiagnosis {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String diseaseName;
+
+    // Catalog ids of the symptoms, sorted and varint-packed by SymptomSetCodec
+    @Column(length = 1000)
+    private byte[] symptomIds;
+
+    private LocalDateTime createdAt = LocalDateTime.now();
+
+    public ConfirmedDiagnosis() {
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getDiseaseName() {
+        return diseaseName;
+    }
+
+    public byte[] getSymptomIds() {
+        return symptomIds;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -1,7 +1,11 @@
 package com.example.diseaseprediction.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @Entity
 @Table(name = "diseases")
 public class Disease {
@@ -19,6 +23,14 @@ public class Disease {
     @Column(length = 1000)
     private String precautions;
 
+    // Symptoms of the scoring rule for this disease, in rule order
+    @JsonIgnore
+    @ElementCollection
+    @CollectionTable(name = "disease_rule_symptoms", joinColumns = @JoinColumn(name = "disease_id"))
+    @OrderColumn(name = "position")
+    @Column(name = "symptom_name", nullable = false)
+    private List<String> ruleSymptoms = new ArrayList<>();
+
     public Disease() {
     }
 
@@ -55,4 +67,12 @@ public class Disease {
     public void setPrecautions(String precautions) {
         this.precautions = precautions;
     }
+
+    public List<String> getRuleSymptoms() {
+        return ruleSymptoms;
+    }
+
+    public void setRuleSymptoms(List<String> ruleSymptoms) {
+        this.ruleSymptoms = ruleSymptoms;
+    }
 }
@@ -1,15 +1,26 @@
 package com.example.diseaseprediction.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "predictions")
+// History pages are keyset range scans over the first index, newest first; the statistics' grouped count
+// scans the second instead of the table
+@Table(name = "predictions", indexes = {
+        @Index(name = "idx_predictions_user_created", columnList = "user_id, created_at desc, id desc"),
+        @Index(name = "idx_predictions_disease", columnList = "disease_id")})
 public class Prediction {
 
+    // Up to 100 symptoms of at most 9 bytes each
+    public static final int MAX_SYMPTOM_IDS = 100;
+    private static final int SYMPTOM_IDS_LENGTH = 1000;
+
+    // Pooled sequence ids (one sequence call per 100 rows) let Hibernate batch the inserts; IDENTITY cannot
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "prediction_ids")
+    @SequenceGenerator(name = "prediction_ids", sequenceName = "predictions_seq", allocationSize = 100)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -26,6 +37,17 @@ public class Prediction {
 
     private LocalDateTime createdAt = LocalDateTime.now();
 
+    // Catalog ids of the submitted symptoms, sorted and varint-packed by SymptomSetCodec
+    @JsonIgnore
+    @Column(length = SYMPTOM_IDS_LENGTH)
+    private byte[] symptomIds;
+
+    // Catalog ids of the predicted disease's rule when it was scored, packed the same way. Against symptomIds
+    // they give the explanation: submitted symptoms in the rule, and rule symptoms not submitted
+    @JsonIgnore
+    @Column(length = SYMPTOM_IDS_LENGTH)
+    private byte[] ruleSymptomIds;
+
     public Prediction() {
     }
 
@@ -39,6 +61,14 @@ public class Prediction {
         return id;
     }
 
+    /**
+     * Forgets an id assigned by a persist that was rolled back, so the prediction can be persisted again
+     * instead of being taken for a detached row.
+     */
+    public void clearId() {
+        this.id = null;
+    }
+
     public User getUser() {
         return user;
     }
@@ -70,4 +100,20 @@ public class Prediction {
     public void setCreatedAt(LocalDateTime createdAt) {
         this.createdAt = createdAt;
     }
+
+    public byte[] getSymptomIds() {
+        return symptomIds;
+    }
+
+    public void setSymptomIds(byte[] symptomIds) {
+        this.symptomIds = symptomIds;
+    }
+
+    public byte[] getRuleSymptomIds() {
+        return ruleSymptomIds;
+    }
+
+    public void setRuleSymptomIds(byte[] ruleSymptomIds) {
+        this.ruleSymptomIds = ruleSymptomIds;
+    }
 }
@@ -0,0 +1,80 @@
+package com.example.diseaseprediction.repository;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Symptom catalog access for the prediction path in plain JDBC: id lookups by name, and a batched
+ * insert of new names that leaves names already present (or inserted concurrently) untouched, so
+ * registering the symptoms of a request never fails on the unique constraint.
+ */
+@Repository
+public class CatalogRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String insertSymptomSql;
+
+    public CatalogRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.insertSymptomSql = insertSymptomSql(jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName()));
+    }
+
+    public Map<String, Long> findAllSymptomIds() {
+        Map<String, Long> ids = new HashMap<>();
+        jdbcTemplate.query("SELECT id, symptom_name FROM symptoms",
+                rs -> {
+                    ids.put(rs.getString(2), rs.getLong(1));
+                });
+        return ids;
+    }
+
+    public Map<String, Long> findSymptomIds(Collection<String> names) {
+        Map<String, Long> ids = new HashMap<>();
+        if (names.isEmpty()) {
+            return ids;
+        }
+        String placeholders = String.join(", ", Collections.nCopies(names.size(), "?"));
+        jdbcTemplate.query("SELECT id, symptom_name FROM symptoms WHERE symptom_name IN (" + placeholders + ")",
+                rs -> {
+                    ids.put(rs.getString(2), rs.getLong(1));
+                },
+                names.toArray());
+        return ids;
+    }
+
+    /**
+     * The id of the symptom the database considers equal to {@code name}, which under a case- or
+     * accent-insensitive collation may be stored with another spelling.
+     */
+    public Optional<Long> findSymptomId(String name) {
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM symptoms WHERE symptom_name = ?", Long.class, name);
+        return ids.isEmpty() ? Optional.empty() : Optional.of(ids.get(0));
+    }
+
+    /**
+     * Inserts the names with one JDBC batch, skipping those already in the table. Callers pass the names
+     * sorted, so concurrent batches take the unique-index locks in the same order.
+     */
+    public void insertSymptoms(List<String> names) {
+        jdbcTemplate.batchUpdate(insertSymptomSql, names, names.size(), (ps, name) -> ps.setString(1, name));
+    }
+
+    private static String insertSymptomSql(String databaseProduct) {
+        return switch (databaseProduct) {
+            case "PostgreSQL" -> "INSERT INTO symptoms (symptom_name) VALUES (?) ON CONFLICT (symptom_name) DO NOTHING";
+            case "MySQL", "MariaDB" -> "INSERT IGNORE INTO symptoms (symptom_name) VALUES (?)";
+            // H2 in any compatibility mode
+            case "H2" -> "MERGE INTO symptoms (symptom_name) KEY (symptom_name) VALUES (?)";
+            default -> throw new IllegalStateException("No symptom upsert for database " + databaseProduct);
+        };
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.diseaseprediction.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+/**
+ * Confirmed diagnoses in plain JDBC: one insert per diagnosis, and a forward-only read of the rows after an id
+ * for replaying them into the Naive Bayes engine.
+ */
+@Repository
+public class ConfirmedDiagnosisRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ConfirmedDiagnosisRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * @return the id of the new row
+     */
+    public long insert(String diseaseName, byte[] symptomIds) {
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                    "INSERT INTO confirmed_diagnoses (disease_name, symptom_ids, created_at) VALUES (?, ?, ?)",
+                    new String[]{"id"});
+            ps.setString(1, diseaseName);
+            ps.setBytes(2, symptomIds);
+            ps.setTimestamp(3, Timestamp.valueOf(LocalDateTime.now()));
+            return ps;
+        }, keys);
+        return keys.getKey().longValue();
+    }
+
+    /**
+     * Hands every row with an id above {@code afterId} to {@code action}, by id.
+     */
+    public void forEachAfter(long afterId, Consumer<DiagnosisRow> action) {
+        jdbcTemplate.query("SELECT id, disease_name, symptom_ids FROM confirmed_diagnoses WHERE id > ? ORDER BY id",
+                rs -> {
+                    action.accept(new DiagnosisRow(rs.getLong(1), rs.getString(2), rs.getBytes(3)));
+                },
+                afterId);
+    }
+
+    public record DiagnosisRow(long id, String diseaseName, byte[] symptomIds) {
+    }
+}
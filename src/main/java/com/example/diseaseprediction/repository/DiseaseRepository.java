@@ -2,9 +2,14 @@ package com.example.diseaseprediction.repository;
 
 import com.example.diseaseprediction.model.Disease;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface DiseaseRepository extends JpaRepository<Disease, Long> {
     Optional<Disease> findByDiseaseName(String diseaseName);
+
+    @Query("select distinct d from Disease d left join fetch d.ruleSymptoms order by d.id")
+    List<Disease> findAllWithRuleSymptoms();
 }
@@ -0,0 +1,51 @@
+package com.example.diseaseprediction.repository;
+
+import com.example.diseaseprediction.model.Prediction;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Bulk insert path for predictions. Ids come from a pooled sequence, so Hibernate groups the inserts
+ * into JDBC batches of {@code hibernate.jdbc.batch_size} rows. Each batch is flushed and its rows detached,
+ * so large writes do not pile up managed entities in the persistence context. All rows are inserted in one
+ * transaction; when it fails, the ids persist assigned are cleared again so the same predictions can be
+ * retried.
+ */
+@Repository
+public class PredictionBatchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private final int batchSize;
+    private final TransactionTemplate transactionTemplate;
+
+    public PredictionBatchRepository(@Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}") int batchSize,
+                                     PlatformTransactionManager transactionManager) {
+        this.batchSize = batchSize;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public void insertAll(List<Prediction> predictions) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int from = 0; from < predictions.size(); from += batchSize) {
+                    List<Prediction> batch = predictions.subList(from, Math.min(predictions.size(), from + batchSize));
+                    batch.forEach(entityManager::persist);
+                    entityManager.flush();
+                    batch.forEach(entityManager::detach);
+                }
+            });
+        } catch (RuntimeException e) {
+            // Rolled back, but the entities keep their sequence ids; persisting them again would fail as detached
+            predictions.forEach(Prediction::clearId);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.diseaseprediction.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.function.Consumer;
+
+/**
+ * Forward-only read of prediction rows for exports, in plain JDBC. Rows are handed to the caller one at a
+ * time as the driver fetches them, {@code app.predictions.export.fetch-size} per round trip, and nothing
+ * is kept, so an export of any size runs in the memory of one fetch. PostgreSQL only uses a server-side
+ * cursor inside a transaction, so callers run this in one; MySQL Connector/J only streams with a fetch
+ * size of {@link Integer#MIN_VALUE}, which is used there instead.
+ */
+@Repository
+public class PredictionExportRepository {
+
+    private static final String SELECT = "SELECT p.id, u.email, p.created_at, d.disease_name, p.confidence, "
+            + "p.symptom_ids "
+            + "FROM predictions p JOIN users u ON u.id = p.user_id JOIN diseases d ON d.id = p.disease_id ";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PredictionExportRepository(JdbcTemplate jdbcTemplate,
+                                      @Value("${app.predictions.export.fetch-size:1000}") int fetchSize) {
+        String databaseProduct = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        // A template of its own, so the fetch size does not apply to the shared one
+        this.jdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.jdbcTemplate.setFetchSize("MySQL".equals(databaseProduct) ? Integer.MIN_VALUE : fetchSize);
+    }
+
+    /**
+     * Rows of one user, newest first.
+     */
+    public void forEachOfUser(String email, Consumer<ExportRow> action) {
+        jdbcTemplate.query(SELECT + "WHERE u.email = ? ORDER BY p.created_at DESC, p.id DESC",
+                handler(action), email);
+    }
+
+    /**
+     * Rows of all users, by id.
+     */
+    public void forEach(Consumer<ExportRow> action) {
+        jdbcTemplate.query(SELECT + "ORDER BY p.id", handler(action));
+    }
+
+    private static RowCallbackHandler handler(Consumer<ExportRow> action) {
+        return rs -> action.accept(row(rs));
+    }
+
+    private static ExportRow row(ResultSet rs) throws SQLException {
+        Timestamp createdAt = rs.getTimestamp(3);
+        return new ExportRow(rs.getLong(1), rs.getString(2), createdAt != null ? createdAt.toLocalDateTime() : null,
+                rs.getString(4), rs.getDouble(5), rs.getBytes(6));
+    }
+
+    public record ExportRow(long id, String userEmail, LocalDateTime createdAt, String diseaseName,
+                            double confidence, byte[] symptomIds) {
+    }
+}
@@ -1,14 +1,54 @@
 package com.example.diseaseprediction.repository;
 
+import com.example.diseaseprediction.dto.PredictionHistoryResponse;
 import com.example.diseaseprediction.model.Prediction;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface PredictionRepository extends JpaRepository<Prediction, Long> {
     List<Prediction> findByUserId(Long userId);
 
+    // Reports read the disease after the query's transaction has ended, so it is fetched with the rows
+    @EntityGraph(attributePaths = "disease")
     List<Prediction> findByUserEmailOrderByCreatedAtDesc(String email);
+
+    @EntityGraph(attributePaths = "disease")
+    Optional<Prediction> findWithDiseaseById(Long id);
     
     int countByUserId(Long userId);
+
+    /**
+     * Newest history rows of a user, with the disease columns joined in the same query. Filters on the
+     * user_id column itself, so it reads the (user_id, created_at, id) index in order and stops after
+     * {@code limit} rows.
+     */
+    @Query("select new com.example.diseaseprediction.dto.PredictionHistoryResponse("
+            + "p.id, d.diseaseName, p.confidence, d.precautions, p.createdAt) "
+            + "from Prediction p join p.disease d "
+            + "where p.user.id = :userId "
+            + "order by p.createdAt desc, p.id desc")
+    List<PredictionHistoryResponse> findHistory(@Param("userId") Long userId, Limit limit);
+
+    /**
+     * History rows strictly older than the keyset ({@code createdAt}, {@code id}) of the last row of the
+     * previous page, so a page costs the same however deep it is. The row-value comparison is a single
+     * range bound on the index; dialects without row values get it expanded by Hibernate.
+     */
+    @Query("select new com.example.diseaseprediction.dto.PredictionHistoryResponse("
+            + "p.id, d.diseaseName, p.confidence, d.precautions, p.createdAt) "
+            + "from Prediction p join p.disease d "
+            + "where p.user.id = :userId "
+            + "and (p.createdAt, p.id) < (:createdAt, :id) "
+            + "order by p.createdAt desc, p.id desc")
+    List<PredictionHistoryResponse> findHistoryBefore(@Param("userId") Long userId,
+                                                      @Param("createdAt") LocalDateTime createdAt,
+                                                      @Param("id") Long id,
+                                                      Limit limit);
 }
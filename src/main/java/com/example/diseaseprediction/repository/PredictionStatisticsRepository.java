@@ -0,0 +1,32 @@
+package com.example.diseaseprediction.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+/**
+ * Aggregates over the predictions table for the admin statistics. The database groups and counts, so only
+ * one row per disease crosses the wire, never the predictions themselves.
+ */
+@Repository
+public class PredictionStatisticsRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PredictionStatisticsRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Number of predictions of every disease predicted at least once.
+     */
+    public List<DiseaseCount> countByDisease() {
+        return jdbcTemplate.query("SELECT d.id, d.disease_name, COUNT(*) FROM predictions p "
+                        + "JOIN diseases d ON d.id = p.disease_id GROUP BY d.id, d.disease_name",
+                (rs, rowNum) -> new DiseaseCount(rs.getLong(1), rs.getString(2), rs.getLong(3)));
+    }
+
+    public record DiseaseCount(long diseaseId, String diseaseName, long predictions) {
+    }
+}
@@ -1,21 +1,22 @@
 package com.example.diseaseprediction.service;
 
+import com.example.diseaseprediction.dto.ConfirmedDiagnosisRequest;
 import com.example.diseaseprediction.dto.DiseaseDto;
 import com.example.diseaseprediction.dto.StatisticsResponse;
 import com.example.diseaseprediction.dto.UserDto;
 import com.example.diseaseprediction.model.Disease;
-import com.example.diseaseprediction.model.Prediction;
-import com.example.diseaseprediction.model.User;
 import com.example.diseaseprediction.repository.DiseaseRepository;
-import com.example.diseaseprediction.repository.PredictionRepository;
 import com.example.diseaseprediction.repository.SymptomRepository;
 import com.example.diseaseprediction.repository.UserRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.stream.Collectors;
 
@@ -23,18 +24,27 @@ import java.util.stream.Collectors;
 public class AdminService {
 
     private final UserRepository userRepository;
-    private final PredictionRepository predictionRepository;
     private final DiseaseRepository diseaseRepository;
     private final SymptomRepository symptomRepository;
+    private final RuleSetLoader ruleSetLoader;
+    private final ConfirmedDiagnosisService confirmedDiagnosisService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final PredictionStatistics predictionStatistics;
 
     public AdminService(UserRepository userRepository,
-                        PredictionRepository predictionRepository,
                         DiseaseRepository diseaseRepository,
-                        SymptomRepository symptomRepository) {
+                        SymptomRepository symptomRepository,
+                        RuleSetLoader ruleSetLoader,
+                        ConfirmedDiagnosisService confirmedDiagnosisService,
+                        ApplicationEventPublisher eventPublisher,
+                        PredictionStatistics predictionStatistics) {
         this.userRepository = userRepository;
-        this.predictionRepository = predictionRepository;
         this.diseaseRepository = diseaseRepository;
         this.symptomRepository = symptomRepository;
+        this.ruleSetLoader = ruleSetLoader;
+        this.confirmedDiagnosisService = confirmedDiagnosisService;
+        this.eventPublisher = eventPublisher;
+        this.predictionStatistics = predictionStatistics;
     }
 
     public List<UserDto> listUsers() {
@@ -43,15 +53,16 @@ public class AdminService {
                 .toList();
     }
 
+    /**
+     * Prediction counts come from the in-memory {@link PredictionStatistics}, so the cost does not grow with the
+     * predictions table; they lag other replicas by up to one reconcile interval.
+     */
     public StatisticsResponse statistics() {
         long totalUsers = userRepository.count();
         long totalDiseases = diseaseRepository.count();
         long totalSymptoms = symptomRepository.count();
-        List<Prediction> predictions = predictionRepository.findAll();
-        long totalPredictions = predictions.size();
-        
-        Map<String, Long> diseaseCounts = predictions.stream()
-                .collect(Collectors.groupingBy(p -> p.getDisease().getDiseaseName(), Collectors.counting()));
+        Map<String, Long> diseaseCounts = predictionStatistics.countsByDisease();
+        long totalPredictions = diseaseCounts.values().stream().mapToLong(Long::longValue).sum();
         
         // Get top 5 diseases
         List<StatisticsResponse.TopDisease> topDiseases = diseaseCounts.entrySet().stream()
@@ -75,14 +86,38 @@ public class AdminService {
         disease.setDiseaseName(dto.getDiseaseName());
         disease.setDescription(dto.getDescription());
         disease.setPrecautions(dto.getPrecautions());
-        return diseaseRepository.save(disease);
+        if (dto.getSymptoms() != null) {
+            LinkedHashSet<String> symptoms = new LinkedHashSet<>();
+            dto.getSymptoms().stream()
+                    .filter(symptom -> symptom != null && !symptom.isBlank())
+                    .forEach(symptom -> symptoms.add(symptom.trim().toLowerCase(Locale.ROOT)));
+            disease.getRuleSymptoms().clear();
+            disease.getRuleSymptoms().addAll(symptoms);
+        }
+        Disease saved = diseaseRepository.save(disease);
+        // The engine recompiles its rules once this transaction commits
+        eventPublisher.publishEvent(new RuleSetChangedEvent());
+        return saved;
     }
 
     public List<Disease> listDiseases() {
         return diseaseRepository.findAll();
     }
 
+    @Transactional
     public void deleteDisease(Long id) {
         diseaseRepository.deleteById(id);
+        eventPublisher.publishEvent(new RuleSetChangedEvent());
+    }
+
+    public long reloadRules() {
+        return ruleSetLoader.reload();
+    }
+
+    /**
+     * Feeds a confirmed diagnosis to the Naive Bayes engine as a training example and stores it.
+     */
+    public void confirmDiagnosis(ConfirmedDiagnosisRequest request) {
+        confirmedDiagnosisService.record(request.getSymptoms(), request.getDiseaseName());
     }
 }
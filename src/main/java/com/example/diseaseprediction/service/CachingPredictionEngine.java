@@ -0,0 +1,133 @@
+package com.example.diseaseprediction.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Bounded cache in front of {@link DecisionTreeEngine}. Entries are keyed by the rule-set version,
+ * the number of candidates asked for and the canonical symptom set (the sorted ids of the known symptoms),
+ * so differently ordered, cased or duplicated inputs share an entry and a reload can never serve a stale
+ * outcome; old entries are dropped as soon as a new version is seen. Caffeine's W-TinyLFU policy keeps
+ * frequent combinations over one-off ones, and lookups take no global lock.
+ */
+public class CachingPredictionEngine implements PredictionEngine {
+
+    private final DecisionTreeEngine engine;
+    private final Cache<Key, List<DecisionTreeEngine.Outcome>> cache;
+    private volatile long cachedVersion;
+
+    public CachingPredictionEngine(DecisionTreeEngine engine, long maximumSize, MeterRegistry meterRegistry) {
+        this.engine = engine;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+        if (meterRegistry != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, "predictions");
+        }
+    }
+
+    @Override
+    public DecisionTreeEngine.Outcome predict(List<String> symptoms) {
+        if (symptoms == null || symptoms.isEmpty()) {
+            return engine.predict(symptoms);
+        }
+        return lookup(current(), symptoms, 0).get(0);
+    }
+
+    @Override
+    public List<DecisionTreeEngine.Outcome> predictAll(List<List<String>> symptomSets) {
+        RuleIndex snapshot = current();
+        List<DecisionTreeEngine.Outcome> outcomes = new ArrayList<>(symptomSets.size());
+        for (List<String> symptoms : symptomSets) {
+            outcomes.add(symptoms == null || symptoms.isEmpty()
+                    ? engine.predict(symptoms)
+                    : lookup(snapshot, symptoms, 0).get(0));
+        }
+        return outcomes;
+    }
+
+    @Override
+    public List<DecisionTreeEngine.Outcome> predictTopK(List<String> symptoms, int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be at least 1");
+        }
+        if (symptoms == null || symptoms.isEmpty()) {
+            return engine.predictTopK(symptoms, k);
+        }
+        return lookup(current(), symptoms, k);
+    }
+
+    @Override
+    public long getRuleSetVersion() {
+        return engine.getRuleSetVersion();
+    }
+
+    CacheStats stats() {
+        return cache.stats();
+    }
+
+    long size() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    /**
+     * k = 0 stands for the single best outcome.
+     */
+    private List<DecisionTreeEngine.Outcome> lookup(RuleIndex snapshot, List<String> symptoms, int k) {
+        SymptomQuery query = snapshot.query(symptoms);
+        int[] ids = Arrays.copyOf(query.ids, query.size);
+        Arrays.sort(ids);
+        return cache.get(new Key(snapshot.version(), k, ids), key -> k == 0
+                ? List.of(engine.predict(snapshot, query))
+                : List.copyOf(engine.predictTopK(snapshot, query, k)));
+    }
+
+    private RuleIndex current() {
+        RuleIndex snapshot = engine.snapshot();
+        if (snapshot.version() != cachedVersion) {
+            // Entries of older versions can no longer be hit; free them now instead of waiting for eviction
+            cachedVersion = snapshot.version();
+            cache.invalidateAll();
+        }
+        return snapshot;
+    }
+
+    private static final class Key {
+        private final long version;
+        private final int k;
+        private final int[] symptomIds;
+        private final int hash;
+
+        Key(long version, int k, int[] symptomIds) {
+            this.version = version;
+            this.k = k;
+            this.symptomIds = symptomIds;
+            this.hash = 31 * (31 * Long.hashCode(version) + k) + Arrays.hashCode(symptomIds);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key other)) {
+                return false;
+            }
+            return version == other.version && k == other.k && Arrays.equals(symptomIds, other.symptomIds);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.diseaseprediction.service;
+
+/**
+ * Bounded min-heap of (disease, matches) pairs that keeps the k best candidates seen so far.
+ * Candidates are ordered by matches / rule size, ties going to the lower disease id, so the
+ * result is identical to sorting every disease but costs O(n log k).
+ */
+final class CandidateHeap {
+
+    private final RuleIndex index;
+    private final int[] diseases;
+    private final int[] matches;
+    private int size;
+
+    CandidateHeap(RuleIndex index, int capacity) {
+        this.index = index;
+        this.diseases = new int[capacity];
+        this.matches = new int[capacity];
+    }
+
+    void offer(int disease, int diseaseMatches) {
+        if (size < diseases.length) {
+            diseases[size] = disease;
+            matches[size] = diseaseMatches;
+            siftUp(size++);
+        } else if (size > 0 && isBetter(disease, diseaseMatches, diseases[0], matches[0])) {
+            diseases[0] = disease;
+            matches[0] = diseaseMatches;
+            siftDown(0);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Empties the heap into the given arrays, best candidate first, and returns the number written.
+     */
+    int drain(int[] outDiseases, int[] outMatches) {
+        int count = size;
+        for (int i = count - 1; i >= 0; i--) {
+            outDiseases[i] = diseases[0];
+            outMatches[i] = matches[0];
+            size--;
+            diseases[0] = diseases[size];
+            matches[0] = matches[size];
+            siftDown(0);
+        }
+        return count;
+    }
+
+    private boolean isBetter(int diseaseA, int matchesA, int diseaseB, int matchesB) {
+        long lhs = (long) matchesA * index.ruleSize(diseaseB);
+        long rhs = (long) matchesB * index.ruleSize(diseaseA);
+        return lhs != rhs ? lhs > rhs : diseaseA < diseaseB;
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!isBetter(diseases[parent], matches[parent], diseases[i], matches[i])) {
+                return;
+            }
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) {
+                return;
+            }
+            int worst = left;
+            int right = left + 1;
+            if (right < size && isBetter(diseases[left], matches[left], diseases[right], matches[right])) {
+                worst = right;
+            }
+            if (!isBetter(diseases[i], matches[i], diseases[worst], matches[worst])) {
+                return;
+            }
+            swap(i, worst);
+            i = worst;
+        }
+    }
+
+    private void swap(int a, int b) {
+        int disease = diseases[a];
+        diseases[a] = diseases[b];
+        diseases[b] = disease;
+        int count = matches[a];
+        matches[a] = matches[b];
+        matches[b] = count;
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.diseaseprediction.service;
+
+import com.example.diseaseprediction.model.Disease;
+import com.example.diseaseprediction.repository.CatalogRepository;
+import com.example.diseaseprediction.repository.DiseaseRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Symptom and disease ids by normalized name for the prediction path, so a prediction whose symptoms and
+ * disease are already catalogued reads nothing from the catalog tables. Both maps are filled at startup;
+ * diseases are reloaded after every committed {@link RuleSetChangedEvent}. On a miss the cache reads
+ * through: the new symptoms of a call are inserted with one batched upsert in a short transaction of their
+ * own, and their ids are cached once it has committed. Concurrent first inserts of the same name are
+ * coalesced: the first caller inserts it, the others wait for its id instead of racing on the unique key.
+ */
+@Component
+public class CatalogCache {
+
+    private static final Logger log = LoggerFactory.getLogger(CatalogCache.class);
+
+    private final CatalogRepository catalogRepository;
+    private final DiseaseRepository diseaseRepository;
+    private final TransactionTemplate writeTransaction;
+    private final Map<String, Long> symptomIds = new ConcurrentHashMap<>();
+    // Names being inserted by another caller, completed with their ids after its commit
+    private final Map<String, CompletableFuture<Long>> pendingSymptoms = new ConcurrentHashMap<>();
+    private volatile Map<String, CachedDisease> diseases = new ConcurrentHashMap<>();
+    // Serializes disease writes and reloads; a lock rather than synchronized, which would pin a virtual
+    // thread to its carrier while it waits on the database
+    private final ReentrantLock diseaseLock = new ReentrantLock();
+
+    public CatalogCache(CatalogRepository catalogRepository,
+                        DiseaseRepository diseaseRepository,
+                        PlatformTransactionManager transactionManager) {
+        this.catalogRepository = catalogRepository;
+        this.diseaseRepository = diseaseRepository;
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        loadSymptoms();
+        reloadDiseases();
+        log.info("Catalog cache loaded {} symptoms and {} diseases", symptomIds.size(), diseases.size());
+    }
+
+    void loadSymptoms() {
+        symptomIds.putAll(catalogRepository.findAllSymptomIds());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRuleSetChanged(RuleSetChangedEvent event) {
+        reloadDiseases();
+    }
+
+    /**
+     * Ids of the given symptoms by normalized name, inserting the ones not catalogued yet. Blank names are
+     * skipped; a name the database equates with a stored one gets that row's id.
+     */
+    public Map<String, Long> symptomIds(Collection<String> symptoms) {
+        Map<String, Long> ids = new HashMap<>();
+        TreeSet<String> inserting = new TreeSet<>();
+        Map<String, CompletableFuture<Long>> waiting = new HashMap<>();
+        for (String symptom : symptoms) {
+            String name = RuleIndex.normalize(symptom);
+            if (name.isEmpty() || ids.containsKey(name) || inserting.contains(name) || waiting.containsKey(name)) {
+                continue;
+            }
+            Long id = symptomIds.get(name);
+            if (id != null) {
+                ids.put(name, id);
+                continue;
+            }
+            CompletableFuture<Long> pending = new CompletableFuture<>();
+            CompletableFuture<Long> existing = pendingSymptoms.putIfAbsent(name, pending);
+            if (existing != null) {
+                waiting.put(name, existing);
+            } else if ((id = symptomIds.get(name)) != null) {
+                // Inserted and published between the two lookups
+                pendingSymptoms.remove(name, pending);
+                ids.put(name, id);
+            } else {
+                inserting.add(name);
+            }
+        }
+        if (!inserting.isEmpty()) {
+            Map<String, Long> inserted = insert(inserting);
+            inserting.forEach(name -> putIfFound(ids, name, inserted.get(name)));
+        }
+        waiting.forEach((name, pending) -> putIfFound(ids, name, pending.join()));
+        return ids;
+    }
+
+    /**
+     * The disease predicted under {@code name}, creating it if the rule set names a disease that has no row
+     * (e.g. rules from a trained model file).
+     */
+    public CachedDisease disease(String name, String precautions) {
+        CachedDisease disease = diseases.get(name);
+        return disease != null ? disease : createDisease(name, precautions);
+    }
+
+    private Map<String, Long> insert(TreeSet<String> names) {
+        Map<String, Long> ids;
+        try {
+            ids = writeTransaction.execute(status -> {
+                List<String> sorted = new ArrayList<>(names);
+                catalogRepository.insertSymptoms(sorted);
+                Map<String, Long> found = catalogRepository.findSymptomIds(sorted);
+                // A name the collation equates with a stored one was not inserted and comes back under the
+                // stored spelling
+                for (String name : sorted) {
+                    if (!found.containsKey(name)) {
+                        catalogRepository.findSymptomId(name).ifPresent(id -> found.put(name, id));
+                    }
+                }
+                return found;
+            });
+        } catch (RuntimeException e) {
+            names.forEach(name -> pendingSymptoms.remove(name).completeExceptionally(e));
+            throw e;
+        }
+        symptomIds.putAll(ids);
+        names.forEach(name -> pendingSymptoms.remove(name).complete(ids.get(name)));
+        return ids;
+    }
+
+    // A name whose row could not be found at all is left out rather than mapped to null
+    private static void putIfFound(Map<String, Long> ids, String name, Long id) {
+        if (id != null) {
+            ids.put(name, id);
+        }
+    }
+
+    private CachedDisease createDisease(String name, String precautions) {
+        diseaseLock.lock();
+        try {
+            CachedDisease cached = diseases.get(name);
+            if (cached != null) {
+                return cached;
+            }
+            Disease disease = writeTransaction.execute(status -> diseaseRepository.findByDiseaseName(name)
+                    .orElseGet(() -> diseaseRepository.save(new Disease(name, "Auto-generated from rule set", precautions))));
+            cached = CachedDisease.of(disease);
+            diseases.put(name, cached);
+            return cached;
+        } finally {
+            diseaseLock.unlock();
+        }
+    }
+
+    private void reloadDiseases() {
+        diseaseLock.lock();
+        try {
+            Map<String, CachedDisease> loaded = new ConcurrentHashMap<>();
+            diseaseRepository.findAll().forEach(disease -> loaded.put(disease.getDiseaseName(), CachedDisease.of(disease)));
+            diseases = loaded;
+        } finally {
+            diseaseLock.unlock();
+        }
+    }
+
+    /**
+     * The disease columns a prediction response needs, detached from any persistence context.
+     */
+    public record CachedDisease(long id, String name, String precautions) {
+
+        static CachedDisease of(Disease disease) {
+            return new CachedDisease(disease.getId(), disease.getDiseaseName(), disease.getPrecautions());
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.diseaseprediction.service;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Trained decision tree flattened into parallel arrays. Node 0 is the root; an internal node tests
+ * {@code feature[node]} and continues at {@code children[2 * node + present]}, a leaf has feature -1
+ * and owns the label distribution at [leafOffsets[node], leafOffsets[node + 1]), most frequent first.
+ * Inference is one bit test and one array read per level, with no objects and no virtual calls.
+ */
+final class CompiledTree {
+
+    private final Map<String, Integer> vocabulary;
+    private final String[] labelNames;
+    private final int[] feature;
+    private final int[] children;
+    private final int[] leafOffsets;
+    private final int[] leafLabels;
+    private final float[] leafShares;
+    private final int depth;
+    private final int trainingRows;
+
+    CompiledTree(Map<String, Integer> vocabulary, String[] labelNames, int[] feature, int[] children,
+                 int[] leafOffsets, int[] leafLabels, float[] leafShares, int depth, int trainingRows) {
+        this.vocabulary = vocabulary;
+        this.labelNames = labelNames;
+        this.feature = feature;
+        this.children = children;
+        this.leafOffsets = leafOffsets;
+        this.leafLabels = leafLabels;
+        this.leafShares = leafShares;
+        this.depth = depth;
+        this.trainingRows = trainingRows;
+    }
+
+    /**
+     * Encodes symptoms as a bitset over the tree's features; symptoms never seen in training are dropped.
+     */
+    long[] encode(List<String> symptoms) {
+        long[] present = new long[Math.max(1, (vocabulary.size() + 63) >>> 6)];
+        for (String symptom : symptoms) {
+            if (symptom == null) {
+                continue;
+            }
+            Integer id = vocabulary.get(RuleIndex.normalize(symptom));
+            if (id != null) {
+                present[id >>> 6] |= 1L << id;
+            }
+        }
+        return present;
+    }
+
+    /**
+     * Walks from the root to the leaf that the given symptom bitset falls into.
+     */
+    int leaf(long[] present) {
+        int node = 0;
+        int f;
+        while ((f = feature[node]) >= 0) {
+            int bit = (int) (present[f >>> 6] >>> f) & 1;
+            node = children[(node << 1) | bit];
+        }
+        return node;
+    }
+
+    int leafStart(int leaf) {
+        return leafOffsets[leaf];
+    }
+
+    int leafEnd(int leaf) {
+        return leafOffsets[leaf + 1];
+    }
+
+    String label(int position) {
+        return labelNames[leafLabels[position]];
+    }
+
+    /**
+     * Share of the leaf's training rows that carry the label at this position.
+     */
+    float share(int position) {
+        return leafShares[position];
+    }
+
+    int nodeCount() {
+        return feature.length;
+    }
+
+    int depth() {
+        return depth;
+    }
+
+    int trainingRows() {
+        return trainingRows;
+    }
+}
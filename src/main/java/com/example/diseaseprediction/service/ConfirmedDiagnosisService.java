@@ -0,0 +1,160 @@
+package com.example.diseaseprediction.service;
+
+import com.example.diseaseprediction.repository.CatalogRepository;
+import com.example.diseaseprediction.repository.ConfirmedDiagnosisRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Confirmed diagnoses, stored so the Naive Bayes engine's training survives restarts and reaches every
+ * replica. A diagnosis is counted by the local engine and inserted; at startup every stored diagnosis is
+ * replayed, and every {@code app.engine.naive-bayes.sync-interval} the ones other replicas inserted since are
+ * counted. Each sync reads from {@value #LOOKBACK} ids below the highest one applied, so a row whose
+ * transaction committed after a higher id was read is still picked up; ids already applied are skipped.
+ * Nothing is stored or replayed unless the engine is enabled.
+ */
+@Service
+public class ConfirmedDiagnosisService implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ConfirmedDiagnosisService.class);
+
+    static final int LOOKBACK = 1000;
+
+    private final ConfirmedDiagnosisRepository diagnosisRepository;
+    private final CatalogRepository catalogRepository;
+    private final CatalogCache catalogCache;
+    private final NaiveBayesEngine naiveBayesEngine;
+    private final Duration syncInterval;
+    private final ScheduledExecutorService syncer;
+    // Serializes recording and syncing, so a diagnosis is never counted twice; a lock rather than
+    // synchronized, which would pin a virtual thread to its carrier while it waits on the database
+    private final ReentrantLock syncLock = new ReentrantLock();
+    // Applied ids no more than LOOKBACK below the highest
+    private final TreeSet<Long> applied = new TreeSet<>();
+    private long highest;
+
+    public ConfirmedDiagnosisService(ConfirmedDiagnosisRepository diagnosisRepository,
+                                     CatalogRepository catalogRepository,
+                                     CatalogCache catalogCache,
+                                     NaiveBayesEngine naiveBayesEngine,
+                                     @Value("${app.engine.naive-bayes.sync-interval:PT1M}") Duration syncInterval) {
+        this.diagnosisRepository = diagnosisRepository;
+        this.catalogRepository = catalogRepository;
+        this.catalogCache = catalogCache;
+        this.naiveBayesEngine = naiveBayesEngine;
+        this.syncInterval = syncInterval;
+        this.syncer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "diagnosis-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Runs after RuleSetLoader has loaded the rule set, so stored diagnoses of its diseases are not rejected
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!naiveBayesEngine.enabled()) {
+            return;
+        }
+        int replayed = sync();
+        log.info("Replayed {} confirmed diagnoses into the Naive Bayes engine", replayed);
+        if (!syncInterval.isZero() && !syncInterval.isNegative()) {
+            long millis = syncInterval.toMillis();
+            syncer.scheduleWithFixedDelay(this::syncQuietly, millis, millis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Counts a confirmed diagnosis and stores it.
+     *
+     * @throws IllegalArgumentException if the engine is not enabled or does not know the disease
+     */
+    public void record(List<String> symptoms, String diseaseName) {
+        syncLock.lock();
+        try {
+            naiveBayesEngine.observe(symptoms, diseaseName);
+            Map<String, Long> ids = catalogCache.symptomIds(symptoms);
+            markApplied(diagnosisRepository.insert(diseaseName, SymptomSetCodec.encode(ids.values())));
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    /**
+     * Counts the stored diagnoses not applied yet.
+     *
+     * @return how many were counted
+     */
+    int sync() {
+        syncLock.lock();
+        try {
+            List<ConfirmedDiagnosisRepository.DiagnosisRow> rows = new ArrayList<>();
+            diagnosisRepository.forEachAfter(Math.max(0, highest - LOOKBACK), row -> {
+                if (!applied.contains(row.id())) {
+                    rows.add(row);
+                }
+            });
+            if (rows.isEmpty()) {
+                return 0;
+            }
+            // Loaded after the rows, so it holds every symptom they name
+            Map<Long, String> symptomNames = new HashMap<>();
+            catalogRepository.findAllSymptomIds().forEach((name, id) -> symptomNames.put(id, name));
+            int counted = 0;
+            for (ConfirmedDiagnosisRepository.DiagnosisRow row : rows) {
+                List<String> symptoms = new ArrayList<>();
+                if (row.symptomIds() != null) {
+                    SymptomSetCodec.forEach(row.symptomIds(), id -> {
+                        String name = symptomNames.get(id);
+                        if (name != null) {
+                            symptoms.add(name);
+                        }
+                    });
+                }
+                // Diseases no longer in the rule set are skipped
+                if (naiveBayesEngine.learn(symptoms, row.diseaseName())) {
+                    counted++;
+                }
+                markApplied(row.id());
+            }
+            naiveBayesEngine.publishLearned();
+            return counted;
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    private void markApplied(long id) {
+        applied.add(id);
+        highest = Math.max(highest, id);
+        applied.headSet(highest - LOOKBACK).clear();
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (RuntimeException e) {
+            log.warn("Could not sync confirmed diagnoses: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        syncer.shutdownNow();
+    }
+}
@@ -1,24 +1,52 @@
 package com.example.diseaseprediction.service;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Simple, explainable decision-tree-like scorer that matches symptom overlap.
+ * The rules are compiled into an immutable {@link RuleIndex} so a prediction is a popcount scan over bitsets,
+ * or a walk over the postings of the submitted symptoms in {@link ScoringMode#INVERTED} mode.
+ * {@link #reload} swaps in a newly compiled index atomically: readers never block, and a prediction
+ * that is already running finishes against the index it started with.
+ * In {@link ScoringMode#COMPILED} mode every index is also compiled into a generated scorer class before
+ * it is published.
+ * The index can also be exported to, and served from, a memory-mapped model file ({@link #open}).
  */
 @Component
-public class DecisionTreeEngine {
+public class DecisionTreeEngine implements PredictionEngine {
 
     public static class Outcome {
         private final String diseaseName;
         private final double confidence;
         private final String precautions;
+        private final long ruleSetVersion;
+        // Rule symptoms of the disease, the first matchedCount of them submitted, the rest missing
+        private final String[] ruleSymptoms;
+        private final int matchedCount;
 
         public Outcome(String diseaseName, double confidence, String precautions) {
+            this(diseaseName, confidence, precautions, 0);
+        }
+
+        public Outcome(String diseaseName, double confidence, String precautions, long ruleSetVersion) {
+            this(diseaseName, confidence, precautions, ruleSetVersion, new String[0], 0);
+        }
+
+        Outcome(String diseaseName, double confidence, String precautions, long ruleSetVersion,
+                String[] ruleSymptoms, int matchedCount) {
             this.diseaseName = diseaseName;
             this.confidence = confidence;
             this.precautions = precautions;
+            this.ruleSetVersion = ruleSetVersion;
+            this.ruleSymptoms = ruleSymptoms;
+            this.matchedCount = matchedCount;
         }
 
         public String getDiseaseName() {
@@ -32,18 +60,90 @@ public class DecisionTreeEngine {
         public String getPrecautions() {
             return precautions;
         }
+
+        public long getRuleSetVersion() {
+            return ruleSetVersion;
+        }
+
+        /**
+         * Submitted symptoms that appear in the disease's rule.
+         */
+        public List<String> getMatchedSymptoms() {
+            return Collections.unmodifiableList(Arrays.asList(ruleSymptoms).subList(0, matchedCount));
+        }
+
+        /**
+         * Rule symptoms of the disease that were not submitted.
+         */
+        public List<String> getMissingSymptoms() {
+            return Collections.unmodifiableList(Arrays.asList(ruleSymptoms).subList(matchedCount, ruleSymptoms.length));
+        }
+    }
+
+    /**
+     * How candidate diseases are scored: a full scan over rule bitsets, or an inverted index that
+     * only touches diseases sharing at least one symptom with the input (better for large catalogs).
+     * VECTOR is the full scan done with Java Vector API lanes; it needs a {@code -Pvector} build and
+     * falls back to scalar popcounts when the module is not available.
+     * COMPILED is the full scan through a class generated for each rule set, with the rules as constants
+     * (see {@link RuleScorerCompiler}); rule sets too large to compile are scanned like BITSET.
+     * WEIGHTED ranks by the inverse-frequency weight of the matched symptoms over the rule's total weight
+     * ({@link SpecificityWeights}) instead of by matches / rule size, so rare symptoms count for more.
+     */
+    public enum ScoringMode {
+        BITSET,
+        INVERTED,
+        VECTOR,
+        COMPILED,
+        WEIGHTED
     }
 
-    private final Map<String, List<String>> symptomTree;
-    private final Map<String, String> precautions;
+    private static final String GENERAL_PRECAUTIONS = "General precautions: rest, hydrate, seek professional advice.";
+
+    private static final ThreadLocal<int[]> ROW_COUNTS = ThreadLocal.withInitial(() -> new int[0]);
+
+    private final ScoringMode scoringMode;
+    private final RowScorer rowScorer;
+    private final AtomicLong versions = new AtomicLong();
+    private volatile RuleIndex index;
+    // Generated scorer of the index it was compiled for; written before that index is published
+    private volatile CompiledRules compiled;
 
     public DecisionTreeEngine() {
-        symptomTree = new LinkedHashMap<>();
-        precautions = new HashMap<>();
-        seedRules();
+        this(ScoringMode.BITSET);
+    }
+
+    @Autowired
+    public DecisionTreeEngine(@Value("${app.engine.scoring:bitset}") ScoringMode scoringMode) {
+        this(scoringMode, defaultRules(), defaultPrecautions());
+    }
+
+    /**
+     * Builds an engine over an explicit rule set (disease to symptoms, in priority order)
+     * instead of the built-in seed rules.
+     */
+    public DecisionTreeEngine(ScoringMode scoringMode, Map<String, List<String>> rules, Map<String, String> precautions) {
+        this.scoringMode = scoringMode;
+        this.rowScorer = scoringMode == ScoringMode.VECTOR ? RowScorers.vector() : RowScorers.SCALAR;
+        publish(RuleIndex.compile(versions.incrementAndGet(), rules, precautions));
     }
 
-    private void seedRules() {
+    /**
+     * Built-in rules (disease to symptoms, in priority order), used until rules are loaded from the database.
+     */
+    public static Map<String, List<String>> defaultRules() {
+        Map<String, List<String>> symptomTree = new LinkedHashMap<>();
+        seedRules(symptomTree, new HashMap<>());
+        return symptomTree;
+    }
+
+    public static Map<String, String> defaultPrecautions() {
+        Map<String, String> precautions = new HashMap<>();
+        seedRules(new LinkedHashMap<>(), precautions);
+        return precautions;
+    }
+
+    private static void seedRules(Map<String, List<String>> symptomTree, Map<String, String> precautions) {
         // Respiratory Diseases
         symptomTree.put("Flu (Influenza)", List.of("fever", "high fever", "cough", "sore throat", "fatigue", "body aches", "chills"));
         precautions.put("Flu (Influenza)", "Rest, drink fluids, take antiviral medications if prescribed. Avoid contact with others.");
@@ -126,31 +226,283 @@ public class DecisionTreeEngine {
         precautions.put("Hypertension", "Lifestyle changes, reduced salt intake, regular exercise, medications if prescribed.");
     }
 
+    /**
+     * Compiles a new rule set and makes it visible to subsequent predictions.
+     * Compilation happens off to the side; publishing is a single volatile write.
+     *
+     * @return the version of the new rule set
+     */
+    public long reload(Map<String, List<String>> rules, Map<String, String> precautions) {
+        RuleIndex compiled = RuleIndex.compile(versions.incrementAndGet(), rules, precautions);
+        publish(compiled);
+        return compiled.version();
+    }
+
+    /**
+     * Switches the engine to a memory-mapped model file written by {@link #export}.
+     * Only the header is read here, so the cost does not depend on the size of the catalog.
+     *
+     * @return the rule-set version stored in the file
+     * @throws IllegalArgumentException if the file is not a valid model file
+     */
+    public long open(Path modelFile) throws IOException {
+        RuleIndex mapped = RuleModelFile.open(modelFile);
+        versions.accumulateAndGet(mapped.version(), Math::max);
+        publish(mapped);
+        return mapped.version();
+    }
+
+    /**
+     * Writes the rule set currently in use to a binary model file that {@link #open} can map.
+     */
+    public void export(Path modelFile) throws IOException {
+        RuleModelFile.write(index, modelFile);
+    }
+
+    public long getRuleSetVersion() {
+        return index.version();
+    }
+
+    private void publish(RuleIndex next) {
+        if (scoringMode == ScoringMode.COMPILED) {
+            compiled = new CompiledRules(next, RuleScorerCompiler.compile(next));
+        } else if (scoringMode == ScoringMode.WEIGHTED) {
+            // Derived before publishing, so predictions never pay for it
+            next.weights();
+        }
+        index = next;
+    }
+
+    /**
+     * The compiled rule set currently in use; other engines score over the same catalog.
+     */
+    RuleIndex snapshot() {
+        return index;
+    }
+
     public Outcome predict(List<String> symptoms) {
+        return predict(index, symptoms);
+    }
+
+    /**
+     * Scores a batch of symptom sets against one rule-set snapshot, one outcome per set in the same order.
+     */
+    public List<Outcome> predictAll(List<List<String>> symptomSets) {
+        RuleIndex snapshot = index;
+        List<Outcome> outcomes = new ArrayList<>(symptomSets.size());
+        for (List<String> symptoms : symptomSets) {
+            outcomes.add(predict(snapshot, symptoms));
+        }
+        return outcomes;
+    }
+
+    /**
+     * Ranks the k best candidate diseases (a differential diagnosis) in a single pass.
+     * The first element always equals {@link #predict(List)}; diseases sharing no symptom
+     * with the input are never returned, except for the fallback when nothing matches at all.
+     */
+    public List<Outcome> predictTopK(List<String> symptoms, int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be at least 1");
+        }
+        RuleIndex snapshot = index;
+        if (symptoms == null || symptoms.isEmpty() || snapshot.diseaseCount() == 0) {
+            return List.of(predict(snapshot, symptoms));
+        }
+        return predictTopK(snapshot, snapshot.query(symptoms), k);
+    }
+
+    /**
+     * Ranks symptoms already resolved against {@code snapshot}; see {@link #predictTopK(List, int)}.
+     */
+    List<Outcome> predictTopK(RuleIndex snapshot, SymptomQuery query, int k) {
+        if (snapshot.diseaseCount() == 0) {
+            return List.of(predict(snapshot, query));
+        }
+        if (scoringMode == ScoringMode.WEIGHTED) {
+            return weightedTopK(snapshot, query, k);
+        }
+        CandidateHeap heap = new CandidateHeap(snapshot, Math.min(k, snapshot.diseaseCount()));
+        RowScorer scorer = rowScorer(snapshot);
+        if (scoringMode == ScoringMode.INVERTED) {
+            PostingsScorer.collect(snapshot, query, heap);
+        } else if (scorer != null) {
+            int[] counts = rowCounts(snapshot, scorer, query);
+            for (int disease = 0; disease < snapshot.diseaseCount(); disease++) {
+                if (counts[disease] > 0) {
+                    heap.offer(disease, counts[disease]);
+                }
+            }
+        } else {
+            for (int disease = 0; disease < snapshot.diseaseCount(); disease++) {
+                int matches = snapshot.matches(disease, query.bits);
+                if (matches > 0) {
+                    heap.offer(disease, matches);
+                }
+            }
+        }
+        if (heap.size() == 0) {
+            return List.of(predict(snapshot, query));
+        }
+
+        int[] diseases = new int[heap.size()];
+        int[] matches = new int[heap.size()];
+        int count = heap.drain(diseases, matches);
+        List<Outcome> outcomes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            outcomes.add(outcome(snapshot, diseases[i], matches[i], query.bits));
+        }
+        return outcomes;
+    }
+
+    public ScoringMode getScoringMode() {
+        return scoringMode;
+    }
+
+    private Outcome predict(RuleIndex snapshot, List<String> symptoms) {
         if (symptoms == null || symptoms.isEmpty()) {
-            return new Outcome("Unknown", 0.0, "Please provide symptoms.");
-        }
-
-        double bestScore = -1.0;
-        String bestDisease = "Unknown";
-        String bestPrecaution = "General precautions: rest, hydrate, seek professional advice.";
-
-        for (Map.Entry<String, List<String>> entry : symptomTree.entrySet()) {
-            String disease = entry.getKey();
-            List<String> ruleSymptoms = entry.getValue();
-            long matches = symptoms.stream()
-                    .map(String::toLowerCase)
-                    .filter(ruleSymptoms.stream().map(String::toLowerCase).collect(java.util.stream.Collectors.toSet())::contains)
-                    .count();
-            double score = (double) matches / ruleSymptoms.size();
-            if (score > bestScore) {
-                bestScore = score;
-                bestDisease = disease;
-                bestPrecaution = precautions.getOrDefault(disease, bestPrecaution);
+            return new Outcome("Unknown", 0.0, "Please provide symptoms.", snapshot.version());
+        }
+        return predict(snapshot, snapshot.query(symptoms));
+    }
+
+    /**
+     * Scores symptoms already resolved against {@code snapshot}.
+     */
+    Outcome predict(RuleIndex snapshot, SymptomQuery query) {
+        if (snapshot.diseaseCount() == 0) {
+            return new Outcome("Unknown", 0.05, GENERAL_PRECAUTIONS, snapshot.version());
+        }
+        int best;
+        RowScorer scorer = rowScorer(snapshot);
+        if (scoringMode == ScoringMode.WEIGHTED) {
+            best = WeightedScorer.best(snapshot, snapshot.weights(), query);
+            if (best >= 0) {
+                return weightedOutcome(snapshot, best, query);
             }
+        } else if (scoringMode == ScoringMode.INVERTED) {
+            best = PostingsScorer.best(snapshot, query);
+        } else if (scorer != null) {
+            best = bestByRowCounts(snapshot, rowCounts(snapshot, scorer, query));
+        } else {
+            best = bestByBitset(snapshot, query);
+        }
+        if (best < 0) {
+            // Nothing overlaps: fall back to the first rule, as the linear scan would.
+            best = 0;
         }
+        return outcome(snapshot, best, snapshot.matches(best, query.bits), query.bits);
+    }
+
+    /**
+     * Outcome for a scored disease, explained against the query bitset it was scored with.
+     */
+    static Outcome outcome(RuleIndex snapshot, int disease, int matches, long[] query) {
+        return outcome(snapshot, disease, matches, (double) matches / snapshot.ruleSize(disease), query);
+    }
 
-        double confidence = Math.max(0.05, Math.min(0.99, bestScore));
-        return new Outcome(bestDisease, confidence, bestPrecaution);
+    private static Outcome outcome(RuleIndex snapshot, int disease, int matches, double score, long[] query) {
+        double confidence = Math.max(0.05, Math.min(0.99, score));
+        String diseasePrecautions = snapshot.precautions(disease);
+        return new Outcome(snapshot.diseaseName(disease), confidence,
+                diseasePrecautions != null ? diseasePrecautions : GENERAL_PRECAUTIONS, snapshot.version(),
+                Explanation.names(snapshot, disease, query, matches), matches);
+    }
+
+    private static Outcome weightedOutcome(RuleIndex snapshot, int disease, SymptomQuery query) {
+        SpecificityWeights weights = snapshot.weights();
+        long matchedWeight = 0;
+        for (int i = 0; i < query.size; i++) {
+            int id = query.ids[i];
+            if ((snapshot.ruleWord(disease, id >>> 6) & (1L << id)) != 0) {
+                matchedWeight += weights.weight(id);
+            }
+        }
+        return outcome(snapshot, disease, snapshot.matches(disease, query.bits),
+                weights.score(disease, matchedWeight), query.bits);
+    }
+
+    private static List<Outcome> weightedTopK(RuleIndex snapshot, SymptomQuery query, int k) {
+        int[] diseases = new int[Math.min(k, snapshot.diseaseCount())];
+        int count = WeightedScorer.top(snapshot, snapshot.weights(), query, diseases);
+        if (count == 0) {
+            return List.of(outcome(snapshot, 0, snapshot.matches(0, query.bits), query.bits));
+        }
+        List<Outcome> outcomes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            outcomes.add(weightedOutcome(snapshot, diseases[i], query));
+        }
+        return outcomes;
+    }
+
+    /**
+     * The scorer that computes all match counts of {@code snapshot} in one pass, or null to scan rule by rule:
+     * the vector scorer needs the contiguous rule matrix, and a generated scorer is only used for the index
+     * it was compiled for (a prediction racing a reload scans instead).
+     */
+    private RowScorer rowScorer(RuleIndex snapshot) {
+        if (scoringMode == ScoringMode.VECTOR) {
+            return snapshot.ruleBits() != null ? rowScorer : null;
+        }
+        if (scoringMode == ScoringMode.COMPILED) {
+            CompiledRules current = compiled;
+            return current.index == snapshot ? current.scorer : null;
+        }
+        return null;
+    }
+
+    /**
+     * Match counts of every rule, computed by the row scorer in one pass.
+     * The returned array is per-thread scratch and only valid until the next call.
+     */
+    private int[] rowCounts(RuleIndex snapshot, RowScorer scorer, SymptomQuery query) {
+        int[] counts = ROW_COUNTS.get();
+        if (counts.length != snapshot.diseaseCount()) {
+            counts = new int[snapshot.diseaseCount()];
+            ROW_COUNTS.set(counts);
+        }
+        scorer.matchAll(snapshot.ruleBits(), snapshot.words(), query.bits, counts);
+        return counts;
+    }
+
+    private static int bestByRowCounts(RuleIndex snapshot, int[] counts) {
+        int best = 0;
+        int bestSize = snapshot.ruleSize(0);
+        for (int disease = 1; disease < counts.length; disease++) {
+            int size = snapshot.ruleSize(disease);
+            if ((long) counts[disease] * bestSize > (long) counts[best] * size) {
+                best = disease;
+                bestSize = size;
+            }
+        }
+        return best;
+    }
+
+    private static int bestByBitset(RuleIndex snapshot, SymptomQuery query) {
+        // Scores are compared as matches / ruleSize by cross-multiplication; ties keep the earlier rule.
+        int best = 0;
+        int bestMatches = snapshot.matches(0, query.bits);
+        int bestSize = snapshot.ruleSize(0);
+        for (int disease = 1; disease < snapshot.diseaseCount(); disease++) {
+            int matches = snapshot.matches(disease, query.bits);
+            int size = snapshot.ruleSize(disease);
+            if ((long) matches * bestSize > (long) bestMatches * size) {
+                best = disease;
+                bestMatches = matches;
+                bestSize = size;
+            }
+        }
+        return best;
+    }
+
+    private static final class CompiledRules {
+        private final RuleIndex index;
+        // Null when the rule set was too large to compile
+        private final RowScorer scorer;
+
+        CompiledRules(RuleIndex index, RowScorer scorer) {
+            this.index = index;
+            this.scorer = scorer;
+        }
     }
 }
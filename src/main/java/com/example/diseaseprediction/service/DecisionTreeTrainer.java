@@ -0,0 +1,262 @@
+package com.example.diseaseprediction.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * ID3-style learner over binary symptom features. Each node takes the symptom with the highest
+ * information gain; the candidate symptoms of large nodes are evaluated in parallel on a
+ * {@link ForkJoinPool}, in feature ranges that are split until they are small enough to score directly.
+ * Growth stops at pure nodes, at {@code maxDepth}, below {@code minRowsToSplit} rows, or when no
+ * symptom separates the rows any further. The result is compiled into a {@link CompiledTree}.
+ */
+final class DecisionTreeTrainer {
+
+    static final int DEFAULT_MAX_DEPTH = 48;
+    static final int DEFAULT_MIN_ROWS_TO_SPLIT = 2;
+
+    // Nodes with fewer (rows x features) than this are scored on the calling thread
+    private static final long PARALLEL_WORK = 1L << 16;
+    private static final int FEATURES_PER_TASK = 8;
+    private static final double MIN_GAIN = 1e-9;
+
+    private final int maxDepth;
+    private final int minRowsToSplit;
+    private final ForkJoinPool pool;
+
+    DecisionTreeTrainer() {
+        this(DEFAULT_MAX_DEPTH, DEFAULT_MIN_ROWS_TO_SPLIT, ForkJoinPool.commonPool());
+    }
+
+    DecisionTreeTrainer(int maxDepth, int minRowsToSplit, ForkJoinPool pool) {
+        if (maxDepth < 0 || minRowsToSplit < 2) {
+            throw new IllegalArgumentException("maxDepth must be >= 0 and minRowsToSplit >= 2");
+        }
+        this.maxDepth = maxDepth;
+        this.minRowsToSplit = minRowsToSplit;
+        this.pool = pool;
+    }
+
+    CompiledTree train(SymptomDataset data) {
+        if (data.rowCount == 0) {
+            throw new IllegalArgumentException("Training data has no rows");
+        }
+        Growth growth = new Growth(data);
+        int[] rows = new int[data.rowCount];
+        Arrays.setAll(rows, i -> i);
+        growth.grow(rows, new int[rows.length], 0, rows.length, 0);
+        return growth.compile();
+    }
+
+    /**
+     * State of one training run: the dataset, an x·log(x) table for entropy and the node arrays being filled.
+     */
+    private final class Growth {
+        private final SymptomDataset data;
+        private final double[] xLogX;
+        private int[] feature = new int[64];
+        private int[] children = new int[128];
+        private int[] leafOffsets = new int[65];
+        private int[] leafLabels = new int[64];
+        private float[] leafShares = new float[64];
+        private int nodes;
+        private int leafEntries;
+        private int depth;
+
+        Growth(SymptomDataset data) {
+            this.data = data;
+            this.xLogX = new double[data.rowCount + 1];
+            for (int i = 1; i < xLogX.length; i++) {
+                xLogX[i] = i * Math.log(i);
+            }
+        }
+
+        /**
+         * Grows the subtree over rows[lo, hi), which are ascending, and returns its node id.
+         */
+        int grow(int[] rows, int[] scratch, int lo, int hi, int level) {
+            depth = Math.max(depth, level);
+            int[] counts = new int[data.labelNames.length];
+            for (int i = lo; i < hi; i++) {
+                counts[data.labels[rows[i]]]++;
+            }
+            int[] present = labelsPresent(counts);
+
+            int split = -1;
+            if (level < maxDepth && hi - lo >= minRowsToSplit && present.length > 1) {
+                split = bestSplit(rows, lo, hi, counts, present);
+            }
+            if (split < 0) {
+                return leaf(counts, present, hi - lo);
+            }
+
+            // Stable partition: rows without the symptom stay in front, rows with it move behind them
+            int absentEnd = lo;
+            int presentCount = 0;
+            long[] column = data.columns[split];
+            for (int i = lo; i < hi; i++) {
+                int row = rows[i];
+                if ((column[row >>> 6] & (1L << row)) != 0) {
+                    scratch[presentCount++] = row;
+                } else {
+                    rows[absentEnd++] = row;
+                }
+            }
+            System.arraycopy(scratch, 0, rows, absentEnd, presentCount);
+
+            int node = addNode(split);
+            int absent = grow(rows, scratch, lo, absentEnd, level + 1);
+            int withSymptom = grow(rows, scratch, absentEnd, hi, level + 1);
+            children[node << 1] = absent;
+            children[(node << 1) | 1] = withSymptom;
+            return node;
+        }
+
+        private int bestSplit(int[] rows, int lo, int hi, int[] counts, int[] present) {
+            int n = hi - lo;
+            double parentCost = xLogX[n];
+            for (int label : present) {
+                parentCost -= xLogX[counts[label]];
+            }
+            SplitTask task = new SplitTask(this, rows, lo, hi, counts, present, 0, data.columns.length);
+            long work = (long) n * data.columns.length;
+            double[] best = work >= PARALLEL_WORK ? pool.invoke(task) : task.compute();
+            return parentCost - best[1] > MIN_GAIN ? (int) best[0] : -1;
+        }
+
+        /**
+         * n·H(children) after splitting rows[lo, hi) on a symptom, or +Infinity if the symptom does not split them.
+         */
+        double splitCost(int symptom, int[] rows, int lo, int hi, int[] counts, int[] present, int[] withSymptom) {
+            long[] column = data.columns[symptom];
+            int[] labels = data.labels;
+            int n = 0;
+            for (int i = lo; i < hi; i++) {
+                int row = rows[i];
+                if ((column[row >>> 6] & (1L << row)) != 0) {
+                    withSymptom[labels[row]]++;
+                    n++;
+                }
+            }
+            double cost = Double.POSITIVE_INFINITY;
+            if (n > 0 && n < hi - lo) {
+                cost = xLogX[n] + xLogX[hi - lo - n];
+                for (int label : present) {
+                    cost -= xLogX[withSymptom[label]] + xLogX[counts[label] - withSymptom[label]];
+                }
+            }
+            for (int label : present) {
+                withSymptom[label] = 0;
+            }
+            return cost;
+        }
+
+        private int leaf(int[] counts, int[] present, int rowCount) {
+            int node = addNode(-1);
+            // Most frequent label first; ties keep the label seen first in the data
+            Integer[] order = Arrays.stream(present).boxed().toArray(Integer[]::new);
+            Arrays.sort(order, (a, b) -> counts[a] != counts[b] ? Integer.compare(counts[b], counts[a]) : Integer.compare(a, b));
+            ensureLeafCapacity(order.length);
+            for (int label : order) {
+                leafLabels[leafEntries] = label;
+                leafShares[leafEntries] = (float) counts[label] / rowCount;
+                leafEntries++;
+            }
+            return node;
+        }
+
+        private int addNode(int symptom) {
+            if (nodes == feature.length) {
+                feature = Arrays.copyOf(feature, nodes * 2);
+                children = Arrays.copyOf(children, nodes * 4);
+                leafOffsets = Arrays.copyOf(leafOffsets, nodes * 2 + 1);
+            }
+            feature[nodes] = symptom;
+            leafOffsets[nodes] = leafEntries;
+            return nodes++;
+        }
+
+        private void ensureLeafCapacity(int extra) {
+            if (leafEntries + extra > leafLabels.length) {
+                int capacity = Math.max(leafLabels.length * 2, leafEntries + extra);
+                leafLabels = Arrays.copyOf(leafLabels, capacity);
+                leafShares = Arrays.copyOf(leafShares, capacity);
+            }
+        }
+
+        CompiledTree compile() {
+            int[] offsets = Arrays.copyOf(leafOffsets, nodes + 1);
+            // Entries are appended in node order, so each node's range ends where the next one starts
+            offsets[nodes] = leafEntries;
+            Map<String, Integer> vocabulary = new HashMap<>();
+            for (int i = 0; i < data.symptomNames.length; i++) {
+                vocabulary.put(data.symptomNames[i], i);
+            }
+            return new CompiledTree(vocabulary, data.labelNames, Arrays.copyOf(feature, nodes),
+                    Arrays.copyOf(children, nodes * 2), offsets, Arrays.copyOf(leafLabels, leafEntries),
+                    Arrays.copyOf(leafShares, leafEntries), depth, data.rowCount);
+        }
+
+        private int[] labelsPresent(int[] counts) {
+            int size = 0;
+            int[] present = new int[counts.length];
+            for (int label = 0; label < counts.length; label++) {
+                if (counts[label] > 0) {
+                    present[size++] = label;
+                }
+            }
+            return Arrays.copyOf(present, size);
+        }
+    }
+
+    /**
+     * Finds the lowest split cost over symptoms [from, to); returns {symptom, cost}. Ties go to the lower symptom
+     * id, so the tree does not depend on how the range was divided between threads.
+     */
+    private static final class SplitTask extends RecursiveTask<double[]> {
+        private final Growth growth;
+        private final int[] rows;
+        private final int lo;
+        private final int hi;
+        private final int[] counts;
+        private final int[] present;
+        private final int from;
+        private final int to;
+
+        SplitTask(Growth growth, int[] rows, int lo, int hi, int[] counts, int[] present, int from, int to) {
+            this.growth = growth;
+            this.rows = rows;
+            this.lo = lo;
+            this.hi = hi;
+            this.counts = counts;
+            this.present = present;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected double[] compute() {
+            if (to - from > FEATURES_PER_TASK && getPool() != null) {
+                int mid = (from + to) >>> 1;
+                SplitTask left = new SplitTask(growth, rows, lo, hi, counts, present, from, mid);
+                left.fork();
+                double[] right = new SplitTask(growth, rows, lo, hi, counts, present, mid, to).compute();
+                double[] best = left.join();
+                return right[1] < best[1] ? right : best;
+            }
+            int[] withSymptom = new int[counts.length];
+            double[] best = {-1, Double.POSITIVE_INFINITY};
+            for (int symptom = from; symptom < to; symptom++) {
+                double cost = growth.splitCost(symptom, rows, lo, hi, counts, present, withSymptom);
+                if (cost < best[1]) {
+                    best[0] = symptom;
+                    best[1] = cost;
+                }
+            }
+            return best;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.diseaseprediction.service;
+
+/**
+ * Splits the rule of a scored disease into the submitted symptoms it contains and the ones that were
+ * not reported. Works from the rule's symptom ids and the query bitset the disease was scored with,
+ * so it costs O(rule size) and one name array for each returned disease and nothing for the
+ * diseases scored on the way.
+ */
+final class Explanation {
+
+    private static final ThreadLocal<int[]> RULE_IDS = ThreadLocal.withInitial(() -> new int[32]);
+
+    private Explanation() {
+    }
+
+    /**
+     * The rule's symptom names in a new array, the {@code matches} submitted ones first, then the missing ones,
+     * each group in symptom id order.
+     */
+    static String[] names(RuleIndex index, int disease, long[] query, int matches) {
+        int[] ids = RULE_IDS.get();
+        if (ids.length < index.ruleSize(disease)) {
+            ids = new int[Math.max(index.ruleSize(disease), ids.length * 2)];
+            RULE_IDS.set(ids);
+        }
+        int size = index.ruleSymptoms(disease, ids);
+        String[] names = new String[size];
+        int m = 0;
+        int n = matches;
+        for (int i = 0; i < size; i++) {
+            int id = ids[i];
+            names[(query[id >>> 6] & (1L << id)) != 0 ? m++ : n++] = index.symptomName(id);
+        }
+        return names;
+    }
+}
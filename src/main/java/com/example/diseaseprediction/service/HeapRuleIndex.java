@@ -0,0 +1,241 @@
+package com.example.diseaseprediction.service;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link RuleIndex} compiled into heap arrays. Rule rows are laid out contiguously in one {@code long[]}
+ * while that dense matrix stays within {@link #DENSE_LIMIT_BYTES} and a row is at most four words per
+ * average rule symptom. Otherwise (large vocabularies) each row is kept as its sorted symptom ids, in
+ * compressed-row form like the postings ({@code postingOffsets} into {@code postingIds}), so memory and
+ * scan time grow with the rule sizes, not with the vocabulary.
+ */
+final class HeapRuleIndex extends RuleIndex {
+
+    static final long DENSE_LIMIT_BYTES = 128L << 20;
+
+    private final long version;
+    private final Map<String, Integer> vocabulary;
+    private final String[] symptomNames;
+    private final String[] diseaseNames;
+    private final String[] precautions;
+    private final int[] ruleSizes;
+    private final int words;
+    // Dense rows, or null when rules are kept sparse in ruleOffsets/ruleSymptoms
+    private final long[] ruleBits;
+    private final int[] ruleOffsets;
+    private final int[] ruleSymptoms;
+    private final int[] postingOffsets;
+    private final int[] postingIds;
+
+    private HeapRuleIndex(long version, Map<String, Integer> vocabulary, String[] symptomNames, String[] diseaseNames,
+                          String[] precautions, int[] ruleSizes, int words, long[] ruleBits,
+                          int[] ruleOffsets, int[] ruleSymptoms, int[] postingOffsets, int[] postingIds) {
+        this.version = version;
+        this.vocabulary = vocabulary;
+        this.symptomNames = symptomNames;
+        this.diseaseNames = diseaseNames;
+        this.precautions = precautions;
+        this.ruleSizes = ruleSizes;
+        this.words = words;
+        this.ruleBits = ruleBits;
+        this.ruleOffsets = ruleOffsets;
+        this.ruleSymptoms = ruleSymptoms;
+        this.postingOffsets = postingOffsets;
+        this.postingIds = postingIds;
+    }
+
+    static HeapRuleIndex compile(long version, Map<String, List<String>> rules, Map<String, String> precautions) {
+        Map<String, Integer> vocabulary = new HashMap<>();
+        int diseaseCount = 0;
+        long totalSymptoms = 0;
+        for (List<String> ruleSymptoms : rules.values()) {
+            for (String symptom : ruleSymptoms) {
+                vocabulary.putIfAbsent(normalize(symptom), vocabulary.size());
+            }
+            if (!ruleSymptoms.isEmpty()) {
+                diseaseCount++;
+                totalSymptoms += ruleSymptoms.size();
+            }
+        }
+        String[] symptomNames = new String[vocabulary.size()];
+        vocabulary.forEach((name, id) -> symptomNames[id] = name);
+        int words = Math.max(1, (vocabulary.size() + 63) >>> 6);
+
+        // Rows as sorted, distinct symptom ids
+        String[] diseaseNames = new String[diseaseCount];
+        String[] diseasePrecautions = new String[diseaseCount];
+        int[] ruleSizes = new int[diseaseCount];
+        int[] ruleOffsets = new int[diseaseCount + 1];
+        int[] ruleSymptoms = new int[Math.toIntExact(totalSymptoms)];
+        int[] postingOffsets = new int[symptomNames.length + 1];
+        int disease = 0;
+        int size = 0;
+        for (Map.Entry<String, List<String>> entry : rules.entrySet()) {
+            if (entry.getValue().isEmpty()) {
+                continue;
+            }
+            diseaseNames[disease] = entry.getKey();
+            diseasePrecautions[disease] = precautions.get(entry.getKey());
+            int start = size;
+            for (String symptom : entry.getValue()) {
+                ruleSymptoms[size++] = vocabulary.get(normalize(symptom));
+            }
+            Arrays.sort(ruleSymptoms, start, size);
+            int end = start;
+            for (int i = start; i < size; i++) {
+                if (i == start || ruleSymptoms[i] != ruleSymptoms[i - 1]) {
+                    ruleSymptoms[end++] = ruleSymptoms[i];
+                    postingOffsets[ruleSymptoms[i] + 1]++;
+                }
+            }
+            size = end;
+            ruleSizes[disease] = end - start;
+            ruleOffsets[++disease] = size;
+        }
+
+        for (int id = 0; id < symptomNames.length; id++) {
+            postingOffsets[id + 1] += postingOffsets[id];
+        }
+        int[] postingIds = new int[postingOffsets[symptomNames.length]];
+        int[] fill = postingOffsets.clone();
+        for (disease = 0; disease < diseaseCount; disease++) {
+            for (int p = ruleOffsets[disease]; p < ruleOffsets[disease + 1]; p++) {
+                postingIds[fill[ruleSymptoms[p]]++] = disease;
+            }
+        }
+
+        if (!keepsDense(diseaseCount, words, size)) {
+            return new HeapRuleIndex(version, vocabulary, symptomNames, diseaseNames, diseasePrecautions, ruleSizes,
+                    words, null, ruleOffsets, Arrays.copyOf(ruleSymptoms, size), postingOffsets, postingIds);
+        }
+        long[] ruleBits = new long[diseaseCount * words];
+        for (disease = 0; disease < diseaseCount; disease++) {
+            int base = disease * words;
+            for (int p = ruleOffsets[disease]; p < ruleOffsets[disease + 1]; p++) {
+                int id = ruleSymptoms[p];
+                ruleBits[base + (id >>> 6)] |= 1L << id;
+            }
+        }
+        return new HeapRuleIndex(version, vocabulary, symptomNames, diseaseNames, diseasePrecautions, ruleSizes,
+                words, ruleBits, null, null, postingOffsets, postingIds);
+    }
+
+    /**
+     * Whether rules of this shape are stored as a dense bit matrix rather than sorted symptom ids; model files
+     * ({@link RuleModelFile}) use the same layout.
+     */
+    static boolean keepsDense(int diseaseCount, int words, long ruleSymptoms) {
+        return (long) diseaseCount * words * Long.BYTES <= DENSE_LIMIT_BYTES
+                && (long) words <= 4L * ruleSymptoms / Math.max(1, diseaseCount);
+    }
+
+    @Override
+    int lookup(String normalizedSymptom) {
+        return vocabulary.getOrDefault(normalizedSymptom, -1);
+    }
+
+    @Override
+    int matches(int disease, long[] query) {
+        int count = 0;
+        if (ruleBits != null) {
+            int base = disease * words;
+            for (int w = 0; w < words; w++) {
+                count += Long.bitCount(ruleBits[base + w] & query[w]);
+            }
+        } else {
+            for (int p = ruleOffsets[disease], end = ruleOffsets[disease + 1]; p < end; p++) {
+                int id = ruleSymptoms[p];
+                count += (int) (query[id >>> 6] >>> id) & 1;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    long ruleWord(int disease, int word) {
+        if (ruleBits != null) {
+            return ruleBits[disease * words + word];
+        }
+        long bits = 0;
+        for (int p = ruleOffsets[disease], end = ruleOffsets[disease + 1]; p < end; p++) {
+            int id = ruleSymptoms[p];
+            if (id >>> 6 == word) {
+                bits |= 1L << id;
+            }
+        }
+        return bits;
+    }
+
+    @Override
+    int ruleSymptoms(int disease, int[] out) {
+        if (ruleBits != null) {
+            return super.ruleSymptoms(disease, out);
+        }
+        int size = ruleOffsets[disease + 1] - ruleOffsets[disease];
+        System.arraycopy(ruleSymptoms, ruleOffsets[disease], out, 0, size);
+        return size;
+    }
+
+    @Override
+    long[] ruleBits() {
+        return ruleBits;
+    }
+
+    @Override
+    int postingsStart(int symptomId) {
+        return postingOffsets[symptomId];
+    }
+
+    @Override
+    int postingsEnd(int symptomId) {
+        return postingOffsets[symptomId + 1];
+    }
+
+    @Override
+    int posting(int position) {
+        return postingIds[position];
+    }
+
+    @Override
+    long version() {
+        return version;
+    }
+
+    @Override
+    int diseaseCount() {
+        return diseaseNames.length;
+    }
+
+    @Override
+    int symptomCount() {
+        return symptomNames.length;
+    }
+
+    @Override
+    int words() {
+        return words;
+    }
+
+    @Override
+    String symptomName(int id) {
+        return symptomNames[id];
+    }
+
+    @Override
+    String diseaseName(int disease) {
+        return diseaseNames[disease];
+    }
+
+    @Override
+    String precautions(int disease) {
+        return precautions[disease];
+    }
+
+    @Override
+    int ruleSize(int disease) {
+        return ruleSizes[disease];
+    }
+}
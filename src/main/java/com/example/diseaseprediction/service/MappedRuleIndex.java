@@ -0,0 +1,178 @@
+package com.example.diseaseprediction.service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * {@link RuleIndex} that scores directly against a memory-mapped {@link RuleModelFile}.
+ * Nothing is deserialized up front: rule words and postings are read in place, and names are
+ * decoded only when an outcome is built.
+ */
+final class MappedRuleIndex extends RuleIndex {
+
+    private final RuleModelFile layout;
+    private final ByteBuffer buffer;
+    private final int words;
+    // Rules as sorted symptom ids (ruleOffsets/ruleSymptoms) instead of bit rows
+    private final boolean sparse;
+
+    MappedRuleIndex(RuleModelFile layout, ByteBuffer buffer) {
+        this.layout = layout;
+        this.buffer = buffer;
+        this.words = layout.words;
+        this.sparse = layout.sparse;
+    }
+
+    @Override
+    int lookup(String normalizedSymptom) {
+        int hash = normalizedSymptom.hashCode();
+        byte[] encoded = null;
+        int mask = layout.slots - 1;
+        for (int slot = layout.slot(hash); ; slot = (slot + 1) & mask) {
+            int entry = buffer.getInt(layout.hashSlotsOffset + (slot << 2));
+            if (entry == 0) {
+                return -1;
+            }
+            int id = entry - 1;
+            if (buffer.getInt(layout.symptomHashesOffset + (id << 2)) == hash) {
+                if (encoded == null) {
+                    encoded = normalizedSymptom.getBytes(StandardCharsets.UTF_8);
+                }
+                if (stringEquals(id, encoded)) {
+                    return id;
+                }
+            }
+        }
+    }
+
+    @Override
+    int matches(int disease, long[] query) {
+        int count = 0;
+        if (sparse) {
+            for (int p = ruleStart(disease), end = ruleStart(disease + 1); p < end; p++) {
+                int id = ruleSymptom(p);
+                count += (int) (query[id >>> 6] >>> id) & 1;
+            }
+            return count;
+        }
+        int base = layout.ruleBitsOffset + ((disease * words) << 3);
+        for (int w = 0; w < words; w++) {
+            count += Long.bitCount(buffer.getLong(base + (w << 3)) & query[w]);
+        }
+        return count;
+    }
+
+    @Override
+    long ruleWord(int disease, int word) {
+        if (!sparse) {
+            return buffer.getLong(layout.ruleBitsOffset + ((disease * words + word) << 3));
+        }
+        long bits = 0;
+        for (int p = ruleStart(disease), end = ruleStart(disease + 1); p < end; p++) {
+            int id = ruleSymptom(p);
+            if (id >>> 6 == word) {
+                bits |= 1L << id;
+            }
+        }
+        return bits;
+    }
+
+    @Override
+    int ruleSymptoms(int disease, int[] out) {
+        if (!sparse) {
+            return super.ruleSymptoms(disease, out);
+        }
+        int start = ruleStart(disease);
+        int size = ruleStart(disease + 1) - start;
+        for (int i = 0; i < size; i++) {
+            out[i] = ruleSymptom(start + i);
+        }
+        return size;
+    }
+
+    @Override
+    int postingsStart(int symptomId) {
+        return buffer.getInt(layout.postingOffsetsOffset + (symptomId << 2));
+    }
+
+    @Override
+    int postingsEnd(int symptomId) {
+        return buffer.getInt(layout.postingOffsetsOffset + ((symptomId + 1) << 2));
+    }
+
+    @Override
+    int posting(int position) {
+        return buffer.getInt(layout.postingIdsOffset + (position << 2));
+    }
+
+    @Override
+    long version() {
+        return layout.version;
+    }
+
+    @Override
+    int diseaseCount() {
+        return layout.diseaseCount;
+    }
+
+    @Override
+    int symptomCount() {
+        return layout.symptomCount;
+    }
+
+    @Override
+    int words() {
+        return words;
+    }
+
+    @Override
+    String symptomName(int id) {
+        return string(id);
+    }
+
+    @Override
+    String diseaseName(int disease) {
+        return string(layout.symptomCount + disease);
+    }
+
+    @Override
+    String precautions(int disease) {
+        String precautions = string(layout.symptomCount + layout.diseaseCount + disease);
+        return precautions.isEmpty() ? null : precautions;
+    }
+
+    @Override
+    int ruleSize(int disease) {
+        return buffer.getInt(layout.ruleSizesOffset + (disease << 2));
+    }
+
+    private int ruleStart(int disease) {
+        return buffer.getInt(layout.ruleOffsetsOffset + (disease << 2));
+    }
+
+    private int ruleSymptom(int position) {
+        return buffer.getInt(layout.ruleSymptomsOffset + (position << 2));
+    }
+
+    private String string(int i) {
+        int start = buffer.getInt(layout.stringOffsetsOffset + (i << 2));
+        int end = buffer.getInt(layout.stringOffsetsOffset + ((i + 1) << 2));
+        byte[] bytes = new byte[end - start];
+        buffer.get(layout.stringsOffset + start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private boolean stringEquals(int i, byte[] expected) {
+        int start = buffer.getInt(layout.stringOffsetsOffset + (i << 2));
+        int end = buffer.getInt(layout.stringOffsetsOffset + ((i + 1) << 2));
+        if (end - start != expected.length) {
+            return false;
+        }
+        for (int b = 0; b < expected.length; b++) {
+            if (buffer.get(layout.stringsOffset + start + b) != expected[b]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,517 @@
+package com.example.diseaseprediction.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bernoulli Naive Bayes scorer over the catalog compiled by {@link DecisionTreeEngine}.
+ * Every rule counts as one example of its disease; confirmed diagnoses passed to {@link #observe}
+ * add further examples, so prevalence and symptom specificity are learned from use. They are stored and
+ * replayed at startup by {@link ConfirmedDiagnosisService}.
+ * <p>
+ * Counts are learned examples per disease, in lock-free counters, and learned (disease, symptom) pairs in an
+ * open-addressed int map per disease created on its first diagnosis. Rule pairs are read from the catalog, so
+ * memory follows the rules and the diagnoses seen, not diseases × symptoms. Scoring reads immutable rows of precomputed
+ * log-probabilities holding only the symptoms a disease has a count for, plus one smoothed value for all
+ * others; after an update only the rows of the diseases that changed are recomputed and republished with a
+ * single volatile write, so training never blocks predictions.
+ * <p>
+ * Nothing is built unless the engine is selected by {@code app.engine.type} or listed in
+ * {@code app.engine.shadow.engines}; otherwise confirmed diagnoses are rejected.
+ */
+@Component
+public class NaiveBayesEngine implements PredictionEngine {
+
+    // Laplace smoothing added to every (disease, symptom) count
+    static final double ALPHA = 0.1;
+
+    private static final String GENERAL_PRECAUTIONS = "General precautions: rest, hydrate, seek professional advice.";
+
+    private final DecisionTreeEngine catalogSource;
+    private final boolean enabled;
+    // Serializes rebuilds and republishing; predictions and counter updates never take it
+    private final ReentrantLock publishLock = new ReentrantLock();
+    // Diagnoses count under the read lock; a rebuild swaps the counts and carries them over under the write
+    // lock, so no diagnosis lands in counts that were already copied
+    private final ReentrantReadWriteLock countsLock = new ReentrantReadWriteLock();
+    private volatile Counts counts;
+    private volatile Model model;
+
+    public NaiveBayesEngine(DecisionTreeEngine catalogSource) {
+        this.catalogSource = catalogSource;
+        this.enabled = true;
+    }
+
+    @Autowired
+    public NaiveBayesEngine(DecisionTreeEngine catalogSource,
+                            @Value("${app.engine.type:decision-tree}") PredictionEngine.Type type,
+                            @Value("${app.engine.shadow.engines:}") List<PredictionEngine.Type> shadowTypes) {
+        this.catalogSource = catalogSource;
+        this.enabled = type == PredictionEngine.Type.NAIVE_BAYES || shadowTypes.contains(PredictionEngine.Type.NAIVE_BAYES);
+    }
+
+    /**
+     * Records a confirmed diagnosis. Symptoms outside the catalog vocabulary are ignored.
+     *
+     * @throws IllegalArgumentException if the disease is not part of the current rule set, or the engine
+     *                                  is neither serving nor shadowing predictions
+     */
+    public void observe(List<String> symptoms, String diseaseName) {
+        if (!enabled) {
+            throw new IllegalArgumentException("The naive-bayes engine is not enabled; "
+                    + "select it with app.engine.type or app.engine.shadow.engines");
+        }
+        if (!learn(symptoms, diseaseName)) {
+            throw new IllegalArgumentException("Unknown disease: " + diseaseName);
+        }
+        publish(counts);
+    }
+
+    boolean enabled() {
+        return enabled;
+    }
+
+    /**
+     * Counts a diagnosis without republishing the model, for replaying many; {@link #publishLearned()}
+     * publishes them.
+     *
+     * @return false if the disease is not part of the current rule set
+     */
+    boolean learn(List<String> symptoms, String diseaseName) {
+        current();
+        countsLock.readLock().lock();
+        try {
+            Counts target = counts;
+            Integer disease = target.diseaseIds.get(diseaseName);
+            if (disease == null) {
+                return false;
+            }
+            SymptomQuery query = target.catalog.query(symptoms);
+            SymptomCounts pairs = target.pairs(disease);
+            for (int i = 0; i < query.size; i++) {
+                pairs.add(query.ids[i], 1);
+            }
+            target.learned.incrementAndGet(disease);
+            target.dirty.set(disease, 1);
+            target.pending.set(true);
+            return true;
+        } finally {
+            countsLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Republishes the rows of the diseases counted by {@link #learn} since the last publication.
+     */
+    void publishLearned() {
+        publish(counts);
+    }
+
+    /**
+     * Number of confirmed diagnoses recorded for a disease, on top of its rule.
+     */
+    public long observations(String diseaseName) {
+        if (!enabled) {
+            return 0;
+        }
+        current();
+        Counts target = counts;
+        Integer disease = target.diseaseIds.get(diseaseName);
+        return disease == null ? 0 : target.learned.get(disease);
+    }
+
+    @Override
+    public DecisionTreeEngine.Outcome predict(List<String> symptoms) {
+        return predict(current(), symptoms);
+    }
+
+    @Override
+    public List<DecisionTreeEngine.Outcome> predictAll(List<List<String>> symptomSets) {
+        Model snapshot = current();
+        List<DecisionTreeEngine.Outcome> outcomes = new ArrayList<>(symptomSets.size());
+        for (List<String> symptoms : symptomSets) {
+            outcomes.add(predict(snapshot, symptoms));
+        }
+        return outcomes;
+    }
+
+    @Override
+    public List<DecisionTreeEngine.Outcome> predictTopK(List<String> symptoms, int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be at least 1");
+        }
+        Model snapshot = current();
+        if (symptoms == null || symptoms.isEmpty() || snapshot.catalog.diseaseCount() == 0) {
+            return List.of(predict(snapshot, symptoms));
+        }
+
+        SymptomQuery query = snapshot.catalog.query(symptoms);
+        double[] scores = snapshot.scores(query);
+        int count = Math.min(k, scores.length);
+        int[] best = new int[count];
+        int size = 0;
+        for (int disease = 0; disease < scores.length; disease++) {
+            // Insertion into a short sorted array; strict comparison keeps the lower id on ties
+            int i = size < count ? size++ : count;
+            while (i > 0 && scores[disease] > scores[best[i - 1]]) {
+                if (i < count) {
+                    best[i] = best[i - 1];
+                }
+                i--;
+            }
+            if (i < count) {
+                best[i] = disease;
+            }
+        }
+
+        double normalizer = normalizer(scores, scores[best[0]]);
+        List<DecisionTreeEngine.Outcome> outcomes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            outcomes.add(outcome(snapshot, best[i], Math.exp(scores[best[i]] - scores[best[0]]) / normalizer, query));
+        }
+        return outcomes;
+    }
+
+    @Override
+    public long getRuleSetVersion() {
+        return current().catalog.version();
+    }
+
+    private DecisionTreeEngine.Outcome predict(Model snapshot, List<String> symptoms) {
+        RuleIndex catalog = snapshot.catalog;
+        if (symptoms == null || symptoms.isEmpty()) {
+            return new DecisionTreeEngine.Outcome("Unknown", 0.0, "Please provide symptoms.", catalog.version());
+        }
+        if (catalog.diseaseCount() == 0) {
+            return new DecisionTreeEngine.Outcome("Unknown", 0.05, GENERAL_PRECAUTIONS, catalog.version());
+        }
+
+        SymptomQuery query = catalog.query(symptoms);
+        double[] scores = snapshot.scores(query);
+        int best = 0;
+        for (int disease = 1; disease < scores.length; disease++) {
+            if (scores[disease] > scores[best]) {
+                best = disease;
+            }
+        }
+        return outcome(snapshot, best, 1.0 / normalizer(scores, scores[best]), query);
+    }
+
+    private static DecisionTreeEngine.Outcome outcome(Model snapshot, int disease, double posterior, SymptomQuery query) {
+        double confidence = Math.max(0.05, Math.min(0.99, posterior));
+        String diseasePrecautions = snapshot.catalog.precautions(disease);
+        int matches = snapshot.catalog.matches(disease, query.bits);
+        return new DecisionTreeEngine.Outcome(snapshot.catalog.diseaseName(disease), confidence,
+                diseasePrecautions != null ? diseasePrecautions : GENERAL_PRECAUTIONS, snapshot.catalog.version(),
+                Explanation.names(snapshot.catalog, disease, query.bits, matches), matches);
+    }
+
+    /**
+     * Sum of exp(score - max) over all diseases, so the posterior of a disease is exp(score - max) / normalizer.
+     */
+    private static double normalizer(double[] scores, double max) {
+        double sum = 0;
+        for (double score : scores) {
+            sum += Math.exp(score - max);
+        }
+        return sum;
+    }
+
+    /**
+     * Returns the model for the catalog currently compiled by the decision-tree engine, rebuilding it
+     * after a rule reload. While another thread rebuilds, callers keep scoring with the previous model.
+     */
+    private Model current() {
+        RuleIndex catalog = catalogSource.snapshot();
+        Model snapshot = model;
+        if (snapshot != null && snapshot.catalog == catalog) {
+            return snapshot;
+        }
+        if (snapshot == null) {
+            publishLock.lock();
+        } else if (!publishLock.tryLock()) {
+            return snapshot;
+        }
+        try {
+            snapshot = model;
+            if (snapshot == null || snapshot.catalog != catalog) {
+                Counts rebuilt = new Counts(catalog);
+                countsLock.writeLock().lock();
+                try {
+                    Counts previous = counts;
+                    counts = rebuilt;
+                    if (previous != null) {
+                        rebuilt.carryOver(previous);
+                    }
+                } finally {
+                    countsLock.writeLock().unlock();
+                }
+                rebuilt.pending.set(false);
+                snapshot = Model.build(rebuilt);
+                model = snapshot;
+            }
+            return snapshot;
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    /**
+     * Recomputes the rows of diseases whose counts changed and republishes the table. If another thread
+     * is already publishing, this returns at once: that thread re-checks {@code pending} after unlocking.
+     */
+    private void publish(Counts target) {
+        do {
+            if (!publishLock.tryLock()) {
+                return;
+            }
+            try {
+                while (target.pending.getAndSet(false)) {
+                    Model snapshot = model;
+                    if (snapshot == null || snapshot.catalog != target.catalog) {
+                        return;
+                    }
+                    model = snapshot.update(target);
+                }
+            } finally {
+                publishLock.unlock();
+            }
+        } while (target.pending.get());
+    }
+
+    /**
+     * Training counts for one catalog. Rules are seeded as one example each and their pairs are read from
+     * the catalog; only what diagnoses add is stored.
+     */
+    private static final class Counts {
+        final RuleIndex catalog;
+        final Map<String, Integer> diseaseIds;
+        // Confirmed diagnoses per disease, on top of the rule
+        final AtomicLongArray learned;
+        // Per disease, symptom id to diagnoses naming it; null until the first diagnosis
+        final AtomicReferenceArray<SymptomCounts> pairs;
+        final AtomicIntegerArray dirty;
+        final AtomicBoolean pending = new AtomicBoolean();
+
+        Counts(RuleIndex catalog) {
+            this.catalog = catalog;
+            int diseaseCount = catalog.diseaseCount();
+            this.diseaseIds = new HashMap<>();
+            this.learned = new AtomicLongArray(diseaseCount);
+            this.pairs = new AtomicReferenceArray<>(diseaseCount);
+            this.dirty = new AtomicIntegerArray(diseaseCount);
+            for (int disease = 0; disease < diseaseCount; disease++) {
+                diseaseIds.put(catalog.diseaseName(disease), disease);
+            }
+        }
+
+        SymptomCounts pairs(int disease) {
+            SymptomCounts map = pairs.get(disease);
+            if (map == null) {
+                pairs.compareAndSet(disease, null, new SymptomCounts());
+                map = pairs.get(disease);
+            }
+            return map;
+        }
+
+        /**
+         * Copies the learned part of another catalog's counts, matching diseases and symptoms by name.
+         */
+        void carryOver(Counts previous) {
+            RuleIndex old = previous.catalog;
+            for (int disease = 0; disease < old.diseaseCount(); disease++) {
+                Integer target = diseaseIds.get(old.diseaseName(disease));
+                long examples = previous.learned.get(disease);
+                if (target == null || examples == 0) {
+                    continue;
+                }
+                learned.addAndGet(target, examples);
+                SymptomCounts oldPairs = previous.pairs.get(disease);
+                if (oldPairs == null) {
+                    continue;
+                }
+                SymptomCounts targetPairs = pairs(target);
+                for (long entry : oldPairs.entries()) {
+                    int id = catalog.lookup(old.symptomName((int) (entry >>> 32)));
+                    if (id >= 0) {
+                        targetPairs.add(id, (int) entry);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Immutable log-probability rows. With p = P(symptom | disease), a disease scores
+     * base + sum over present symptoms of log(p / (1 - p)), where base = log n(d) + sum of log(1 - p)
+     * over all symptoms. Terms shared by every disease are dropped; they cancel in the posterior.
+     */
+    private static final class Model {
+        final RuleIndex catalog;
+        final Row[] rows;
+
+        private Model(RuleIndex catalog, Row[] rows) {
+            this.catalog = catalog;
+            this.rows = rows;
+        }
+
+        static Model build(Counts counts) {
+            int diseaseCount = counts.catalog.diseaseCount();
+            Model model = new Model(counts.catalog, new Row[diseaseCount]);
+            for (int disease = 0; disease < diseaseCount; disease++) {
+                counts.dirty.set(disease, 0);
+                model.rows[disease] = Row.of(counts, disease);
+            }
+            return model;
+        }
+
+        Model update(Counts counts) {
+            Model next = new Model(catalog, rows.clone());
+            for (int disease = 0; disease < rows.length; disease++) {
+                if (counts.dirty.getAndSet(disease, 0) == 1) {
+                    next.rows[disease] = Row.of(counts, disease);
+                }
+            }
+            return next;
+        }
+
+        double[] scores(SymptomQuery query) {
+            double[] scores = new double[rows.length];
+            for (int disease = 0; disease < rows.length; disease++) {
+                Row row = rows[disease];
+                double score = row.base;
+                for (int i = 0; i < query.size; i++) {
+                    int position = Arrays.binarySearch(row.symptoms, query.ids[i]);
+                    score += position >= 0 ? row.logOdds[position] : row.otherLogOdds;
+                }
+                scores[disease] = score;
+            }
+            return scores;
+        }
+    }
+
+    /**
+     * Log-odds of the symptoms a disease has a count for, ascending by id, and the smoothed log-odds
+     * shared by every other symptom.
+     */
+    private record Row(double base, int[] symptoms, float[] logOdds, float otherLogOdds) {
+
+        static Row of(Counts counts, int disease) {
+            RuleIndex catalog = counts.catalog;
+            int[] rule = new int[catalog.ruleSize(disease)];
+            catalog.ruleSymptoms(disease, rule);
+            SymptomCounts pairs = counts.pairs.get(disease);
+            long[] learned = pairs != null ? pairs.entries() : new long[0];
+
+            double examples = 1 + counts.learned.get(disease);
+            double denominator = examples + 2 * ALPHA;
+            double other = ALPHA / denominator;
+            // Rule symptoms and learned symptoms, both ascending, merged
+            int[] symptoms = new int[rule.length + learned.length];
+            float[] logOdds = new float[symptoms.length];
+            int size = 0;
+            double absent = 0;
+            for (int r = 0, l = 0; r < rule.length || l < learned.length; size++) {
+                int ruleSymptom = r < rule.length ? rule[r] : Integer.MAX_VALUE;
+                int learnedSymptom = l < learned.length ? (int) (learned[l] >>> 32) : Integer.MAX_VALUE;
+                int symptom = Math.min(ruleSymptom, learnedSymptom);
+                int count = 0;
+                if (ruleSymptom == symptom) {
+                    count++;
+                    r++;
+                }
+                if (learnedSymptom == symptom) {
+                    count += (int) learned[l++];
+                }
+                double p = (count + ALPHA) / denominator;
+                symptoms[size] = symptom;
+                logOdds[size] = (float) (Math.log(p) - Math.log1p(-p));
+                absent += Math.log1p(-p);
+            }
+            absent += (catalog.symptomCount() - size) * Math.log1p(-other);
+            return new Row(Math.log(examples) + absent, Arrays.copyOf(symptoms, size), Arrays.copyOf(logOdds, size),
+                    (float) (Math.log(other) - Math.log1p(-other)));
+        }
+    }
+
+    /**
+     * Learned diagnoses per symptom of one disease: a linear-probing map of symptom id + 1 (0 = free slot)
+     * to its count, at most half full. Diagnoses of one disease are rare enough that its monitor is the lock.
+     */
+    private static final class SymptomCounts {
+        private static final int MIN_CAPACITY = 16;
+
+        private int[] symptoms = new int[MIN_CAPACITY];
+        private int[] counts = new int[MIN_CAPACITY];
+        private int size;
+
+        synchronized void add(int symptom, int count) {
+            int mask = symptoms.length - 1;
+            int slot = hash(symptom) & mask;
+            while (symptoms[slot] != 0 && symptoms[slot] != symptom + 1) {
+                slot = (slot + 1) & mask;
+            }
+            if (symptoms[slot] == 0) {
+                if (2 * (size + 1) > symptoms.length) {
+                    grow();
+                    add(symptom, count);
+                    return;
+                }
+                symptoms[slot] = symptom + 1;
+                size++;
+            }
+            counts[slot] += count;
+        }
+
+        /**
+         * Entries as {@code symptom << 32 | count}, ascending by symptom.
+         */
+        synchronized long[] entries() {
+            long[] entries = new long[size];
+            int n = 0;
+            for (int slot = 0; slot < symptoms.length; slot++) {
+                if (symptoms[slot] != 0) {
+                    entries[n++] = (long) (symptoms[slot] - 1) << 32 | counts[slot];
+                }
+            }
+            Arrays.sort(entries);
+            return entries;
+        }
+
+        private void grow() {
+            int[] oldSymptoms = symptoms;
+            int[] oldCounts = counts;
+            symptoms = new int[oldSymptoms.length * 2];
+            counts = new int[oldSymptoms.length * 2];
+            int mask = symptoms.length - 1;
+            for (int i = 0; i < oldSymptoms.length; i++) {
+                if (oldSymptoms[i] != 0) {
+                    int slot = hash(oldSymptoms[i] - 1) & mask;
+                    while (symptoms[slot] != 0) {
+                        slot = (slot + 1) & mask;
+                    }
+                    symptoms[slot] = oldSymptoms[i];
+                    counts[slot] = oldCounts[i];
+                }
+            }
+        }
+
+        private static int hash(int symptom) {
+            int h = symptom * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
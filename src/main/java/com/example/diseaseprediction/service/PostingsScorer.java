@@ -0,0 +1,97 @@
+package com.example.diseaseprediction.service;
+
+/**
+ * Sparse scorer that walks the postings of the submitted symptoms only, so the cost is
+ * proportional to the postings touched rather than to the size of the catalog.
+ * Match counters live in per-thread primitive arrays that are reset after every call.
+ */
+final class PostingsScorer {
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(() -> new Scratch(0));
+
+    private PostingsScorer() {
+    }
+
+    /**
+     * Returns the best disease id as per {@link RuleIndex} ordering, or -1 when no rule shares a symptom
+     * with the query. Ties are broken towards the lower disease id.
+     */
+    static int best(RuleIndex index, SymptomQuery query) {
+        Scratch scratch = scratch(index.diseaseCount());
+        int[] counts = scratch.counts;
+        int[] touched = scratch.touched;
+        int touchedCount = 0;
+
+        for (int i = 0; i < query.size; i++) {
+            int end = index.postingsEnd(query.ids[i]);
+            for (int p = index.postingsStart(query.ids[i]); p < end; p++) {
+                int disease = index.posting(p);
+                if (counts[disease]++ == 0) {
+                    touched[touchedCount++] = disease;
+                }
+            }
+        }
+
+        int best = -1;
+        int bestMatches = 0;
+        int bestSize = 1;
+        for (int i = 0; i < touchedCount; i++) {
+            int disease = touched[i];
+            int matches = counts[disease];
+            int size = index.ruleSize(disease);
+            long lhs = (long) matches * bestSize;
+            long rhs = (long) bestMatches * size;
+            if (lhs > rhs || (lhs == rhs && disease < best)) {
+                best = disease;
+                bestMatches = matches;
+                bestSize = size;
+            }
+            counts[disease] = 0;
+        }
+        return best;
+    }
+
+    /**
+     * Offers every disease that shares at least one symptom with the query to the heap.
+     */
+    static void collect(RuleIndex index, SymptomQuery query, CandidateHeap heap) {
+        Scratch scratch = scratch(index.diseaseCount());
+        int[] counts = scratch.counts;
+        int[] touched = scratch.touched;
+        int touchedCount = 0;
+
+        for (int i = 0; i < query.size; i++) {
+            int end = index.postingsEnd(query.ids[i]);
+            for (int p = index.postingsStart(query.ids[i]); p < end; p++) {
+                int disease = index.posting(p);
+                if (counts[disease]++ == 0) {
+                    touched[touchedCount++] = disease;
+                }
+            }
+        }
+        for (int i = 0; i < touchedCount; i++) {
+            int disease = touched[i];
+            heap.offer(disease, counts[disease]);
+            counts[disease] = 0;
+        }
+    }
+
+    private static Scratch scratch(int diseaseCount) {
+        Scratch scratch = SCRATCH.get();
+        if (scratch.counts.length < diseaseCount) {
+            scratch = new Scratch(diseaseCount);
+            SCRATCH.set(scratch);
+        }
+        return scratch;
+    }
+
+    private static final class Scratch {
+        final int[] counts;
+        final int[] touched;
+
+        Scratch(int size) {
+            counts = new int[size];
+            touched = new int[size];
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.diseaseprediction.service;
+
+import java.util.List;
+
+/**
+ * Scores symptom sets against the current rule set. The implementation used for predictions
+ * is selected with {@code app.engine.type}.
+ */
+public interface PredictionEngine {
+
+    enum Type {
+        DECISION_TREE,
+        NAIVE_BAYES,
+        TRAINED_TREE
+    }
+
+    DecisionTreeEngine.Outcome predict(List<String> symptoms);
+
+    /**
+     * Scores a batch of symptom sets against one rule-set snapshot, one outcome per set in the same order.
+     */
+    List<DecisionTreeEngine.Outcome> predictAll(List<List<String>> symptomSets);
+
+    /**
+     * Ranks the k best candidate diseases, best first; the first element equals {@link #predict(List)}.
+     */
+    List<DecisionTreeEngine.Outcome> predictTopK(List<String> symptoms, int k);
+
+    long getRuleSetVersion();
+}
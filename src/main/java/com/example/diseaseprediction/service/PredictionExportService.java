@@ -0,0 +1,272 @@
+package com.example.diseaseprediction.service;
+
+import com.example.diseaseprediction.exception.TooManyRequestsException;
+import com.example.diseaseprediction.repository.CatalogRepository;
+import com.example.diseaseprediction.repository.PredictionExportRepository;
+import com.example.diseaseprediction.repository.PredictionExportRepository.ExportRow;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+
+/**
+ * Exports prediction history for data-portability requests as NDJSON (one JSON object per line) or CSV.
+ * Rows come from {@link PredictionExportRepository} as the driver fetches them and are written straight
+ * to the caller's stream through a fixed buffer, so memory stays constant whatever the number of rows;
+ * only the symptom catalog (id to name) is held for the duration. The read runs in one read-only
+ * transaction, which keeps one pooled connection for the whole export; at most
+ * {@code app.predictions.export.max-concurrent} exports stream at once, so they cannot take the pool from
+ * predictions.
+ */
+@Service
+public class PredictionExportService {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String[] CSV_HEADER = {"id", "user", "created_at", "disease", "confidence", "symptoms"};
+
+    public enum Format {
+        NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+        CSV(MediaType.parseMediaType("text/csv;charset=UTF-8"), "csv");
+
+        private final MediaType mediaType;
+        private final String extension;
+
+        Format(MediaType mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        public MediaType mediaType() {
+            return mediaType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+
+        /**
+         * @throws IllegalArgumentException for anything but {@code ndjson} or {@code csv}
+         */
+        public static Format of(String name) {
+            for (Format format : values()) {
+                if (format.extension.equals(name.toLowerCase(Locale.ROOT))) {
+                    return format;
+                }
+            }
+            throw new IllegalArgumentException("format must be ndjson or csv");
+        }
+    }
+
+    private final PredictionExportRepository exportRepository;
+    private final CatalogRepository catalogRepository;
+    private final TransactionTemplate readOnly;
+    private final Semaphore exportSlots;
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    public PredictionExportService(PredictionExportRepository exportRepository,
+                                   CatalogRepository catalogRepository,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${app.predictions.export.max-concurrent:2}") int maxConcurrent) {
+        this.exportRepository = exportRepository;
+        this.catalogRepository = catalogRepository;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.exportSlots = new Semaphore(maxConcurrent);
+    }
+
+    /**
+     * Reserves an export slot for {@link #exportUser}; the slot is freed once the returned body has been written.
+     *
+     * @throws TooManyRequestsException if every slot is taken
+     */
+    public StreamingResponseBody streamUser(String email, Format format) {
+        return reserved(out -> exportUser(email, format, out));
+    }
+
+    /**
+     * Reserves an export slot for {@link #exportAll}; the slot is freed once the returned body has been written.
+     *
+     * @throws TooManyRequestsException if every slot is taken
+     */
+    public StreamingResponseBody streamAll(Format format) {
+        return reserved(out -> exportAll(format, out));
+    }
+
+    /**
+     * Writes the user's predictions, newest first.
+     */
+    public void exportUser(String email, Format format, OutputStream out) throws IOException {
+        export(format, out, action -> exportRepository.forEachOfUser(email, action));
+    }
+
+    /**
+     * Writes every user's predictions, by id.
+     */
+    public void exportAll(Format format, OutputStream out) throws IOException {
+        export(format, out, exportRepository::forEach);
+    }
+
+    // Taken before the response starts, so a refusal can still be an error status
+    private StreamingResponseBody reserved(StreamingResponseBody body) {
+        if (!exportSlots.tryAcquire()) {
+            throw new TooManyRequestsException("Too many exports are running, please retry later");
+        }
+        return out -> {
+            try {
+                body.writeTo(out);
+            } finally {
+                exportSlots.release();
+            }
+        };
+    }
+
+    private void export(Format format, OutputStream out, Consumer<Consumer<ExportRow>> query) throws IOException {
+        Map<Long, String> symptomNames = new HashMap<>();
+        catalogRepository.findAllSymptomIds().forEach((name, id) -> symptomNames.put(id, name));
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        RowWriter rows = format == Format.NDJSON ? new NdjsonWriter(writer, symptomNames)
+                : new CsvWriter(writer, symptomNames);
+        try {
+            readOnly.executeWithoutResult(status -> query.accept(row -> {
+                try {
+                    rows.write(row);
+                } catch (IOException e) {
+                    // Usually the client went away; ends the query and releases the connection
+                    throw new UncheckedIOException(e);
+                }
+            }));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        rows.finish();
+        writer.flush();
+    }
+
+    private interface RowWriter {
+        void write(ExportRow row) throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    private final class NdjsonWriter implements RowWriter {
+        private final JsonGenerator json;
+        private final Map<Long, String> symptomNames;
+
+        NdjsonWriter(Writer writer, Map<Long, String> symptomNames) throws IOException {
+            this.json = jsonFactory.createGenerator(writer).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.json.setRootValueSeparator(null);
+            this.symptomNames = symptomNames;
+        }
+
+        @Override
+        public void write(ExportRow row) throws IOException {
+            json.writeStartObject();
+            json.writeNumberField("id", row.id());
+            json.writeStringField("user", row.userEmail());
+            json.writeStringField("createdAt", row.createdAt() != null ? row.createdAt().toString() : null);
+            json.writeStringField("disease", row.diseaseName());
+            json.writeNumberField("confidence", row.confidence());
+            json.writeArrayFieldStart("symptoms");
+            if (row.symptomIds() != null) {
+                SymptomSetCodec.forEach(row.symptomIds(), id -> {
+                    try {
+                        json.writeString(symptomName(symptomNames, id));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            json.flush();
+        }
+    }
+
+    private static final class CsvWriter implements RowWriter {
+        private final Writer writer;
+        private final Map<Long, String> symptomNames;
+        private final StringBuilder symptoms = new StringBuilder();
+
+        CsvWriter(Writer writer, Map<Long, String> symptomNames) throws IOException {
+            this.writer = writer;
+            this.symptomNames = symptomNames;
+            writer.write(String.join(",", CSV_HEADER));
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(ExportRow row) throws IOException {
+            symptoms.setLength(0);
+            if (row.symptomIds() != null) {
+                SymptomSetCodec.forEach(row.symptomIds(), id -> symptoms
+                        .append(symptoms.length() > 0 ? ", " : "")
+                        .append(symptomName(symptomNames, id)));
+            }
+            writer.write(Long.toString(row.id()));
+            field(row.userEmail());
+            field(row.createdAt() != null ? row.createdAt().toString() : null);
+            field(row.diseaseName());
+            field(Double.toString(row.confidence()));
+            field(symptoms);
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void finish() {
+        }
+
+        // RFC 4180: quoted only when it holds a comma, quote or line break; quotes doubled
+        private void field(CharSequence value) throws IOException {
+            writer.write(',');
+            if (value == null) {
+                return;
+            }
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                writer.append(value);
+                return;
+            }
+            writer.write('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    writer.write('"');
+                }
+                writer.write(c);
+            }
+            writer.write('"');
+        }
+    }
+
+    // Symptoms catalogued after the export started have no name yet
+    private static String symptomName(Map<Long, String> symptomNames, long id) {
+        return symptomNames.getOrDefault(id, Long.toString(id));
+    }
+}
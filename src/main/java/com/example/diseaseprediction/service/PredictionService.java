@@ -1,65 +1,196 @@
 package com.example.diseaseprediction.service;
 
+import com.example.diseaseprediction.dto.PredictionHistoryPage;
 import com.example.diseaseprediction.dto.PredictionRequest;
 import com.example.diseaseprediction.dto.PredictionResponse;
 import com.example.diseaseprediction.dto.PredictionHistoryResponse;
-import com.example.diseaseprediction.model.Disease;
 import com.example.diseaseprediction.model.Prediction;
-import com.example.diseaseprediction.model.Symptom;
 import com.example.diseaseprediction.model.User;
 import com.example.diseaseprediction.repository.DiseaseRepository;
 import com.example.diseaseprediction.repository.PredictionRepository;
-import com.example.diseaseprediction.repository.SymptomRepository;
 import com.example.diseaseprediction.repository.UserRepository;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
 
+/**
+ * Scores and records predictions. Catalog lookups go through {@link CatalogCache}, so the request path only
+ * reads the user and writes the prediction; there is no request-wide transaction, and new symptoms are
+ * catalogued in a short transaction of their own. Predictions are written by {@link PredictionWriter},
+ * inline or write-behind.
+ */
 @Service
 public class PredictionService {
 
+    private static final int MAX_CANDIDATES = 25;
+    private static final int DEFAULT_HISTORY_PAGE = 20;
+    private static final int MAX_HISTORY_PAGE = 100;
+
     private final UserRepository userRepository;
     private final DiseaseRepository diseaseRepository;
     private final PredictionRepository predictionRepository;
-    private final SymptomRepository symptomRepository;
-    private final DecisionTreeEngine decisionTreeEngine;
+    private final PredictionWriter predictionWriter;
+    private final PredictionEngine predictionEngine;
+    private final CatalogCache catalogCache;
+    private final PredictionStatistics predictionStatistics;
 
     public PredictionService(UserRepository userRepository,
                              DiseaseRepository diseaseRepository,
                              PredictionRepository predictionRepository,
-                             SymptomRepository symptomRepository,
-                             DecisionTreeEngine decisionTreeEngine) {
+                             PredictionWriter predictionWriter,
+                             PredictionEngine predictionEngine,
+                             CatalogCache catalogCache,
+                             PredictionStatistics predictionStatistics) {
         this.userRepository = userRepository;
         this.diseaseRepository = diseaseRepository;
         this.predictionRepository = predictionRepository;
-        this.symptomRepository = symptomRepository;
-        this.decisionTreeEngine = decisionTreeEngine;
+        this.predictionWriter = predictionWriter;
+        this.predictionEngine = predictionEngine;
+        this.catalogCache = catalogCache;
+        this.predictionStatistics = predictionStatistics;
     }
 
-    @Transactional
     public PredictionResponse predict(String userEmail, PredictionRequest request) {
+        return predict(userEmail, request, null);
+    }
+
+    /**
+     * Predicts and persists the best match; when {@code top} is given the response also carries
+     * the {@code top} best candidates, ranked, from the same scoring pass.
+     */
+    public PredictionResponse predict(String userEmail, PredictionRequest request, Integer top) {
+        if (top != null && (top < 1 || top > MAX_CANDIDATES)) {
+            throw new IllegalArgumentException("top must be between 1 and " + MAX_CANDIDATES);
+        }
+        User user = userRepository.findByEmail(userEmail)
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+
+        List<DecisionTreeEngine.Outcome> outcomes = top != null
+                ? predictionEngine.predictTopK(request.getSymptoms(), top)
+                : List.of(predictionEngine.predict(request.getSymptoms()));
+        DecisionTreeEngine.Outcome outcome = outcomes.get(0);
+        CatalogCache.CachedDisease disease = catalogCache.disease(outcome.getDiseaseName(), outcome.getPrecautions());
+
+        // Persist symptoms to the catalog if new; rule symptoms not submitted go in the same upsert, for the
+        // stored explanation
+        Map<String, Long> symptomIds = catalogCache.symptomIds(Stream.concat(
+                request.getSymptoms().stream(), outcome.getMissingSymptoms().stream()).toList());
+
+        Prediction prediction = new Prediction(user, diseaseRepository.getReferenceById(disease.id()),
+                outcome.getConfidence());
+        prediction.setSymptomIds(SymptomSetCodec.encode(request.getSymptoms().stream()
+                .map(symptom -> symptomIds.get(RuleIndex.normalize(symptom)))
+                .filter(Objects::nonNull)
+                .toList()));
+        prediction.setRuleSymptomIds(ruleSymptomIds(outcome, symptomIds, symptomIds));
+        predictionWriter.write(prediction);
+        predictionStatistics.recorded(disease.id(), disease.name());
+
+        PredictionResponse response = new PredictionResponse(disease.name(), outcome.getConfidence(),
+                disease.precautions(), prediction.getCreatedAt(), outcome.getRuleSetVersion());
+        response.setExplanation(outcome.getMatchedSymptoms(), outcome.getMissingSymptoms());
+        if (top != null) {
+            response.setCandidates(outcomes.stream()
+                    .map(o -> new PredictionResponse.Candidate(o.getDiseaseName(), o.getConfidence(), o.getPrecautions(),
+                            o.getMatchedSymptoms(), o.getMissingSymptoms()))
+                    .toList());
+        }
+        return response;
+    }
+
+    /**
+     * Scores many symptom sets for one user. Diseases and symptoms are resolved through the catalog cache,
+     * new symptoms with one batched upsert, and all predictions are written in JDBC batches.
+     */
+    public List<PredictionResponse> predictBatch(String userEmail, List<PredictionRequest> requests) {
         User user = userRepository.findByEmail(userEmail)
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
-        DecisionTreeEngine.Outcome outcome = decisionTreeEngine.predict(request.getSymptoms());
-        Disease disease = diseaseRepository.findByDiseaseName(outcome.getDiseaseName())
-                .orElseGet(() -> diseaseRepository.save(new Disease(outcome.getDiseaseName(),
-                        "Auto-generated from rule set", outcome.getPrecautions())));
+        List<DecisionTreeEngine.Outcome> outcomes = predictionEngine.predictAll(
+                requests.stream().map(PredictionRequest::getSymptoms).toList());
 
-        // Persist symptoms to the catalog if new
-        request.getSymptoms().forEach(symptomName -> {
-            String normalized = symptomName.toLowerCase(Locale.ROOT);
-            symptomRepository.findBySymptomName(normalized)
-                    .orElseGet(() -> symptomRepository.save(new Symptom(normalized)));
-        });
+        Map<String, CatalogCache.CachedDisease> diseases = resolveDiseases(outcomes);
+        // Rule symptoms not submitted are catalogued in the same upsert, for the stored explanation
+        Map<String, Long> symptomIds = catalogCache.symptomIds(Stream.concat(
+                requests.stream().flatMap(r -> r.getSymptoms().stream()),
+                outcomes.stream().flatMap(o -> o.getMissingSymptoms().stream())).toList());
 
-        Prediction prediction = new Prediction(user, disease, outcome.getConfidence());
-        predictionRepository.save(prediction);
+        LocalDateTime now = LocalDateTime.now();
+        List<Prediction> predictions = new ArrayList<>(outcomes.size());
+        List<PredictionResponse> responses = new ArrayList<>(outcomes.size());
+        long[] ids = new long[0];
+        for (int i = 0; i < outcomes.size(); i++) {
+            DecisionTreeEngine.Outcome outcome = outcomes.get(i);
+            CatalogCache.CachedDisease disease = diseases.get(outcome.getDiseaseName());
+            Prediction prediction = new Prediction(user, diseaseRepository.getReferenceById(disease.id()),
+                    outcome.getConfidence());
+            prediction.setCreatedAt(now);
+            List<String> symptoms = requests.get(i).getSymptoms();
+            if (ids.length < symptoms.size()) {
+                ids = new long[symptoms.size()];
+            }
+            int count = 0;
+            for (String symptom : symptoms) {
+                Long id = symptomIds.get(RuleIndex.normalize(symptom));
+                if (id != null) {
+                    ids[count++] = id;
+                }
+            }
+            prediction.setSymptomIds(SymptomSetCodec.encode(ids, count));
+            prediction.setRuleSymptomIds(ruleSymptomIds(outcome, symptomIds, symptomIds));
+            predictions.add(prediction);
+            PredictionResponse response = new PredictionResponse(disease.name(), outcome.getConfidence(),
+                    disease.precautions(), now, outcome.getRuleSetVersion());
+            response.setExplanation(outcome.getMatchedSymptoms(), outcome.getMissingSymptoms());
+            responses.add(response);
+        }
+        predictionWriter.writeAll(predictions);
+        // Counted once written, as in predict
+        for (DecisionTreeEngine.Outcome outcome : outcomes) {
+            CatalogCache.CachedDisease disease = diseases.get(outcome.getDiseaseName());
+            predictionStatistics.recorded(disease.id(), disease.name());
+        }
+        return responses;
+    }
 
-        return new PredictionResponse(disease.getDiseaseName(), outcome.getConfidence(),
-                disease.getPrecautions(), prediction.getCreatedAt());
+    /**
+     * The catalog ids of the predicted rule's symptoms, matched ones first, up to what the column holds;
+     * null when the outcome has no rule.
+     */
+    private static byte[] ruleSymptomIds(DecisionTreeEngine.Outcome outcome, Map<String, Long> matchedIds,
+                                         Map<String, Long> missingIds) {
+        long[] ids = new long[Prediction.MAX_SYMPTOM_IDS];
+        int count = 0;
+        for (String symptom : outcome.getMatchedSymptoms()) {
+            Long id = matchedIds.get(RuleIndex.normalize(symptom));
+            if (id != null && count < ids.length) {
+                ids[count++] = id;
+            }
+        }
+        for (String symptom : outcome.getMissingSymptoms()) {
+            Long id = missingIds.get(RuleIndex.normalize(symptom));
+            if (id != null && count < ids.length) {
+                ids[count++] = id;
+            }
+        }
+        return count > 0 ? SymptomSetCodec.encode(ids, count) : null;
+    }
+
+    private Map<String, CatalogCache.CachedDisease> resolveDiseases(List<DecisionTreeEngine.Outcome> outcomes) {
+        Map<String, CatalogCache.CachedDisease> diseases = new HashMap<>();
+        outcomes.forEach(o -> diseases.computeIfAbsent(o.getDiseaseName(),
+                name -> catalogCache.disease(name, o.getPrecautions())));
+        return diseases;
     }
 
     public List<Prediction> findUserPredictions(Long userId) {
@@ -67,14 +198,56 @@ public class PredictionService {
     }
 
     public List<PredictionHistoryResponse> findCurrentUserHistory(String email) {
-        return predictionRepository.findByUserEmailOrderByCreatedAtDesc(email)
-                .stream()
-                .map(p -> new PredictionHistoryResponse(
-                        p.getId(),
-                        p.getDisease().getDiseaseName(),
-                        p.getConfidence(),
-                        p.getDisease().getPrecautions(),
-                        p.getCreatedAt()))
-                .toList();
+        return userRepository.findIdByEmail(email)
+                .map(userId -> predictionRepository.findHistory(userId, Limit.unlimited()))
+                .orElse(List.of());
+    }
+
+    /**
+     * One page of the user's history, newest first. {@code cursor} is the {@code nextCursor} of the previous
+     * page, or {@code null} for the first; it encodes the (createdAt, id) of that page's last row, so each page
+     * is one range scan of the user's index that starts where the previous one stopped.
+     */
+    public PredictionHistoryPage findCurrentUserHistory(String email, Integer size, String cursor) {
+        int pageSize = size != null ? size : DEFAULT_HISTORY_PAGE;
+        if (pageSize < 1 || pageSize > MAX_HISTORY_PAGE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_HISTORY_PAGE);
+        }
+        HistoryCursor after = cursor == null || cursor.isEmpty() ? null : HistoryCursor.decode(cursor);
+        Long userId = userRepository.findIdByEmail(email).orElse(null);
+        if (userId == null) {
+            return new PredictionHistoryPage(List.of(), null);
+        }
+        // One row more than the page tells whether there is a next page
+        Limit limit = Limit.of(pageSize + 1);
+        List<PredictionHistoryResponse> rows = after == null
+                ? predictionRepository.findHistory(userId, limit)
+                : predictionRepository.findHistoryBefore(userId, after.createdAt(), after.id(), limit);
+        if (rows.size() <= pageSize) {
+            return new PredictionHistoryPage(rows, null);
+        }
+        List<PredictionHistoryResponse> page = rows.subList(0, pageSize);
+        PredictionHistoryResponse last = page.get(pageSize - 1);
+        return new PredictionHistoryPage(page, new HistoryCursor(last.getTimestamp(), last.getPredictionId()).encode());
+    }
+
+    // Opaque to clients: base64url of "<createdAt>_<id>"
+    record HistoryCursor(LocalDateTime createdAt, long id) {
+
+        String encode() {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((createdAt + "_" + id).getBytes(StandardCharsets.US_ASCII));
+        }
+
+        static HistoryCursor decode(String cursor) {
+            try {
+                String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+                int separator = value.lastIndexOf('_');
+                return new HistoryCursor(LocalDateTime.parse(value.substring(0, separator)),
+                        Long.parseLong(value.substring(separator + 1)));
+            } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid history cursor");
+            }
+        }
     }
 }
@@ -0,0 +1,132 @@
+package com.example.diseaseprediction.service;
+
+import com.example.diseaseprediction.dto.PredictionResponse;
+import com.example.diseaseprediction.dto.PredictionSessionResponse;
+import com.example.diseaseprediction.exception.ResourceNotFoundException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Server-side scoring sessions for interactive symptom entry. Each session keeps per-disease match
+ * counters for the rule-based engine, so ticking or unticking one symptom costs the postings of that
+ * symptom instead of re-scoring the whole list. Sessions live in memory on the node that created them,
+ * bounded by {@code app.sessions.maximum-size} and dropped after {@code app.sessions.expire-after}
+ * without use; nothing is persisted, so the final prediction is still made with {@code POST /predict}.
+ */
+@Service
+public class PredictionSessionService {
+
+    static final int DEFAULT_CANDIDATES = 5;
+    private static final int MAX_CANDIDATES = 25;
+    private static final int MAX_SYMPTOMS = 200;
+
+    private final DecisionTreeEngine engine;
+    private final Cache<String, ScoringSession> sessions;
+
+    public PredictionSessionService(DecisionTreeEngine engine,
+                                    @Value("${app.sessions.maximum-size:10000}") long maximumSize,
+                                    @Value("${app.sessions.expire-after:PT15M}") Duration expireAfter,
+                                    MeterRegistry meterRegistry) {
+        this.engine = engine;
+        this.sessions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(expireAfter)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, sessions, "prediction-sessions");
+    }
+
+    public PredictionSessionResponse create(String userEmail, List<String> symptoms, Integer top) {
+        int k = candidates(top);
+        ScoringSession session = new ScoringSession(userEmail, engine.snapshot());
+        if (symptoms != null) {
+            for (String symptom : symptoms) {
+                if (symptom != null) {
+                    session.add(symptom);
+                }
+            }
+        }
+        String id = UUID.randomUUID().toString();
+        sessions.put(id, session);
+        return response(id, session, k);
+    }
+
+    public PredictionSessionResponse get(String userEmail, String sessionId, Integer top) {
+        int k = candidates(top);
+        ScoringSession session = find(userEmail, sessionId);
+        synchronized (session) {
+            return response(sessionId, session, k);
+        }
+    }
+
+    public PredictionSessionResponse addSymptom(String userEmail, String sessionId, String symptom, Integer top) {
+        int k = candidates(top);
+        ScoringSession session = find(userEmail, sessionId);
+        synchronized (session) {
+            if (session.size() >= MAX_SYMPTOMS) {
+                throw new IllegalArgumentException("A session may hold at most " + MAX_SYMPTOMS + " symptoms");
+            }
+            session.refresh(engine.snapshot());
+            session.add(symptom);
+            return response(sessionId, session, k);
+        }
+    }
+
+    public PredictionSessionResponse removeSymptom(String userEmail, String sessionId, String symptom, Integer top) {
+        int k = candidates(top);
+        ScoringSession session = find(userEmail, sessionId);
+        synchronized (session) {
+            session.refresh(engine.snapshot());
+            session.remove(symptom);
+            return response(sessionId, session, k);
+        }
+    }
+
+    public void close(String userEmail, String sessionId) {
+        find(userEmail, sessionId);
+        sessions.invalidate(sessionId);
+    }
+
+    long size() {
+        sessions.cleanUp();
+        return sessions.estimatedSize();
+    }
+
+    /**
+     * Sessions of other users are reported as missing, so ids cannot be probed.
+     */
+    private ScoringSession find(String userEmail, String sessionId) {
+        ScoringSession session = sessions.getIfPresent(sessionId);
+        if (session == null || !session.owner().equals(userEmail)) {
+            throw new ResourceNotFoundException("Prediction session not found");
+        }
+        return session;
+    }
+
+    private PredictionSessionResponse response(String sessionId, ScoringSession session, int k) {
+        session.refresh(engine.snapshot());
+        List<PredictionResponse.Candidate> candidates = session.ranking(k).stream()
+                .map(o -> new PredictionResponse.Candidate(o.getDiseaseName(), o.getConfidence(), o.getPrecautions(),
+                        o.getMatchedSymptoms(), o.getMissingSymptoms()))
+                .toList();
+        return new PredictionSessionResponse(sessionId, session.symptoms(), session.version(), candidates);
+    }
+
+    private static int candidates(Integer top) {
+        if (top == null) {
+            return DEFAULT_CANDIDATES;
+        }
+        if (top < 1 || top > MAX_CANDIDATES) {
+            throw new IllegalArgumentException("top must be between 1 and " + MAX_CANDIDATES);
+        }
+        return top;
+    }
+}
@@ -0,0 +1,132 @@
+package com.example.diseaseprediction.service;
+
+import com.example.diseaseprediction.repository.PredictionStatisticsRepository;
+import com.example.diseaseprediction.repository.PredictionStatisticsRepository.DiseaseCount;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Prediction counts per disease for the admin statistics, kept in memory so reading them never touches the
+ * predictions table. Each recorded prediction increments a {@link LongAdder} for its disease. At startup and
+ * every {@code app.statistics.reconcile-interval} (1 h) the counts are corrected against one grouped count
+ * query over the disease index, which picks up rows written by other replicas, writes that failed after
+ * being counted, and deletions. Each count is snapshotted when the query starts and moved by the difference
+ * between the database (plus the rows still queued by {@link PredictionWriter}) and that snapshot, so
+ * predictions recorded while the query runs are kept. Callers record a prediction only after handing it to
+ * the writer, so a reconciliation never drops one; what it can do is count twice, until the next
+ * reconciliation, a prediction written (or queued) but not yet recorded when the snapshot is taken, and a row
+ * flushed while the query runs. That window is a few statements per prediction, so the overcount stays within
+ * the predictions in flight at the moment of a reconciliation.
+ */
+@Component
+public class PredictionStatistics implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(PredictionStatistics.class);
+
+    private final PredictionStatisticsRepository statisticsRepository;
+    private final PredictionWriter predictionWriter;
+    private final Duration reconcileInterval;
+    private final Map<Long, Tally> tallies = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService reconciler;
+
+    public PredictionStatistics(PredictionStatisticsRepository statisticsRepository,
+                                PredictionWriter predictionWriter,
+                                @Value("${app.statistics.reconcile-interval:PT1H}") Duration reconcileInterval) {
+        this.statisticsRepository = statisticsRepository;
+        this.predictionWriter = predictionWriter;
+        this.reconcileInterval = reconcileInterval;
+        this.reconciler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "prediction-statistics");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        reconcile();
+        if (!reconcileInterval.isZero() && !reconcileInterval.isNegative()) {
+            long millis = reconcileInterval.toMillis();
+            reconciler.scheduleWithFixedDelay(this::reconcileQuietly, millis, millis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Counts one more prediction of the disease. Call after the prediction has been handed to
+     * {@link PredictionWriter}.
+     */
+    public void recorded(long diseaseId, String diseaseName) {
+        tallies.computeIfAbsent(diseaseId, id -> new Tally(diseaseName)).count.increment();
+    }
+
+    /**
+     * Predictions by disease name, diseases never predicted left out.
+     */
+    public Map<String, Long> countsByDisease() {
+        Map<String, Long> counts = new HashMap<>();
+        tallies.values().forEach(tally -> {
+            long count = tally.count.sum();
+            if (count > 0) {
+                counts.merge(tally.name, count, Long::sum);
+            }
+        });
+        return counts;
+    }
+
+    /**
+     * Corrects the in-memory counts to the database's, plus what was queued or recorded since the query started.
+     * Diseases no longer in the database keep a zero tally rather than being removed, so a prediction recorded
+     * meanwhile is not lost.
+     */
+    void reconcile() {
+        Map<Long, Long> snapshot = new HashMap<>();
+        tallies.forEach((id, tally) -> snapshot.put(id, tally.count.sum()));
+        Map<Long, Long> queued = predictionWriter.queuedByDisease();
+        for (DiseaseCount row : statisticsRepository.countByDisease()) {
+            Tally tally = tallies.computeIfAbsent(row.diseaseId(), id -> new Tally(row.diseaseName()));
+            tally.name = row.diseaseName();
+            Long before = snapshot.remove(row.diseaseId());
+            tally.count.add(row.predictions() + queued.getOrDefault(row.diseaseId(), 0L)
+                    - (before != null ? before : 0));
+        }
+        // Counted here but no row in the database
+        snapshot.forEach((diseaseId, before) ->
+                tallies.get(diseaseId).count.add(queued.getOrDefault(diseaseId, 0L) - before));
+    }
+
+    private void reconcileQuietly() {
+        try {
+            reconcile();
+        } catch (RuntimeException e) {
+            log.warn("Could not reconcile prediction statistics: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        reconciler.shutdownNow();
+    }
+
+    private static final class Tally {
+        // Follows renames at the next reconciliation
+        volatile String name;
+        final LongAdder count = new LongAdder();
+
+        Tally(String name) {
+            this.name = name;
+        }
+    }
+}
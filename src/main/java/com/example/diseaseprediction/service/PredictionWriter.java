@@ -0,0 +1,282 @@
+package com.example.diseaseprediction.service;
+
+import com.example.diseaseprediction.model.Prediction;
+import com.example.diseaseprediction.repository.PredictionBatchRepository;
+import com.example.diseaseprediction.repository.PredictionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Persists recorded predictions. By default each one is inserted by the caller. With
+ * {@code app.predictions.write-behind.enabled=true} the caller only queues it and returns: a background
+ * thread takes up to {@code batch-size} predictions, waiting at most {@code flush-interval} after the first
+ * for the batch to fill, and inserts them in one transaction of JDBC batches
+ * ({@link PredictionBatchRepository}). The queue is bounded: when it is full a caller waits up to
+ * {@code offer-timeout} for room and then inserts its prediction itself, so a slow database slows
+ * requests down instead of losing rows or growing the heap. On shutdown the queue is closed and drained;
+ * callers queue under a shared lock that closing takes exclusively, so nothing is queued after the final
+ * drain. If the flusher thread stops early, callers insert their own predictions from then on, and what
+ * it left queued is written on close.
+ * <ul>
+ *   <li>{@code prediction.write-behind.queue} - predictions waiting to be written</li>
+ *   <li>{@code prediction.write-behind.flush} - time per batch insert</li>
+ *   <li>{@code prediction.write-behind.rows{result=written|failed|direct}} - rows by outcome</li>
+ * </ul>
+ * A batch that still fails after {@value #ATTEMPTS} attempts is logged and counted as failed.
+ */
+@Component
+public class PredictionWriter implements AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(PredictionWriter.class);
+
+    static final int ATTEMPTS = 3;
+
+    private final PredictionRepository predictionRepository;
+    private final PredictionBatchRepository predictionBatchRepository;
+    private final boolean writeBehind;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long offerTimeoutNanos;
+    private final BlockingQueue<Prediction> queue;
+    private final Thread flusher;
+    private final Timer flushes;
+    private final Counter written;
+    private final Counter failed;
+    private final Counter direct;
+    private volatile List<Prediction> flushing = List.of();
+    // Shared by callers while they check closed and queue, exclusive to close() and a stopping flusher
+    private final ReentrantReadWriteLock queueLock = new ReentrantReadWriteLock();
+    private volatile boolean closed;
+    // Set when the flusher thread exits, with the batch it held if it was interrupted
+    private volatile boolean stopped;
+    private volatile List<Prediction> stranded = List.of();
+
+    public PredictionWriter(PredictionRepository predictionRepository,
+                            PredictionBatchRepository predictionBatchRepository,
+                            @Value("${app.predictions.write-behind.enabled:false}") boolean writeBehind,
+                            @Value("${app.predictions.write-behind.batch-size:500}") int batchSize,
+                            @Value("${app.predictions.write-behind.flush-interval:PT0.1S}") Duration flushInterval,
+                            @Value("${app.predictions.write-behind.queue-capacity:10000}") int queueCapacity,
+                            @Value("${app.predictions.write-behind.offer-timeout:PT1S}") Duration offerTimeout,
+                            ObjectProvider<MeterRegistry> meterRegistry) {
+        if (batchSize < 1 || queueCapacity < 1 || flushInterval.isNegative() || flushInterval.isZero()) {
+            throw new IllegalArgumentException(
+                    "Write-behind batch size and queue capacity must be at least 1, the flush interval positive");
+        }
+        this.predictionRepository = predictionRepository;
+        this.predictionBatchRepository = predictionBatchRepository;
+        this.writeBehind = writeBehind;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.offerTimeoutNanos = offerTimeout.toNanos();
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        Gauge.builder("prediction.write-behind.queue", queue, BlockingQueue::size)
+                .description("Predictions waiting to be written")
+                .register(registry);
+        this.flushes = Timer.builder("prediction.write-behind.flush")
+                .description("Time to insert one batch of queued predictions")
+                .register(registry);
+        this.written = rows(registry, "written");
+        this.failed = rows(registry, "failed");
+        this.direct = rows(registry, "direct");
+
+        if (writeBehind) {
+            flusher = new Thread(this::run, "prediction-writer");
+            flusher.setDaemon(true);
+            flusher.start();
+        } else {
+            flusher = null;
+        }
+    }
+
+    /**
+     * Inserts or queues one prediction; queued predictions are not in the history until their batch
+     * is flushed.
+     */
+    public void write(Prediction prediction) {
+        boolean queued = false;
+        if (writeBehind) {
+            queueLock.readLock().lock();
+            try {
+                queued = !closed && !stopped && offer(prediction);
+            } finally {
+                queueLock.readLock().unlock();
+            }
+        }
+        if (!queued) {
+            direct.increment();
+            predictionRepository.save(prediction);
+        }
+    }
+
+    /**
+     * Inserts or queues many predictions; a caller that runs out of queue space inserts the rest itself.
+     */
+    public void writeAll(List<Prediction> predictions) {
+        int queued = 0;
+        if (writeBehind) {
+            queueLock.readLock().lock();
+            try {
+                while (!closed && !stopped && queued < predictions.size() && offer(predictions.get(queued))) {
+                    queued++;
+                }
+            } finally {
+                queueLock.readLock().unlock();
+            }
+        }
+        if (queued < predictions.size()) {
+            List<Prediction> rest = predictions.subList(queued, predictions.size());
+            direct.increment(rest.size());
+            predictionBatchRepository.insertAll(rest);
+        }
+    }
+
+    /**
+     * Predictions queued or being flushed, by disease id: counted by {@link PredictionStatistics} but not
+     * in the predictions table yet.
+     */
+    Map<Long, Long> queuedByDisease() {
+        Map<Long, Long> queued = new HashMap<>();
+        for (Prediction prediction : flushing) {
+            queued.merge(prediction.getDisease().getId(), 1L, Long::sum);
+        }
+        for (Prediction prediction : stranded) {
+            queued.merge(prediction.getDisease().getId(), 1L, Long::sum);
+        }
+        for (Prediction prediction : queue) {
+            queued.merge(prediction.getDisease().getId(), 1L, Long::sum);
+        }
+        return queued;
+    }
+
+    /**
+     * Stops queueing, writes everything already queued and waits for the flusher to finish.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        // Waits for callers that are queueing; later ones see closed and insert their own predictions
+        queueLock.writeLock().lock();
+        try {
+            closed = true;
+        } finally {
+            queueLock.writeLock().unlock();
+        }
+        if (flusher != null) {
+            flusher.join(TimeUnit.SECONDS.toMillis(30));
+            if (flusher.isAlive()) {
+                log.error("Prediction writer did not drain in 30 s; {} queued predictions are lost", queue.size());
+                return;
+            }
+            // Left by a flusher that stopped early
+            List<Prediction> late = new ArrayList<>(stranded);
+            stranded = List.of();
+            queue.drainTo(late);
+            if (!late.isEmpty()) {
+                flush(late);
+            }
+        }
+    }
+
+    private boolean offer(Prediction prediction) {
+        try {
+            return queue.offer(prediction, offerTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void run() {
+        List<Prediction> batch = new ArrayList<>(batchSize);
+        try {
+            while (!closed || !queue.isEmpty()) {
+                Prediction first = queue.poll(flushIntervalNanos, TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() == batchSize || remaining <= 0 || closed) {
+                        break;
+                    }
+                    Prediction next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+                batch.clear();
+            }
+        } catch (InterruptedException e) {
+            log.warn("Prediction writer interrupted with {} predictions queued; they are written on close",
+                    queue.size() + batch.size());
+            stranded = List.copyOf(batch);
+        } finally {
+            queueLock.writeLock().lock();
+            try {
+                stopped = true;
+            } finally {
+                queueLock.writeLock().unlock();
+            }
+        }
+    }
+
+    private void flush(List<Prediction> batch) throws InterruptedException {
+        flushing = List.copyOf(batch);
+        try {
+            insert(batch);
+        } finally {
+            flushing = List.of();
+        }
+    }
+
+    private void insert(List<Prediction> batch) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                flushes.record(() -> predictionBatchRepository.insertAll(batch));
+                written.increment(batch.size());
+                return;
+            } catch (RuntimeException e) {
+                if (attempt == ATTEMPTS) {
+                    failed.increment(batch.size());
+                    log.error("Could not write {} predictions after {} attempts", batch.size(), ATTEMPTS, e);
+                    return;
+                }
+                log.warn("Writing {} predictions failed (attempt {} of {}): {}", batch.size(), attempt, ATTEMPTS,
+                        e.getMessage());
+                Thread.sleep(100L << attempt);
+            }
+        }
+    }
+
+    private static Counter rows(MeterRegistry registry, String result) {
+        return Counter.builder("prediction.write-behind.rows")
+                .description("Prediction rows by how they were written")
+                .tag("result", result)
+                .register(registry);
+    }
+}
@@ -1,8 +1,10 @@
 package com.example.diseaseprediction.service;
 
 import com.example.diseaseprediction.model.Prediction;
+import com.example.diseaseprediction.model.Symptom;
 import com.example.diseaseprediction.model.User;
 import com.example.diseaseprediction.repository.PredictionRepository;
+import com.example.diseaseprediction.repository.SymptomRepository;
 import com.example.diseaseprediction.repository.UserRepository;
 import com.itextpdf.kernel.colors.ColorConstants;
 import com.itextpdf.kernel.colors.DeviceRgb;
@@ -19,6 +21,7 @@ import org.springframework.stereotype.Service;
 
 import java.io.ByteArrayOutputStream;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
@@ -26,13 +29,16 @@ public class ReportService {
 
     private final PredictionRepository predictionRepository;
     private final UserRepository userRepository;
+    private final SymptomRepository symptomRepository;
     
     private static final DeviceRgb PRIMARY_COLOR = new DeviceRgb(102, 126, 234);
     private static final DeviceRgb SECONDARY_COLOR = new DeviceRgb(118, 75, 162);
 
-    public ReportService(PredictionRepository predictionRepository, UserRepository userRepository) {
+    public ReportService(PredictionRepository predictionRepository, UserRepository userRepository,
+                         SymptomRepository symptomRepository) {
         this.predictionRepository = predictionRepository;
         this.userRepository = userRepository;
+        this.symptomRepository = symptomRepository;
     }
 
     public byte[] generatePredictionReport(Long predictionId) {
@@ -40,7 +46,7 @@ public class ReportService {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
         
-        Prediction prediction = predictionRepository.findById(predictionId)
+        Prediction prediction = predictionRepository.findWithDiseaseById(predictionId)
                 .orElseThrow(() -> new RuntimeException("Prediction not found"));
         
         // Verify the prediction belongs to the user
@@ -96,6 +102,26 @@ public class ReportService {
                     .useAllAvailableWidth();
             addTableRow(resultTable, "Predicted Disease:", prediction.getDisease().getDiseaseName());
             addTableRow(resultTable, "Confidence:", String.format("%.1f%%", prediction.getConfidence() * 100));
+            if (prediction.getRuleSymptomIds() != null) {
+                // The stored rule split against the submitted symptoms, as the prediction response was
+                List<Long> ruleIds = new ArrayList<>();
+                SymptomSetCodec.forEach(prediction.getRuleSymptomIds(), ruleIds::add);
+                List<String> matched = new ArrayList<>();
+                List<String> missing = new ArrayList<>();
+                byte[] submitted = prediction.getSymptomIds();
+                for (Symptom symptom : symptomRepository.findAllById(ruleIds)) {
+                    boolean reported = submitted != null && SymptomSetCodec.contains(submitted, symptom.getId());
+                    (reported ? matched : missing).add(symptom.getSymptomName());
+                }
+                matched.sort(null);
+                missing.sort(null);
+                if (!matched.isEmpty()) {
+                    addTableRow(resultTable, "Matched Symptoms:", String.join(", ", matched));
+                }
+                if (!missing.isEmpty()) {
+                    addTableRow(resultTable, "Not Reported:", String.join(", ", missing));
+                }
+            }
             document.add(resultTable);
             
             // Disease Information
@@ -0,0 +1,13 @@
+package com.example.diseaseprediction.service;
+
+/**
+ * Computes the match count of a query against every rule row of a flat, row-major rule matrix
+ * ({@code words} longs per disease, as laid out by {@link HeapRuleIndex}).
+ */
+interface RowScorer {
+
+    /**
+     * Writes popcount(row AND query) for each of the first {@code counts.length} rows into {@code counts}.
+     */
+    void matchAll(long[] ruleBits, int words, long[] query, int[] counts);
+}
@@ -0,0 +1,44 @@
+package com.example.diseaseprediction.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Available {@link RowScorer} backends. The SIMD backend is only present in builds made with the
+ * {@code vector} profile and needs {@code --add-modules jdk.incubator.vector} at runtime; it is loaded
+ * reflectively so the rest of the engine compiles and runs without it.
+ */
+final class RowScorers {
+
+    private static final Logger log = LoggerFactory.getLogger(RowScorers.class);
+
+    static final String VECTOR_SCORER = "com.example.diseaseprediction.service.VectorRowScorer";
+
+    static final RowScorer SCALAR = (ruleBits, words, query, counts) -> {
+        for (int disease = 0, base = 0; disease < counts.length; disease++, base += words) {
+            int count = 0;
+            for (int w = 0; w < words; w++) {
+                count += Long.bitCount(ruleBits[base + w] & query[w]);
+            }
+            counts[disease] = count;
+        }
+    };
+
+    private RowScorers() {
+    }
+
+    /**
+     * The Vector API backend when it can be loaded, otherwise {@link #SCALAR}.
+     */
+    static RowScorer vector() {
+        try {
+            RowScorer scorer = (RowScorer) Class.forName(VECTOR_SCORER).getDeclaredConstructor().newInstance();
+            log.info("Using Vector API rule scoring ({})", scorer);
+            return scorer;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            log.warn("Vector API scoring unavailable ({}); falling back to scalar scoring. Build with -Pvector "
+                    + "and run with --add-modules jdk.incubator.vector to enable it.", e.toString());
+            return SCALAR;
+        }
+    }
+}
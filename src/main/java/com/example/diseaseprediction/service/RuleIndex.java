@@ -0,0 +1,138 @@
+package com.example.diseaseprediction.service;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Immutable, compiled form of the symptom rule set.
+ * Symptom names are interned into int ids and every disease rule is stored as a
+ * fixed-width row of {@code long} words, so scoring is a popcount over bit intersections.
+ * An inverted index (symptom id to ascending disease ids) is kept alongside for sparse scoring.
+ * The index lives either on the heap ({@link HeapRuleIndex}) or in a memory-mapped model file
+ * ({@link MappedRuleIndex}); scorers only use the accessors below.
+ */
+abstract class RuleIndex {
+
+    private volatile SpecificityWeights weights;
+
+    /**
+     * Compiles rules (disease name to rule symptoms, in priority order) into an index.
+     * Diseases with no rule symptoms can never match and are skipped.
+     */
+    static RuleIndex compile(long version, Map<String, List<String>> rules, Map<String, String> precautions) {
+        return HeapRuleIndex.compile(version, rules, precautions);
+    }
+
+    static String normalize(String symptom) {
+        return symptom.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Resolves submitted symptoms against the vocabulary. Unknown symptoms cannot match any rule and are dropped.
+     */
+    SymptomQuery query(List<String> symptoms) {
+        long[] bits = new long[words()];
+        int[] ids = new int[symptoms.size()];
+        int size = 0;
+        for (String symptom : symptoms) {
+            if (symptom == null) {
+                continue;
+            }
+            int id = lookup(normalize(symptom));
+            if (id >= 0 && (bits[id >>> 6] & (1L << id)) == 0) {
+                bits[id >>> 6] |= 1L << id;
+                ids[size++] = id;
+            }
+        }
+        return new SymptomQuery(bits, ids, size);
+    }
+
+    /**
+     * Inverse-frequency weights of this rule set, derived on first use and kept with the index.
+     */
+    SpecificityWeights weights() {
+        SpecificityWeights current = weights;
+        if (current == null) {
+            synchronized (this) {
+                current = weights;
+                if (current == null) {
+                    current = SpecificityWeights.of(this);
+                    weights = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    int symptomId(String symptom) {
+        return lookup(normalize(symptom));
+    }
+
+    /**
+     * Id of an already normalized symptom name, or -1 when it is not part of any rule.
+     */
+    abstract int lookup(String normalizedSymptom);
+
+    /**
+     * Number of query symptoms that appear in the rule of the given disease.
+     */
+    abstract int matches(int disease, long[] query);
+
+    /**
+     * Word {@code word} of the rule bitset of the given disease.
+     */
+    abstract long ruleWord(int disease, int word);
+
+    /**
+     * Writes the symptom ids of a disease's rule into {@code out}, ascending, and returns how many there are
+     * ({@link #ruleSize(int)}).
+     */
+    int ruleSymptoms(int disease, int[] out) {
+        int size = 0;
+        for (int w = 0; w < words(); w++) {
+            long bits = ruleWord(disease, w);
+            while (bits != 0) {
+                out[size++] = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * The rule matrix as contiguous {@code long[]} rows of {@link #words()} each, or null when the rules
+     * are not kept as a dense heap matrix.
+     */
+    long[] ruleBits() {
+        return null;
+    }
+
+    /**
+     * Postings of a symptom are the disease ids at positions [postingsStart, postingsEnd), ascending.
+     */
+    abstract int postingsStart(int symptomId);
+
+    abstract int postingsEnd(int symptomId);
+
+    abstract int posting(int position);
+
+    /**
+     * Rule-set version this index was compiled from.
+     */
+    abstract long version();
+
+    abstract int diseaseCount();
+
+    abstract int symptomCount();
+
+    abstract int words();
+
+    abstract String symptomName(int id);
+
+    abstract String diseaseName(int disease);
+
+    abstract String precautions(int disease);
+
+    abstract int ruleSize(int disease);
+}
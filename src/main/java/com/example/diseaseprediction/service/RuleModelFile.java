@@ -0,0 +1,290 @@
+package com.example.diseaseprediction.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary model format for a compiled {@link RuleIndex}, little-endian, every section 8-byte aligned:
+ * <pre>
+ * header         magic, format, rule-set version, disease/symptom/word/slot/posting counts, string bytes, layout,
+ *                origin (exported by the application or trained offline)
+ * ruleBits       long[diseases * words]   dense layout only
+ * ruleOffsets    int[diseases + 1]        sparse layout only
+ * ruleSymptoms   int[postings]            sparse layout only: each rule's symptom ids, ascending
+ * ruleSizes      int[diseases]
+ * postingOffsets int[symptoms + 1]
+ * postingIds     int[postings]
+ * hashSlots      int[slots]          symptom id + 1 per slot, 0 when empty (linear probing)
+ * symptomHashes  int[symptoms]       String.hashCode of each normalized symptom name
+ * stringOffsets  int[symptoms + 2 * diseases + 1]
+ * strings        UTF-8 symptom names, then disease names, then precautions (empty when absent)
+ * </pre>
+ * Rules are stored the way {@link HeapRuleIndex} keeps them: as bit rows while the matrix is small, otherwise
+ * as sorted symptom ids, so a wide vocabulary costs file space per rule symptom rather than per disease and
+ * symptom. Section offsets follow from the header counts, so opening a file only reads the header.
+ * A single mapping is limited to 2 GB. Format 1 files (dense only) are still read; files whose symptom hash
+ * table is over half full (formats 1 and 2 sized it by rounding down) are rejected and must be written again.
+ */
+final class RuleModelFile {
+
+    static final int MAGIC = 0x44504D31; // "DPM1"
+    static final int FORMAT = 3;
+    static final int HEADER_BYTES = 48;
+    static final int DENSE = 0;
+    static final int SPARSE = 1;
+    static final int EXPORTED = 0;
+    static final int TRAINED = 1;
+
+    final long version;
+    final int diseaseCount;
+    final int symptomCount;
+    final int words;
+    final int slots;
+    final int postingCount;
+    final int stringBytes;
+    final boolean sparse;
+    final boolean trained;
+
+    final int ruleBitsOffset;
+    final int ruleOffsetsOffset;
+    final int ruleSymptomsOffset;
+    final int ruleSizesOffset;
+    final int postingOffsetsOffset;
+    final int postingIdsOffset;
+    final int hashSlotsOffset;
+    final int symptomHashesOffset;
+    final int stringOffsetsOffset;
+    final int stringsOffset;
+    final int size;
+
+    private RuleModelFile(long version, int diseaseCount, int symptomCount, int words, int slots,
+                          int postingCount, int stringBytes, boolean sparse, boolean trained) {
+        this.version = version;
+        this.diseaseCount = diseaseCount;
+        this.symptomCount = symptomCount;
+        this.words = words;
+        this.slots = slots;
+        this.postingCount = postingCount;
+        this.stringBytes = stringBytes;
+        this.sparse = sparse;
+        this.trained = trained;
+
+        long offset = HEADER_BYTES;
+        ruleBitsOffset = checked(offset);
+        offset = align(offset + (sparse ? 0 : 8L * diseaseCount * words));
+        ruleOffsetsOffset = checked(offset);
+        offset = align(offset + (sparse ? 4L * (diseaseCount + 1) : 0));
+        ruleSymptomsOffset = checked(offset);
+        offset = align(offset + (sparse ? 4L * postingCount : 0));
+        ruleSizesOffset = checked(offset);
+        offset = align(offset + 4L * diseaseCount);
+        postingOffsetsOffset = checked(offset);
+        offset = align(offset + 4L * (symptomCount + 1));
+        postingIdsOffset = checked(offset);
+        offset = align(offset + 4L * postingCount);
+        hashSlotsOffset = checked(offset);
+        offset = align(offset + 4L * slots);
+        symptomHashesOffset = checked(offset);
+        offset = align(offset + 4L * symptomCount);
+        stringOffsetsOffset = checked(offset);
+        offset = align(offset + 4L * (symptomCount + 2L * diseaseCount + 1));
+        stringsOffset = checked(offset);
+        size = checked(offset + stringBytes);
+    }
+
+    /**
+     * Maps a model file read-only. Pages are loaded lazily by the OS and shared between every
+     * process that maps the same file.
+     *
+     * @throws IllegalArgumentException if the file is not a model file of a supported format
+     */
+    static MappedRuleIndex open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IllegalArgumentException("Not a rule model file: " + path);
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            int format = buffer.getInt(4);
+            if (buffer.getInt(0) != MAGIC || format < 1 || format > FORMAT) {
+                throw new IllegalArgumentException("Not a rule model file: " + path);
+            }
+            RuleModelFile layout = new RuleModelFile(buffer.getLong(8), buffer.getInt(16), buffer.getInt(20),
+                    buffer.getInt(24), buffer.getInt(28), buffer.getInt(32), buffer.getInt(36),
+                    format > 1 && buffer.getInt(40) == SPARSE, format > 2 && buffer.getInt(44) == TRAINED);
+            if (layout.size != channel.size()) {
+                throw new IllegalArgumentException("Truncated rule model file: " + path);
+            }
+            // Unknown symptoms would scan near-full probe clusters
+            if (2L * layout.symptomCount > layout.slots) {
+                throw new IllegalArgumentException("Rule model file " + path + " has a symptom hash table over "
+                        + "half full (format " + format + "); write it again");
+            }
+            return new MappedRuleIndex(layout, buffer);
+        }
+    }
+
+    /**
+     * Whether the model file at {@code path} was written by the offline trainer rather than exported by the
+     * application; only the header is read.
+     */
+    static boolean isTrained(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    return false;
+                }
+            }
+            return header.getInt(0) == MAGIC && header.getInt(4) > 2 && header.getInt(44) == TRAINED;
+        }
+    }
+
+    /**
+     * Exports an index to {@code path}. The file is written next to the target and moved into place,
+     * so processes that already mapped the previous file keep reading a consistent model.
+     */
+    static void write(RuleIndex index, Path path) throws IOException {
+        write(index, path, false);
+    }
+
+    /**
+     * Writes an index to {@code path}, marked as trained offline when {@code trained} is set.
+     */
+    static void write(RuleIndex index, Path path, boolean trained) throws IOException {
+        int diseaseCount = index.diseaseCount();
+        int symptomCount = index.symptomCount();
+        int words = index.words();
+        // Smallest power of two with a load factor of at most 0.5
+        int slots = Integer.highestOneBit(Math.max(1, symptomCount) * 2 - 1) << 1;
+
+        byte[][] strings = new byte[symptomCount + 2 * diseaseCount][];
+        long stringBytes = 0;
+        for (int i = 0; i < strings.length; i++) {
+            String value;
+            if (i < symptomCount) {
+                value = index.symptomName(i);
+            } else if (i < symptomCount + diseaseCount) {
+                value = index.diseaseName(i - symptomCount);
+            } else {
+                value = index.precautions(i - symptomCount - diseaseCount);
+            }
+            strings[i] = value != null ? value.getBytes(StandardCharsets.UTF_8) : new byte[0];
+            stringBytes += strings[i].length;
+        }
+        int postingCount = symptomCount == 0 ? 0 : index.postingsEnd(symptomCount - 1);
+        RuleModelFile layout = new RuleModelFile(index.version(), diseaseCount, symptomCount, words, slots,
+                postingCount, checked(stringBytes), !HeapRuleIndex.keepsDense(diseaseCount, words, postingCount),
+                trained);
+
+        Path target = path.toAbsolutePath();
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, layout.size);
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+                layout.writeHeader(buffer);
+                layout.writeBody(buffer, index, strings);
+                buffer.force();
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Hash slot a symptom name probes first.
+     */
+    int slot(int hash) {
+        return (hash ^ (hash >>> 16)) & (slots - 1);
+    }
+
+    private void writeHeader(MappedByteBuffer buffer) {
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, FORMAT);
+        buffer.putLong(8, version);
+        buffer.putInt(16, diseaseCount);
+        buffer.putInt(20, symptomCount);
+        buffer.putInt(24, words);
+        buffer.putInt(28, slots);
+        buffer.putInt(32, postingCount);
+        buffer.putInt(36, stringBytes);
+        buffer.putInt(40, sparse ? SPARSE : DENSE);
+        buffer.putInt(44, trained ? TRAINED : EXPORTED);
+    }
+
+    private void writeBody(MappedByteBuffer buffer, RuleIndex index, byte[][] strings) {
+        int longestRule = 0;
+        for (int disease = 0; disease < diseaseCount; disease++) {
+            longestRule = Math.max(longestRule, index.ruleSize(disease));
+        }
+        // Rows are written from their symptom ids, O(rule size) each; a fresh mapping is zero-filled
+        int[] rule = new int[longestRule];
+        int ruleSymptomCount = 0;
+        for (int disease = 0; disease < diseaseCount; disease++) {
+            int size = index.ruleSymptoms(disease, rule);
+            if (sparse) {
+                buffer.putInt(ruleOffsetsOffset + (disease << 2), ruleSymptomCount);
+                for (int i = 0; i < size; i++) {
+                    buffer.putInt(ruleSymptomsOffset + (ruleSymptomCount++ << 2), rule[i]);
+                }
+            } else {
+                int base = ruleBitsOffset + ((disease * words) << 3);
+                for (int i = 0; i < size; i++) {
+                    int position = base + ((rule[i] >>> 6) << 3);
+                    buffer.putLong(position, buffer.getLong(position) | 1L << rule[i]);
+                }
+            }
+            buffer.putInt(ruleSizesOffset + (disease << 2), size);
+        }
+        if (sparse) {
+            buffer.putInt(ruleOffsetsOffset + (diseaseCount << 2), ruleSymptomCount);
+        }
+        for (int id = 0; id < symptomCount; id++) {
+            buffer.putInt(postingOffsetsOffset + (id << 2), index.postingsStart(id));
+        }
+        buffer.putInt(postingOffsetsOffset + (symptomCount << 2), postingCount);
+        for (int p = 0; p < postingCount; p++) {
+            buffer.putInt(postingIdsOffset + (p << 2), index.posting(p));
+        }
+
+        for (int id = 0; id < symptomCount; id++) {
+            int hash = index.symptomName(id).hashCode();
+            buffer.putInt(symptomHashesOffset + (id << 2), hash);
+            int slot = slot(hash);
+            while (buffer.getInt(hashSlotsOffset + (slot << 2)) != 0) {
+                slot = (slot + 1) & (slots - 1);
+            }
+            buffer.putInt(hashSlotsOffset + (slot << 2), id + 1);
+        }
+
+        int position = 0;
+        for (int i = 0; i < strings.length; i++) {
+            buffer.putInt(stringOffsetsOffset + (i << 2), position);
+            buffer.put(stringsOffset + position, strings[i]);
+            position += strings[i].length;
+        }
+        buffer.putInt(stringOffsetsOffset + (strings.length << 2), position);
+    }
+
+    private static long align(long offset) {
+        return (offset + 7) & ~7L;
+    }
+
+    private static int checked(long offset) {
+        if (offset > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Rule model exceeds the 2 GB limit of a single mapping");
+        }
+        return (int) offset;
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.diseaseprediction.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.asm.ClassTooLargeException;
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.MethodTooLargeException;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+
+import java.lang.invoke.MethodHandles;
+import java.util.Arrays;
+
+/**
+ * Generates a {@link RowScorer} with one rule set baked into its bytecode, for
+ * {@link DecisionTreeEngine.ScoringMode#COMPILED}. Each rule becomes a straight-line sum over the query
+ * words it touches: a shift-and-mask for a word holding one rule symptom, otherwise a popcount of the
+ * word ANDed with the rule's mask as a constant. There are no loops, row offsets or rule-matrix loads
+ * left for the JIT to see through. The rules are split over static methods small enough to stay under
+ * HotSpot's huge-method limit, so every one of them is JIT-compiled.
+ * The class is defined as a hidden class, one per rule-set version, and is unloaded with its scorer.
+ */
+final class RuleScorerCompiler {
+
+    private static final Logger log = LoggerFactory.getLogger(RuleScorerCompiler.class);
+
+    // Rule sets with more (disease, word) terms are left to the interpreted scan
+    static final int MAX_TERMS = 200_000;
+    // Bytecode per generated method, below HotSpot's 8000-byte HugeMethodLimit
+    private static final int METHOD_BUDGET = 7_000;
+    // Upper bounds of the bytecode emitted per term and per rule
+    private static final int TERM_BYTES = 16;
+    private static final int RULE_BYTES = 12;
+
+    private static final String CLASS_NAME = "com/example/diseaseprediction/service/CompiledRowScorer";
+    private static final String CHUNK_DESCRIPTOR = "([J[I)V";
+
+    private RuleScorerCompiler() {
+    }
+
+    /**
+     * @return a scorer for {@code index}, or null if the rule set is too large to compile
+     */
+    static RowScorer compile(RuleIndex index) {
+        long started = System.nanoTime();
+        long[][] masks = masks(index);
+        long terms = 0;
+        for (long[] rule : masks) {
+            terms += rule.length / 2;
+        }
+        if (terms > MAX_TERMS) {
+            log.warn("Rule set {} has {} rule terms, more than the {} that are compiled; using the interpreted scan",
+                    index.version(), terms, MAX_TERMS);
+            return null;
+        }
+        try {
+            byte[] bytecode = generate(masks);
+            Class<?> type = MethodHandles.lookup().defineHiddenClass(bytecode, true).lookupClass();
+            RowScorer scorer = (RowScorer) type.getDeclaredConstructor().newInstance();
+            log.info("Compiled rule set {} ({} diseases, {} terms) into {} bytes of bytecode in {} ms",
+                    index.version(), masks.length, terms, bytecode.length, (System.nanoTime() - started) / 1_000_000);
+            return scorer;
+        } catch (ClassTooLargeException | MethodTooLargeException e) {
+            log.warn("Rule set {} does not fit in a class file ({}); using the interpreted scan",
+                    index.version(), e.getMessage());
+            return null;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not define the compiled rule scorer", e);
+        }
+    }
+
+    /**
+     * Per disease, the non-zero words of its rule as (word, mask) pairs.
+     */
+    private static long[][] masks(RuleIndex index) {
+        long[][] masks = new long[index.diseaseCount()][];
+        int[] ids = new int[64];
+        for (int disease = 0; disease < masks.length; disease++) {
+            if (ids.length < index.ruleSize(disease)) {
+                ids = new int[index.ruleSize(disease)];
+            }
+            int size = index.ruleSymptoms(disease, ids);
+            long[] pairs = new long[2 * size];
+            int count = 0;
+            for (int i = 0; i < size; i++) {
+                int word = ids[i] >>> 6;
+                if (count == 0 || pairs[count - 2] != word) {
+                    pairs[count] = word;
+                    count += 2;
+                }
+                pairs[count - 1] |= 1L << ids[i];
+            }
+            masks[disease] = Arrays.copyOf(pairs, count);
+        }
+        return masks;
+    }
+
+    private static byte[] generate(long[][] masks) {
+        ClassWriter writer = new ClassWriter(ClassWriter.COMPUTE_MAXS);
+        writer.visit(Opcodes.V17, Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, CLASS_NAME, null, "java/lang/Object",
+                new String[]{Type.getInternalName(RowScorer.class)});
+
+        MethodVisitor init = writer.visitMethod(Opcodes.ACC_PUBLIC, "<init>", "()V", null, null);
+        init.visitCode();
+        init.visitVarInsn(Opcodes.ALOAD, 0);
+        init.visitMethodInsn(Opcodes.INVOKESPECIAL, "java/lang/Object", "<init>", "()V", false);
+        init.visitInsn(Opcodes.RETURN);
+        init.visitMaxs(0, 0);
+        init.visitEnd();
+
+        // matchAll(ruleBits, words, query, counts) ignores the matrix and calls each chunk with (query, counts)
+        MethodVisitor matchAll = writer.visitMethod(Opcodes.ACC_PUBLIC, "matchAll", "([JI[J[I)V", null, null);
+        matchAll.visitCode();
+        int disease = 0;
+        int chunk = 0;
+        while (disease < masks.length) {
+            String name = "rules" + chunk++;
+            MethodVisitor method = writer.visitMethod(Opcodes.ACC_PRIVATE | Opcodes.ACC_STATIC, name,
+                    CHUNK_DESCRIPTOR, null, null);
+            method.visitCode();
+            int bytes = 0;
+            do {
+                emitRule(method, disease, masks[disease]);
+                bytes += ruleBytes(masks[disease]);
+                disease++;
+            } while (disease < masks.length && bytes + ruleBytes(masks[disease]) <= METHOD_BUDGET);
+            method.visitInsn(Opcodes.RETURN);
+            method.visitMaxs(0, 0);
+            method.visitEnd();
+
+            matchAll.visitVarInsn(Opcodes.ALOAD, 3);
+            matchAll.visitVarInsn(Opcodes.ALOAD, 4);
+            matchAll.visitMethodInsn(Opcodes.INVOKESTATIC, CLASS_NAME, name, CHUNK_DESCRIPTOR, false);
+        }
+        matchAll.visitInsn(Opcodes.RETURN);
+        matchAll.visitMaxs(0, 0);
+        matchAll.visitEnd();
+
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    /**
+     * counts[disease] = sum over the rule's words of bitCount(query[word] & mask); locals are (query, counts).
+     */
+    private static void emitRule(MethodVisitor method, int disease, long[] pairs) {
+        method.visitVarInsn(Opcodes.ALOAD, 1);
+        pushInt(method, disease);
+        if (pairs.length == 0) {
+            method.visitInsn(Opcodes.ICONST_0);
+        }
+        for (int i = 0; i < pairs.length; i += 2) {
+            long mask = pairs[i + 1];
+            method.visitVarInsn(Opcodes.ALOAD, 0);
+            pushInt(method, (int) pairs[i]);
+            method.visitInsn(Opcodes.LALOAD);
+            if (Long.bitCount(mask) == 1) {
+                // (int) (query[word] >>> bit) & 1
+                pushInt(method, Long.numberOfTrailingZeros(mask));
+                method.visitInsn(Opcodes.LUSHR);
+                method.visitInsn(Opcodes.L2I);
+                method.visitInsn(Opcodes.ICONST_1);
+                method.visitInsn(Opcodes.IAND);
+            } else {
+                method.visitLdcInsn(mask);
+                method.visitInsn(Opcodes.LAND);
+                method.visitMethodInsn(Opcodes.INVOKESTATIC, "java/lang/Long", "bitCount", "(J)I", false);
+            }
+            if (i > 0) {
+                method.visitInsn(Opcodes.IADD);
+            }
+        }
+        method.visitInsn(Opcodes.IASTORE);
+    }
+
+    private static int ruleBytes(long[] pairs) {
+        return RULE_BYTES + TERM_BYTES * pairs.length / 2;
+    }
+
+    private static void pushInt(MethodVisitor method, int value) {
+        if (value <= 5) {
+            method.visitInsn(Opcodes.ICONST_0 + value);
+        } else if (value <= Byte.MAX_VALUE) {
+            method.visitIntInsn(Opcodes.BIPUSH, value);
+        } else if (value <= Short.MAX_VALUE) {
+            method.visitIntInsn(Opcodes.SIPUSH, value);
+        } else {
+            method.visitLdcInsn(value);
+        }
+    }
+}
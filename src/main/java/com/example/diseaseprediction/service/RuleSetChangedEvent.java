@@ -0,0 +1,7 @@
+package com.example.diseaseprediction.service;
+
+/**
+ * Published when diseases or their rule symptoms change, so the engine can recompile its rules.
+ */
+public class RuleSetChangedEvent {
+}
@@ -0,0 +1,171 @@
+package com.example.diseaseprediction.service;
+
+import com.example.diseaseprediction.model.Disease;
+import com.example.diseaseprediction.repository.DiseaseRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Loads the scoring rules from the database into {@link DecisionTreeEngine} at startup and
+ * again whenever a {@link RuleSetChangedEvent} is committed.
+ * When {@code app.engine.model-file} is set, startup maps that file instead of reading the database,
+ * and every reload rewrites it so the next start (or another replica on the host) picks up the latest rules.
+ * A file written by {@link RuleSetTrainer} is imported into the disease tables first (rules of diseases it
+ * names are replaced, new diseases added, the others kept), since the next reload rebuilds the rules from
+ * the database; a trained file that could not be imported is never overwritten.
+ */
+@Component
+public class RuleSetLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(RuleSetLoader.class);
+
+    private final DiseaseRepository diseaseRepository;
+    private final DecisionTreeEngine decisionTreeEngine;
+    private final TransactionTemplate readTransaction;
+    private final TransactionTemplate writeTransaction;
+    private final Path modelFile;
+    // Serializes reloads only; predictions never take this lock
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    public RuleSetLoader(DiseaseRepository diseaseRepository,
+                         DecisionTreeEngine decisionTreeEngine,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${app.engine.model-file:}") String modelFile) {
+        this.diseaseRepository = diseaseRepository;
+        this.decisionTreeEngine = decisionTreeEngine;
+        this.readTransaction = new TransactionTemplate(transactionManager);
+        this.readTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTransaction.setReadOnly(true);
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.modelFile = modelFile.isBlank() ? null : Path.of(modelFile);
+    }
+
+    // Before the other startup listeners, which read the rule set
+    @EventListener(ApplicationReadyEvent.class)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void loadOnStartup() {
+        if (modelFile != null && Files.isRegularFile(modelFile)) {
+            try {
+                if (RuleModelFile.isTrained(modelFile)) {
+                    importTrained();
+                    reload(true);
+                    return;
+                }
+                long version = decisionTreeEngine.open(modelFile);
+                log.info("Mapped rule model {} (rule set version {})", modelFile, version);
+                return;
+            } catch (IOException | IllegalArgumentException e) {
+                log.warn("Could not map rule model {}, loading rules from the database: {}", modelFile, e.getMessage());
+            }
+        }
+        reload();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRuleSetChanged(RuleSetChangedEvent event) {
+        reload();
+    }
+
+    /**
+     * Recompiles the rules from the database and swaps them into the engine.
+     *
+     * @return the rule-set version now in use
+     */
+    public long reload() {
+        return reload(false);
+    }
+
+    private long reload(boolean replaceTrained) {
+        reloadLock.lock();
+        try {
+            Map<String, List<String>> rules = new LinkedHashMap<>();
+            Map<String, String> precautions = new HashMap<>();
+            readTransaction.executeWithoutResult(status -> {
+                for (Disease disease : diseaseRepository.findAllWithRuleSymptoms()) {
+                    if (!disease.getRuleSymptoms().isEmpty()) {
+                        rules.put(disease.getDiseaseName(), List.copyOf(disease.getRuleSymptoms()));
+                        precautions.put(disease.getDiseaseName(), disease.getPrecautions());
+                    }
+                }
+            });
+
+            // An empty rule set is published too: predictions then answer "Unknown" instead of deleted diseases
+            if (rules.isEmpty()) {
+                log.warn("No disease rules found in the database; predictions will not match any disease");
+            }
+            long version = decisionTreeEngine.reload(rules, precautions);
+            log.info("Loaded {} disease rules (rule set version {})", rules.size(), version);
+            if (modelFile != null) {
+                export(replaceTrained);
+            }
+            return version;
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    /**
+     * Writes each rule of the trained model file to the disease of that name, creating missing diseases
+     * with the file's precautions, in one transaction.
+     */
+    private void importTrained() throws IOException {
+        RuleIndex trained = RuleModelFile.open(modelFile);
+        int[] rule = new int[trained.symptomCount()];
+        writeTransaction.executeWithoutResult(status -> {
+            Map<String, Disease> diseases = new HashMap<>();
+            for (Disease disease : diseaseRepository.findAllWithRuleSymptoms()) {
+                diseases.put(disease.getDiseaseName(), disease);
+            }
+            List<Disease> changed = new ArrayList<>();
+            for (int d = 0; d < trained.diseaseCount(); d++) {
+                String name = trained.diseaseName(d);
+                String precautions = trained.precautions(d);
+                Disease disease = diseases.computeIfAbsent(name, key -> new Disease(key, null, precautions));
+                List<String> symptoms = new ArrayList<>();
+                for (int i = 0, size = trained.ruleSymptoms(d, rule); i < size; i++) {
+                    symptoms.add(trained.symptomName(rule[i]));
+                }
+                disease.getRuleSymptoms().clear();
+                disease.getRuleSymptoms().addAll(symptoms);
+                changed.add(disease);
+            }
+            diseaseRepository.saveAll(changed);
+        });
+        log.info("Imported {} trained disease rules from {} (rule set version {})", trained.diseaseCount(),
+                modelFile, trained.version());
+    }
+
+    private void export(boolean replaceTrained) {
+        try {
+            if (!replaceTrained && Files.isRegularFile(modelFile) && RuleModelFile.isTrained(modelFile)) {
+                log.warn("Not overwriting trained rule model {}: it has not been imported into the database",
+                        modelFile);
+                return;
+            }
+            decisionTreeEngine.export(modelFile);
+        } catch (IOException e) {
+            log.warn("Could not write rule model {}: {}", modelFile, e.getMessage());
+        }
+    }
+}
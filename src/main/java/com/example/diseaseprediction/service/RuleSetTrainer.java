@@ -0,0 +1,560 @@
+package com.example.diseaseprediction.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Offline training of engine rules from symptom/diagnosis histories too large to load, in the
+ * {@link SymptomDataset} CSV format ({@code disease,symptom,symptom,...}, optional {@code disease,...} header).
+ * The file is split into chunks that workers map with {@link FileChannel#map} and parse as bytes: a cell only
+ * becomes a {@code String} the first time a worker sees that name. Each worker counts rows per disease and
+ * (disease, symptom) pairs for the chunks it takes, and the counts are merged by name at the end, so heap use
+ * follows the number of distinct names and pairs, never the size of the file.
+ * <p>
+ * A disease's rule is its symptoms reported in at least {@code minSupport} of its rows, most frequent first,
+ * at most {@code maxSymptoms}; diseases are ordered by row count, so ties go to the more common disease.
+ * The result is written as a {@link RuleModelFile} marked as trained. Pointed to by {@code app.engine.model-file},
+ * it is imported into the disease tables at the next startup ({@link RuleSetLoader}), so later rule changes
+ * made through the admin API build on it instead of replacing it:
+ * <pre>
+ * ./mvnw -Ptrain compile exec:exec -Dtrain.args="history.csv rules.bin --min-support=0.4"
+ * </pre>
+ */
+public final class RuleSetTrainer {
+
+    private static final Logger log = LoggerFactory.getLogger(RuleSetTrainer.class);
+
+    static final int DEFAULT_CHUNK_BYTES = 64 << 20;
+    // A row may run this far past the end of its chunk
+    static final int MAX_ROW_BYTES = 1 << 20;
+
+    private final double minSupport;
+    private final int maxSymptoms;
+    private final int threads;
+    private final int chunkBytes;
+
+    RuleSetTrainer(double minSupport, int maxSymptoms, int threads, int chunkBytes) {
+        if (minSupport <= 0 || minSupport > 1 || maxSymptoms < 1 || threads < 1 || chunkBytes < 1) {
+            throw new IllegalArgumentException("min-support must be in (0, 1], max-symptoms and threads at least 1");
+        }
+        this.minSupport = minSupport;
+        this.maxSymptoms = maxSymptoms;
+        this.threads = threads;
+        this.chunkBytes = chunkBytes;
+    }
+
+    /**
+     * {@code RuleSetTrainer <input.csv> <output.bin> [--min-support=0.5] [--max-symptoms=12] [--threads=N]
+     * [--version=1]}
+     */
+    public static void main(String[] args) throws IOException {
+        List<String> paths = new ArrayList<>();
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            } else {
+                paths.add(arg);
+            }
+        }
+        if (paths.size() != 2) {
+            System.err.println("Usage: RuleSetTrainer <input.csv> <output.bin> [--min-support=0.5] "
+                    + "[--max-symptoms=12] [--threads=N] [--version=1]");
+            System.exit(2);
+        }
+        RuleSetTrainer trainer = new RuleSetTrainer(
+                Double.parseDouble(options.getOrDefault("min-support", "0.5")),
+                Integer.parseInt(options.getOrDefault("max-symptoms", "12")),
+                Integer.parseInt(options.getOrDefault("threads",
+                        String.valueOf(Runtime.getRuntime().availableProcessors()))),
+                DEFAULT_CHUNK_BYTES);
+        Result result = trainer.train(Path.of(paths.get(0)));
+        result.write(Path.of(paths.get(1)), Long.parseLong(options.getOrDefault("version", "1")));
+        System.out.printf("%d rows (%.1f MB) in %.1f s, %.0f rows/s; %d disease rules over %d symptoms written to %s%n",
+                result.rows, result.bytes / 1e6, result.nanos / 1e9, result.rowsPerSecond(), result.rules.size(),
+                result.symptomCount, paths.get(1));
+    }
+
+    /**
+     * Aggregates the whole file and derives the rules.
+     *
+     * @throws IllegalArgumentException if a row has no disease label or is longer than {@link #MAX_ROW_BYTES}
+     */
+    Result train(Path csv) throws IOException {
+        long started = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(csv, StandardOpenOption.READ)) {
+            long size = channel.size();
+            int chunks = (int) Math.max(1, (size + chunkBytes - 1) / chunkBytes);
+            AtomicInteger nextChunk = new AtomicInteger();
+            ExecutorService pool = Executors.newFixedThreadPool(Math.min(threads, chunks));
+            List<Future<Counts>> workers = new ArrayList<>();
+            try {
+                for (int i = 0; i < Math.min(threads, chunks); i++) {
+                    workers.add(pool.submit(() -> {
+                        Counts counts = new Counts();
+                        for (int chunk; (chunk = nextChunk.getAndIncrement()) < chunks; ) {
+                            parseChunk(channel, size, (long) chunk * chunkBytes, counts);
+                        }
+                        return counts;
+                    }));
+                }
+                Merged merged = new Merged();
+                for (Future<Counts> worker : workers) {
+                    merged.add(worker.get());
+                }
+                Result result = new Result(merged.rules(minSupport, maxSymptoms), merged.rows, merged.symptomNames.size(),
+                        size, System.nanoTime() - started);
+                log.info("Trained {} disease rules from {} rows of {} in {} ms ({} rows/s)", result.rules.size(),
+                        result.rows, csv, result.nanos / 1_000_000, Math.round(result.rowsPerSecond()));
+                return result;
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IllegalArgumentException cause) {
+                    throw cause;
+                }
+                if (e.getCause() instanceof UncheckedIOException cause) {
+                    throw cause.getCause();
+                }
+                throw new IllegalStateException("Training failed", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Training interrupted", e);
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Parses the rows that start in [start, start + chunkBytes). The mapping begins one byte early to see
+     * whether a row starts exactly at {@code start}, and runs up to {@link #MAX_ROW_BYTES} past the end so the
+     * last row can be finished. Rows are parsed from the worker's window, refilled from the mapping with one
+     * bulk copy per {@link #MAX_ROW_BYTES} rather than a bounds-checked read per byte.
+     */
+    private void parseChunk(FileChannel channel, long size, long start, Counts counts) {
+        long end = Math.min(size, start + chunkBytes);
+        long mapStart = Math.max(0, start - 1);
+        long mapEnd = Math.min(size, end + MAX_ROW_BYTES);
+        MappedByteBuffer buffer;
+        try {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, mapStart, mapEnd - mapStart);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] window = counts.window;
+        int limit = buffer.limit();
+        int lastStart = (int) (end - mapStart);
+        // The window holds the mapping's bytes [base, base + filled)
+        int base = 0;
+        int filled = 0;
+        int from = 0;
+        // The first row of a later chunk belongs to the chunk before, unless it starts right after the newline
+        boolean skip = start > 0;
+        while (from < lastStart) {
+            int newline = indexOfNewline(window, from - base, filled);
+            if (newline < 0 && base + filled < limit) {
+                base = from;
+                filled = Math.min(window.length, limit - base);
+                buffer.get(base, window, 0, filled);
+                newline = indexOfNewline(window, 0, filled);
+            }
+            if (newline < 0) {
+                if (base + filled < limit || mapEnd < size) {
+                    throw new IllegalArgumentException("Row at byte " + (mapStart + from) + " is longer than "
+                            + MAX_ROW_BYTES + " bytes");
+                }
+                newline = filled;
+            }
+            if (!skip) {
+                parseRow(window, from - base, newline, mapStart + from == 0, mapStart + from, counts);
+            }
+            skip = false;
+            from = base + newline + 1;
+        }
+    }
+
+    private static int indexOfNewline(byte[] bytes, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static void parseRow(byte[] bytes, int from, int to, boolean firstRow, long offset,
+                                 Counts counts) {
+        int label = -1;
+        int cellStart = from;
+        for (int i = from; i <= to; i++) {
+            if (i < to && bytes[i] != ',') {
+                continue;
+            }
+            int start = cellStart;
+            int end = i;
+            cellStart = i + 1;
+            while (start < end && isBlank(bytes[start])) {
+                start++;
+            }
+            while (end > start && isBlank(bytes[end - 1])) {
+                end--;
+            }
+            if (label < 0) {
+                if (start == end) {
+                    if (i == to) {
+                        return;
+                    }
+                    throw new IllegalArgumentException("Missing disease label in the row at byte " + offset);
+                }
+                if (firstRow && isHeader(bytes, start, end)) {
+                    return;
+                }
+                label = counts.row(bytes, start, end);
+            } else if (start < end) {
+                counts.symptom(label, bytes, start, end);
+            }
+        }
+    }
+
+    private static boolean isHeader(byte[] bytes, int start, int end) {
+        byte[] header = {'d', 'i', 's', 'e', 'a', 's', 'e'};
+        if (end - start != header.length) {
+            return false;
+        }
+        for (int i = 0; i < header.length; i++) {
+            if (lower(bytes[start + i]) != header[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+
+    private static byte lower(byte b) {
+        return b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+    }
+
+    /**
+     * Derived rules (disease to symptoms, most frequent first) with the statistics of the run.
+     */
+    static final class Result {
+        final Map<String, List<String>> rules;
+        final long rows;
+        final int symptomCount;
+        final long bytes;
+        final long nanos;
+
+        Result(Map<String, List<String>> rules, long rows, int symptomCount, long bytes, long nanos) {
+            this.rules = rules;
+            this.rows = rows;
+            this.symptomCount = symptomCount;
+            this.bytes = bytes;
+            this.nanos = nanos;
+        }
+
+        double rowsPerSecond() {
+            return rows / Math.max(1e-9, nanos / 1e9);
+        }
+
+        /**
+         * Compiles the rules and writes them as a trained model file; diseases get the general precautions.
+         */
+        void write(Path modelFile, long version) throws IOException {
+            RuleModelFile.write(RuleIndex.compile(version, rules, Map.of()), modelFile, true);
+        }
+    }
+
+    /**
+     * One worker's counts over the chunks it parsed, keyed by worker-local name ids.
+     */
+    private static final class Counts {
+        final ByteDictionary labels = new ByteDictionary(false);
+        final ByteDictionary symptoms = new ByteDictionary(true);
+        final PairCounts pairs = new PairCounts();
+        long[] labelRows = new long[64];
+        // Row number in which each symptom id was last counted, to count a repeated cell once per row
+        long[] lastRow = new long[64];
+        long rows;
+        final byte[] window = new byte[MAX_ROW_BYTES];
+
+        int row(byte[] bytes, int start, int end) {
+            int label = labels.id(bytes, start, end);
+            if (label == labelRows.length) {
+                labelRows = Arrays.copyOf(labelRows, label * 2);
+            }
+            labelRows[label]++;
+            rows++;
+            return label;
+        }
+
+        void symptom(int label, byte[] bytes, int start, int end) {
+            int symptom = symptoms.id(bytes, start, end);
+            if (symptom == lastRow.length) {
+                lastRow = Arrays.copyOf(lastRow, symptom * 2);
+            }
+            if (lastRow[symptom] != rows) {
+                lastRow[symptom] = rows;
+                pairs.increment(((long) label << 32) | symptom, 1);
+            }
+        }
+    }
+
+    /**
+     * Worker counts merged by normalized name.
+     */
+    private static final class Merged {
+        final Map<String, Integer> labelIds = new HashMap<>();
+        final Map<String, Integer> symptomIds = new HashMap<>();
+        final List<String> labelNames = new ArrayList<>();
+        final List<String> symptomNames = new ArrayList<>();
+        final PairCounts pairs = new PairCounts();
+        long[] labelRows = new long[64];
+        long rows;
+
+        void add(Counts counts) {
+            int[] labelMap = new int[counts.labels.size()];
+            for (int id = 0; id < labelMap.length; id++) {
+                String name = counts.labels.name(id);
+                labelMap[id] = labelIds.computeIfAbsent(name, key -> {
+                    labelNames.add(key);
+                    return labelNames.size() - 1;
+                });
+                if (labelMap[id] >= labelRows.length) {
+                    labelRows = Arrays.copyOf(labelRows, labelRows.length * 2);
+                }
+                labelRows[labelMap[id]] += counts.labelRows[id];
+            }
+            int[] symptomMap = new int[counts.symptoms.size()];
+            for (int id = 0; id < symptomMap.length; id++) {
+                symptomMap[id] = symptomIds.computeIfAbsent(RuleIndex.normalize(counts.symptoms.name(id)), key -> {
+                    symptomNames.add(key);
+                    return symptomNames.size() - 1;
+                });
+            }
+            counts.pairs.forEach((key, count) -> pairs.increment(
+                    ((long) labelMap[(int) (key >>> 32)] << 32) | symptomMap[(int) key], count));
+            rows += counts.rows;
+        }
+
+        Map<String, List<String>> rules(double minSupport, int maxSymptoms) {
+            List<List<long[]>> byLabel = new ArrayList<>();
+            for (int i = 0; i < labelNames.size(); i++) {
+                byLabel.add(new ArrayList<>());
+            }
+            pairs.forEach((key, count) -> {
+                int label = (int) (key >>> 32);
+                if (count >= minSupport * labelRows[label]) {
+                    byLabel.get(label).add(new long[]{(int) key, count});
+                }
+            });
+            Integer[] order = new Integer[labelNames.size()];
+            Arrays.setAll(order, i -> i);
+            Arrays.sort(order, Comparator.<Integer>comparingLong(i -> -labelRows[i]).thenComparing(labelNames::get));
+
+            Map<String, List<String>> rules = new LinkedHashMap<>();
+            int skipped = 0;
+            for (int label : order) {
+                List<long[]> symptoms = byLabel.get(label);
+                if (symptoms.isEmpty()) {
+                    skipped++;
+                    continue;
+                }
+                symptoms.sort(Comparator.<long[]>comparingLong(pair -> -pair[1])
+                        .thenComparing(pair -> symptomNames.get((int) pair[0])));
+                rules.put(labelNames.get(label), symptoms.stream().limit(maxSymptoms)
+                        .map(pair -> symptomNames.get((int) pair[0])).toList());
+            }
+            if (skipped > 0) {
+                log.warn("{} diseases have no symptom reported in {}% of their rows and get no rule",
+                        skipped, Math.round(minSupport * 100));
+            }
+            return rules;
+        }
+    }
+
+    /**
+     * Open-addressing table from the bytes of a cell to a dense id, optionally ASCII case-folded. Names are
+     * kept as bytes in one arena and only decoded when the counts are merged.
+     */
+    private static final class ByteDictionary {
+        private final boolean foldCase;
+        private int[] slots = new int[256];
+        private int[] hashes = new int[128];
+        private int[] offsets = new int[129];
+        private byte[] arena = new byte[4096];
+        private int size;
+
+        ByteDictionary(boolean foldCase) {
+            this.foldCase = foldCase;
+        }
+
+        int id(byte[] bytes, int start, int end) {
+            int hash = 1;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + fold(bytes[i]);
+            }
+            int mask = slots.length - 1;
+            for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+                int id = slots[slot] - 1;
+                if (id < 0) {
+                    return insert(slot, hash, bytes, start, end);
+                }
+                if (hashes[id] == hash && equals(id, bytes, start, end)) {
+                    return id;
+                }
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        String name(int id) {
+            return new String(arena, offsets[id], offsets[id + 1] - offsets[id], StandardCharsets.UTF_8);
+        }
+
+        private boolean equals(int id, byte[] bytes, int start, int end) {
+            int offset = offsets[id];
+            if (offsets[id + 1] - offset != end - start) {
+                return false;
+            }
+            for (int i = start; i < end; i++) {
+                if (arena[offset++] != fold(bytes[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private int insert(int slot, int hash, byte[] bytes, int start, int end) {
+            int id = size++;
+            if (size == hashes.length) {
+                hashes = Arrays.copyOf(hashes, size * 2);
+                offsets = Arrays.copyOf(offsets, size * 2 + 1);
+            }
+            int offset = offsets[id];
+            if (offset + end - start > arena.length) {
+                arena = Arrays.copyOf(arena, Math.max(arena.length * 2, offset + end - start));
+            }
+            for (int i = start; i < end; i++) {
+                arena[offset++] = fold(bytes[i]);
+            }
+            offsets[id + 1] = offset;
+            hashes[id] = hash;
+            slots[slot] = id + 1;
+            if (size * 2 > slots.length) {
+                rehash();
+            }
+            return id;
+        }
+
+        private byte fold(byte b) {
+            return foldCase ? lower(b) : b;
+        }
+
+        private void rehash() {
+            slots = new int[slots.length * 2];
+            int mask = slots.length - 1;
+            for (int id = 0; id < size; id++) {
+                int slot = mix(hashes[id]) & mask;
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                slots[slot] = id + 1;
+            }
+        }
+    }
+
+    /**
+     * Open-addressing map from a (disease id, symptom id) pair packed into a long to its row count.
+     */
+    private static final class PairCounts {
+        private long[] keys = filled(1024);
+        private long[] counts = new long[1024];
+        private int size;
+
+        void increment(long key, long count) {
+            int mask = keys.length - 1;
+            int slot = hash(key) & mask;
+            while (keys[slot] != -1 && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            counts[slot] += count;
+            if (keys[slot] == -1) {
+                keys[slot] = key;
+                if (++size * 2 > keys.length) {
+                    grow();
+                }
+            }
+        }
+
+        void forEach(PairConsumer consumer) {
+            for (int slot = 0; slot < keys.length; slot++) {
+                if (keys[slot] != -1) {
+                    consumer.accept(keys[slot], counts[slot]);
+                }
+            }
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            long[] oldCounts = counts;
+            keys = filled(oldKeys.length * 2);
+            counts = new long[oldKeys.length * 2];
+            int mask = keys.length - 1;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] != -1) {
+                    int slot = hash(oldKeys[i]) & mask;
+                    while (keys[slot] != -1) {
+                        slot = (slot + 1) & mask;
+                    }
+                    keys[slot] = oldKeys[i];
+                    counts[slot] = oldCounts[i];
+                }
+            }
+        }
+
+        // Long.hashCode of a packed pair is label ^ symptom, a few thousand values for millions of pairs;
+        // the multiply spreads all 64 bits into the high half
+        private static int hash(long key) {
+            return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32);
+        }
+
+        private static long[] filled(int length) {
+            long[] keys = new long[length];
+            Arrays.fill(keys, -1);
+            return keys;
+        }
+    }
+
+    @FunctionalInterface
+    private interface PairConsumer {
+        void accept(long key, long count);
+    }
+
+    private static int mix(int hash) {
+        return (hash ^ (hash >>> 16)) * 0x85EBCA6B;
+    }
+}
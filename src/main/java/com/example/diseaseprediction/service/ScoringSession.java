@@ -0,0 +1,191 @@
+package com.example.diseaseprediction.service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Running match counts for one patient's symptom list. Adding or removing a symptom walks that
+ * symptom's postings only, and the counts live in an open-addressed map holding just the diseases
+ * those postings reached, so both a session's memory and the ranking cost, O(matched diseases · log k),
+ * follow what the session touched rather than the size of the catalog.
+ * When the rules are reloaded the counters are rebuilt from the remembered symptoms.
+ * Not thread-safe; callers lock the session.
+ */
+final class ScoringSession {
+
+    private static final int MIN_CAPACITY = 16;
+
+    private final String owner;
+    // Normalized symptoms in the order they were added, including ones no rule knows yet
+    private final Set<String> symptoms = new LinkedHashSet<>();
+    private RuleIndex index;
+    // Linear-probing map of disease + 1 (0 = free slot) to its match count. A count dropping to 0 keeps
+    // its slot, so probe chains stay intact; those slots are only reclaimed when the table is rebuilt
+    private int[] diseases;
+    private int[] counts;
+    private int occupied;
+    private int matchedCount;
+
+    ScoringSession(String owner, RuleIndex index) {
+        this.owner = owner;
+        reset(index);
+    }
+
+    String owner() {
+        return owner;
+    }
+
+    /**
+     * @return false if the symptom was already present
+     */
+    boolean add(String symptom) {
+        String normalized = RuleIndex.normalize(symptom);
+        if (normalized.isEmpty() || !symptoms.add(normalized)) {
+            return false;
+        }
+        apply(index.lookup(normalized), 1);
+        return true;
+    }
+
+    /**
+     * @return false if the symptom was not present
+     */
+    boolean remove(String symptom) {
+        String normalized = RuleIndex.normalize(symptom);
+        if (!symptoms.remove(normalized)) {
+            return false;
+        }
+        apply(index.lookup(normalized), -1);
+        return true;
+    }
+
+    int size() {
+        return symptoms.size();
+    }
+
+    List<String> symptoms() {
+        return List.copyOf(symptoms);
+    }
+
+    long version() {
+        return index.version();
+    }
+
+    /**
+     * Re-targets the session at a newly compiled rule set, replaying its symptoms.
+     */
+    void refresh(RuleIndex current) {
+        if (current != index) {
+            reset(current);
+            for (String symptom : symptoms) {
+                apply(index.lookup(symptom), 1);
+            }
+        }
+    }
+
+    /**
+     * The k best diseases sharing at least one symptom with the session, ordered as
+     * {@link DecisionTreeEngine#predictTopK(List, int)} orders them; empty when nothing matches.
+     */
+    List<DecisionTreeEngine.Outcome> ranking(int k) {
+        if (matchedCount == 0) {
+            return List.of();
+        }
+        CandidateHeap heap = new CandidateHeap(index, Math.min(k, matchedCount));
+        for (int slot = 0; slot < diseases.length; slot++) {
+            if (counts[slot] > 0) {
+                heap.offer(diseases[slot] - 1, counts[slot]);
+            }
+        }
+        // Known symptoms of the session as a query bitset, for explaining the ranked diseases
+        long[] present = new long[index.words()];
+        for (String symptom : symptoms) {
+            int id = index.lookup(symptom);
+            if (id >= 0) {
+                present[id >>> 6] |= 1L << id;
+            }
+        }
+        int[] diseases = new int[heap.size()];
+        int[] matches = new int[heap.size()];
+        int count = heap.drain(diseases, matches);
+        List<DecisionTreeEngine.Outcome> outcomes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            outcomes.add(DecisionTreeEngine.outcome(index, diseases[i], matches[i], present));
+        }
+        return outcomes;
+    }
+
+    private void reset(RuleIndex current) {
+        index = current;
+        diseases = new int[MIN_CAPACITY];
+        counts = new int[MIN_CAPACITY];
+        occupied = 0;
+        matchedCount = 0;
+    }
+
+    private void apply(int symptomId, int delta) {
+        if (symptomId < 0) {
+            return;
+        }
+        int end = index.postingsEnd(symptomId);
+        for (int p = index.postingsStart(symptomId); p < end; p++) {
+            int slot = slot(index.posting(p));
+            int count = counts[slot] += delta;
+            if (count == 1 && delta > 0) {
+                matchedCount++;
+            } else if (count == 0) {
+                matchedCount--;
+            }
+        }
+    }
+
+    /**
+     * Slot of a disease, claiming a free one if it has none; the table stays at most half full.
+     */
+    private int slot(int disease) {
+        int mask = diseases.length - 1;
+        int slot = hash(disease) & mask;
+        while (diseases[slot] != 0) {
+            if (diseases[slot] == disease + 1) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (2 * (occupied + 1) > diseases.length) {
+            rebuild();
+            return slot(disease);
+        }
+        diseases[slot] = disease + 1;
+        occupied++;
+        return slot;
+    }
+
+    // Sized for the diseases still matched, dropping the ones whose count went back to 0
+    private void rebuild() {
+        int[] oldDiseases = diseases;
+        int[] oldCounts = counts;
+        int capacity = Math.max(MIN_CAPACITY, Integer.highestOneBit(matchedCount + 1) << 2);
+        diseases = new int[capacity];
+        counts = new int[capacity];
+        occupied = 0;
+        int mask = capacity - 1;
+        for (int i = 0; i < oldDiseases.length; i++) {
+            if (oldCounts[i] > 0) {
+                int slot = hash(oldDiseases[i] - 1) & mask;
+                while (diseases[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                diseases[slot] = oldDiseases[i];
+                counts[slot] = oldCounts[i];
+                occupied++;
+            }
+        }
+    }
+
+    private static int hash(int disease) {
+        int h = disease * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
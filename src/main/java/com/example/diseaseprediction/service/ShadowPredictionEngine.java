@@ -0,0 +1,201 @@
+package com.example.diseaseprediction.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Serves every call from the primary engine and re-scores the same input with candidate engines in the
+ * background, so a new engine can be trialled on live traffic before it is selected with
+ * {@code app.engine.type}. Shadow work runs on a small pool of low-priority threads behind a bounded
+ * queue; when the queue is full the work is dropped and counted, never run on or waited for by the
+ * caller. Each candidate's top disease is compared with the primary's when both used the same
+ * rule-set version, and latencies are recorded per engine as histograms:
+ * <ul>
+ *   <li>{@code prediction.engine.latency{engine, role, call}} - primary and shadow scoring time</li>
+ *   <li>{@code prediction.shadow.comparisons{engine, result=agree|disagree|error}}</li>
+ *   <li>{@code prediction.shadow.agreement{engine}} - agreeing share of the comparisons so far</li>
+ *   <li>{@code prediction.shadow.dropped} - shadow tasks discarded because the queue was full</li>
+ * </ul>
+ */
+public class ShadowPredictionEngine implements PredictionEngine, AutoCloseable {
+
+    private static final Logger log = LoggerFactory.getLogger(ShadowPredictionEngine.class);
+
+    private final PredictionEngine primary;
+    private final Timer primarySingle;
+    private final Timer primaryBatch;
+    private final List<Shadow> shadows = new ArrayList<>();
+    private final Counter dropped;
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * @param primaryName name of the serving engine in the metric tags
+     * @param shadows     candidate engines by the name used in their metric tags
+     */
+    public ShadowPredictionEngine(String primaryName, PredictionEngine primary, Map<String, PredictionEngine> shadows,
+                                  int threads, int queueCapacity, MeterRegistry meterRegistry) {
+        if (threads < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Shadow threads and queue capacity must be at least 1");
+        }
+        this.primary = primary;
+        this.primarySingle = latency(meterRegistry, primaryName, "primary", "single");
+        this.primaryBatch = latency(meterRegistry, primaryName, "primary", "batch");
+        shadows.forEach((name, engine) -> this.shadows.add(new Shadow(name, engine, meterRegistry)));
+        this.dropped = Counter.builder("prediction.shadow.dropped")
+                .description("Shadow scoring tasks discarded because the queue was full")
+                .register(meterRegistry);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                task -> {
+                    Thread thread = new Thread(task, "shadow-scoring-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    thread.setPriority(Thread.MIN_PRIORITY);
+                    return thread;
+                },
+                (task, pool) -> dropped.increment());
+    }
+
+    @Override
+    public DecisionTreeEngine.Outcome predict(List<String> symptoms) {
+        DecisionTreeEngine.Outcome outcome = primarySingle.record(() -> primary.predict(symptoms));
+        if (!shadows.isEmpty()) {
+            List<String> input = copy(symptoms);
+            shadow(List.of(outcome), shadow -> shadow.single.record(() -> List.of(shadow.engine.predict(input))));
+        }
+        return outcome;
+    }
+
+    @Override
+    public List<DecisionTreeEngine.Outcome> predictAll(List<List<String>> symptomSets) {
+        List<DecisionTreeEngine.Outcome> outcomes = primaryBatch.record(() -> primary.predictAll(symptomSets));
+        if (!shadows.isEmpty()) {
+            List<List<String>> input = symptomSets.stream().map(ShadowPredictionEngine::copy).toList();
+            shadow(outcomes, shadow -> shadow.batch.record(() -> shadow.engine.predictAll(input)));
+        }
+        return outcomes;
+    }
+
+    /**
+     * Shadows compare only their best candidate, scored with {@link #predict(List)}.
+     */
+    @Override
+    public List<DecisionTreeEngine.Outcome> predictTopK(List<String> symptoms, int k) {
+        List<DecisionTreeEngine.Outcome> outcomes = primarySingle.record(() -> primary.predictTopK(symptoms, k));
+        if (!shadows.isEmpty()) {
+            List<String> input = copy(symptoms);
+            shadow(outcomes.subList(0, 1),
+                    shadow -> shadow.single.record(() -> List.of(shadow.engine.predict(input))));
+        }
+        return outcomes;
+    }
+
+    @Override
+    public long getRuleSetVersion() {
+        return primary.getRuleSetVersion();
+    }
+
+    /**
+     * Stops taking shadow work and waits briefly for queued comparisons to finish.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        executor.shutdown();
+        if (!executor.awaitTermination(5, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * One task per candidate engine, so a slow candidate cannot hold up the others' comparisons.
+     */
+    private void shadow(List<DecisionTreeEngine.Outcome> expected,
+                        Function<Shadow, List<DecisionTreeEngine.Outcome>> scoring) {
+        for (Shadow shadow : shadows) {
+            executor.execute(() -> {
+                try {
+                    shadow.compare(expected, scoring.apply(shadow));
+                } catch (RuntimeException e) {
+                    shadow.errors.increment();
+                    log.debug("Shadow engine {} failed", shadow.name, e);
+                }
+            });
+        }
+    }
+
+    private static List<String> copy(List<String> symptoms) {
+        return symptoms == null ? null : new ArrayList<>(symptoms);
+    }
+
+    private static Timer latency(MeterRegistry registry, String engine, String role, String call) {
+        return Timer.builder("prediction.engine.latency")
+                .description("Time to score a prediction request")
+                .tags("engine", engine, "role", role, "call", call)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
+    private static final class Shadow {
+        private final String name;
+        private final PredictionEngine engine;
+        private final Timer single;
+        private final Timer batch;
+        private final Counter agreed;
+        private final Counter disagreed;
+        private final Counter errors;
+
+        Shadow(String name, PredictionEngine engine, MeterRegistry registry) {
+            this.name = name;
+            this.engine = engine;
+            this.single = latency(registry, name, "shadow", "single");
+            this.batch = latency(registry, name, "shadow", "batch");
+            this.agreed = comparisons(registry, name, "agree");
+            this.disagreed = comparisons(registry, name, "disagree");
+            this.errors = comparisons(registry, name, "error");
+            Gauge.builder("prediction.shadow.agreement", this, Shadow::agreement)
+                    .description("Share of shadow predictions naming the same disease as the primary engine")
+                    .tag("engine", name)
+                    .register(registry);
+        }
+
+        /**
+         * Outcomes computed against another rule-set version, after a reload raced the request, are skipped.
+         */
+        void compare(List<DecisionTreeEngine.Outcome> expected, List<DecisionTreeEngine.Outcome> actual) {
+            for (int i = 0; i < expected.size(); i++) {
+                DecisionTreeEngine.Outcome want = expected.get(i);
+                DecisionTreeEngine.Outcome got = actual.get(i);
+                if (want.getRuleSetVersion() != got.getRuleSetVersion()) {
+                    continue;
+                }
+                (want.getDiseaseName().equals(got.getDiseaseName()) ? agreed : disagreed).increment();
+            }
+        }
+
+        double agreement() {
+            double total = agreed.count() + disagreed.count();
+            return total == 0 ? Double.NaN : agreed.count() / total;
+        }
+
+        private static Counter comparisons(MeterRegistry registry, String engine, String result) {
+            return Counter.builder("prediction.shadow.comparisons")
+                    .description("Shadow predictions compared with the primary engine")
+                    .tags("engine", engine, "result", result)
+                    .register(registry);
+        }
+    }
+}
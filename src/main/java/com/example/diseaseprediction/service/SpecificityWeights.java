@@ -0,0 +1,60 @@
+package com.example.diseaseprediction.service;
+
+/**
+ * Inverse-frequency weights of a rule set for {@link DecisionTreeEngine.ScoringMode#WEIGHTED}.
+ * A symptom found in {@code df} of the {@code N} rules weighs {@code ln((N + 1) / df)}, so "fatigue"
+ * (in a third of the seed rules) counts for less than "loss of smell" (in one). Each disease keeps the
+ * sum of its rule's weights as its norm, and a disease scores the weight of its matched symptoms over
+ * that norm: the weighted form of matches / rule size, 1.0 when every rule symptom was reported.
+ * Weights are fixed-point integers, so sums are exact and do not depend on the order of the input.
+ */
+final class SpecificityWeights {
+
+    // Fixed-point scale; ln(N + 1) stays below 2^5 for any int N, so a weight fits in 21 bits
+    static final int SCALE = 1 << 16;
+
+    private final int[] weights;
+    private final long[] norms;
+
+    private SpecificityWeights(int[] weights, long[] norms) {
+        this.weights = weights;
+        this.norms = norms;
+    }
+
+    /**
+     * Derives the weights from the postings lengths in one pass over the postings, O(symptoms + rule entries).
+     */
+    static SpecificityWeights of(RuleIndex index) {
+        double logRules = Math.log(index.diseaseCount() + 1.0);
+        int[] weights = new int[index.symptomCount()];
+        long[] norms = new long[index.diseaseCount()];
+        for (int symptom = 0; symptom < weights.length; symptom++) {
+            int start = index.postingsStart(symptom);
+            int end = index.postingsEnd(symptom);
+            if (end == start) {
+                continue;
+            }
+            int weight = (int) Math.max(1, Math.round((logRules - Math.log(end - start)) * SCALE));
+            weights[symptom] = weight;
+            for (int p = start; p < end; p++) {
+                norms[index.posting(p)] += weight;
+            }
+        }
+        return new SpecificityWeights(weights, norms);
+    }
+
+    int weight(int symptom) {
+        return weights[symptom];
+    }
+
+    /**
+     * Sum of the weights of the disease's rule symptoms; never 0 for a disease with a rule.
+     */
+    long norm(int disease) {
+        return norms[disease];
+    }
+
+    double score(int disease, long matchedWeight) {
+        return (double) matchedWeight / norms[disease];
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.diseaseprediction.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Labeled training rows for {@link DecisionTreeTrainer}, stored column-major: one bitset over rows per
+ * symptom, so evaluating a split on one symptom reads a single array in row order.
+ * <p>
+ * The CSV format is one example per line, {@code disease,symptom,symptom,...}, with an optional header
+ * whose first cell is {@code disease}. Blank symptom cells are ignored, so wide exports with padded
+ * columns load unchanged.
+ */
+final class SymptomDataset {
+
+    final String[] symptomNames;
+    final String[] labelNames;
+    final int[] labels;
+    // columns[symptom][row >>> 6] has bit row set when the row reports the symptom
+    final long[][] columns;
+    final int rowCount;
+
+    private SymptomDataset(String[] symptomNames, String[] labelNames, int[] labels, long[][] columns, int rowCount) {
+        this.symptomNames = symptomNames;
+        this.labelNames = labelNames;
+        this.labels = labels;
+        this.columns = columns;
+        this.rowCount = rowCount;
+    }
+
+    /**
+     * @throws IllegalArgumentException if a row has no disease label
+     */
+    static SymptomDataset read(Path csv) throws IOException {
+        Builder builder = new Builder();
+        try (BufferedReader reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                String[] cells = line.split(",");
+                String label = cells[0].trim();
+                if (lineNumber == 1 && label.equalsIgnoreCase("disease")) {
+                    continue;
+                }
+                if (label.isEmpty()) {
+                    throw new IllegalArgumentException("Missing disease label on line " + lineNumber + " of " + csv);
+                }
+                builder.add(label, Arrays.asList(cells).subList(1, cells.length));
+            }
+        }
+        return builder.build();
+    }
+
+    static SymptomDataset of(Map<String, List<List<String>>> examples) {
+        Builder builder = new Builder();
+        examples.forEach((label, rows) -> rows.forEach(row -> builder.add(label, row)));
+        return builder.build();
+    }
+
+    boolean has(int symptom, int row) {
+        return (columns[symptom][row >>> 6] & (1L << row)) != 0;
+    }
+
+    private static final class Builder {
+        private final Map<String, Integer> symptomIds = new LinkedHashMap<>();
+        private final Map<String, Integer> labelIds = new LinkedHashMap<>();
+        private final List<long[]> columns = new ArrayList<>();
+        private int[] labels = new int[1024];
+        private int rowCount;
+
+        void add(String label, List<String> symptoms) {
+            if (rowCount == labels.length) {
+                labels = Arrays.copyOf(labels, rowCount * 2);
+            }
+            int row = rowCount++;
+            labels[row] = labelIds.computeIfAbsent(label, name -> labelIds.size());
+            for (String symptom : symptoms) {
+                if (symptom == null || symptom.isBlank()) {
+                    continue;
+                }
+                int id = symptomIds.computeIfAbsent(RuleIndex.normalize(symptom), name -> {
+                    columns.add(new long[16]);
+                    return symptomIds.size();
+                });
+                long[] column = columns.get(id);
+                if (column.length <= row >>> 6) {
+                    column = Arrays.copyOf(column, Math.max(column.length * 2, (row >>> 6) + 1));
+                    columns.set(id, column);
+                }
+                column[row >>> 6] |= 1L << row;
+            }
+        }
+
+        SymptomDataset build() {
+            int words = (rowCount + 63) >>> 6;
+            long[][] sized = new long[columns.size()][];
+            for (int i = 0; i < sized.length; i++) {
+                sized[i] = Arrays.copyOf(columns.get(i), words);
+            }
+            return new SymptomDataset(symptomIds.keySet().toArray(String[]::new),
+                    labelIds.keySet().toArray(String[]::new), Arrays.copyOf(labels, rowCount), sized, rowCount);
+        }
+    }
+}
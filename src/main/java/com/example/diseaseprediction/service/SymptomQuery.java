@@ -0,0 +1,22 @@
+package com.example.diseaseprediction.service;
+
+/**
+ * Submitted symptoms resolved against a {@link RuleIndex}: a bitset for row intersections
+ * plus the distinct symptom ids for postings lookups.
+ */
+final class SymptomQuery {
+
+    final long[] bits;
+    final int[] ids;
+    final int size;
+
+    SymptomQuery(long[] bits, int[] ids, int size) {
+        this.bits = bits;
+        this.ids = ids;
+        this.size = size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.diseaseprediction.service;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.LongConsumer;
+
+/**
+ * Compact encoding of a set of {@code Symptom} catalog ids, stored with each prediction. The ids are
+ * sorted and deduplicated, and each is written as its gap from the previous one (the first as is) in
+ * unsigned LEB128: seven bits per byte, high bit set on every byte but the last of a value. Catalog ids
+ * of one request are close together, so most take one or two bytes; a 5-symptom set is usually 5 to 10
+ * bytes against 5 rows of a join table. Decoding walks the bytes in place, without boxing or collections.
+ */
+public final class SymptomSetCodec {
+
+    // Longest encoding of a positive long
+    static final int MAX_VALUE_BYTES = 9;
+
+    private SymptomSetCodec() {
+    }
+
+    public static byte[] encode(Collection<Long> ids) {
+        long[] sorted = new long[ids.size()];
+        int size = 0;
+        for (Long id : ids) {
+            sorted[size++] = id;
+        }
+        return encode(sorted, size);
+    }
+
+    /**
+     * Encodes the first {@code size} ids, sorting them in place.
+     *
+     * @throws IllegalArgumentException if an id is not positive
+     */
+    public static byte[] encode(long[] ids, int size) {
+        Arrays.sort(ids, 0, size);
+        byte[] buffer = new byte[size * MAX_VALUE_BYTES];
+        int length = 0;
+        long previous = 0;
+        for (int i = 0; i < size; i++) {
+            long id = ids[i];
+            if (id <= 0) {
+                throw new IllegalArgumentException("Symptom ids must be positive: " + id);
+            }
+            if (id == previous) {
+                continue;
+            }
+            long gap = id - previous;
+            while ((gap & ~0x7FL) != 0) {
+                buffer[length++] = (byte) (gap | 0x80);
+                gap >>>= 7;
+            }
+            buffer[length++] = (byte) gap;
+            previous = id;
+        }
+        return Arrays.copyOf(buffer, length);
+    }
+
+    /**
+     * Calls {@code action} with each id in ascending order.
+     */
+    public static void forEach(byte[] encoded, LongConsumer action) {
+        long id = 0;
+        long gap = 0;
+        int shift = 0;
+        for (byte b : encoded) {
+            gap |= (long) (b & 0x7F) << shift;
+            if (b < 0) {
+                shift += 7;
+                continue;
+            }
+            id += gap;
+            action.accept(id);
+            gap = 0;
+            shift = 0;
+        }
+    }
+
+    /**
+     * Number of ids in the set: one per byte that ends a value.
+     */
+    public static int size(byte[] encoded) {
+        int size = 0;
+        for (byte b : encoded) {
+            if (b >= 0) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    public static boolean contains(byte[] encoded, long symptomId) {
+        long id = 0;
+        long gap = 0;
+        int shift = 0;
+        for (byte b : encoded) {
+            gap |= (long) (b & 0x7F) << shift;
+            if (b < 0) {
+                shift += 7;
+                continue;
+            }
+            id += gap;
+            if (id >= symptomId) {
+                return id == symptomId;
+            }
+            gap = 0;
+            shift = 0;
+        }
+        return false;
+    }
+
+    public static long[] toArray(byte[] encoded) {
+        long[] ids = new long[size(encoded)];
+        int[] next = new int[1];
+        forEach(encoded, id -> ids[next[0]++] = id);
+        return ids;
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.diseaseprediction.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serves predictions from a decision tree learned from a labeled symptom dataset
+ * ({@code app.engine.tree.dataset}, see {@link SymptomDataset} for the format).
+ * Confidence is the share of training rows in the reached leaf that carry the predicted disease;
+ * precautions and the matched/missing symptom explanation come from the disease's rule in the rule catalog.
+ * Until a tree has been trained, predictions are delegated to the rule-based {@link DecisionTreeEngine}.
+ */
+@Component
+public class TrainedTreeEngine implements PredictionEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(TrainedTreeEngine.class);
+
+    private static final String GENERAL_PRECAUTIONS = "General precautions: rest, hydrate, seek professional advice.";
+
+    private final DecisionTreeEngine rules;
+    private final Path dataset;
+    private volatile CompiledTree tree;
+    private volatile Catalog catalog;
+
+    public TrainedTreeEngine(DecisionTreeEngine rules, @Value("${app.engine.tree.dataset:}") String dataset) {
+        this.rules = rules;
+        this.dataset = dataset.isBlank() ? null : Path.of(dataset);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void trainOnStartup() {
+        if (dataset != null) {
+            train(dataset);
+        }
+    }
+
+    /**
+     * Trains a tree from a CSV dataset and swaps it in once complete.
+     *
+     * @throws IllegalArgumentException if the dataset is malformed or empty
+     */
+    public void train(Path csv) {
+        long started = System.nanoTime();
+        SymptomDataset data;
+        try {
+            data = SymptomDataset.read(csv);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read training data " + csv, e);
+        }
+        CompiledTree trained = new DecisionTreeTrainer().train(data);
+        tree = trained;
+        log.info("Trained decision tree from {}: {} rows, {} symptoms, {} diseases, {} nodes, depth {} in {} ms",
+                csv, data.rowCount, data.symptomNames.length, data.labelNames.length, trained.nodeCount(),
+                trained.depth(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    public boolean isTrained() {
+        return tree != null;
+    }
+
+    @Override
+    public DecisionTreeEngine.Outcome predict(List<String> symptoms) {
+        CompiledTree snapshot = tree;
+        if (snapshot == null) {
+            return rules.predict(symptoms);
+        }
+        return predict(snapshot, catalog(), symptoms);
+    }
+
+    @Override
+    public List<DecisionTreeEngine.Outcome> predictAll(List<List<String>> symptomSets) {
+        CompiledTree snapshot = tree;
+        if (snapshot == null) {
+            return rules.predictAll(symptomSets);
+        }
+        Catalog catalog = catalog();
+        List<DecisionTreeEngine.Outcome> outcomes = new ArrayList<>(symptomSets.size());
+        for (List<String> symptoms : symptomSets) {
+            outcomes.add(predict(snapshot, catalog, symptoms));
+        }
+        return outcomes;
+    }
+
+    /**
+     * Candidates are the diseases seen in the reached leaf, by share of its training rows.
+     */
+    @Override
+    public List<DecisionTreeEngine.Outcome> predictTopK(List<String> symptoms, int k) {
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be at least 1");
+        }
+        CompiledTree snapshot = tree;
+        if (snapshot == null) {
+            return rules.predictTopK(symptoms, k);
+        }
+        Catalog catalog = catalog();
+        if (symptoms == null || symptoms.isEmpty()) {
+            return List.of(predict(snapshot, catalog, symptoms));
+        }
+        int leaf = snapshot.leaf(snapshot.encode(symptoms));
+        int end = Math.min(snapshot.leafEnd(leaf), snapshot.leafStart(leaf) + k);
+        long[] query = catalog.rules.query(symptoms).bits;
+        List<DecisionTreeEngine.Outcome> outcomes = new ArrayList<>(end - snapshot.leafStart(leaf));
+        for (int position = snapshot.leafStart(leaf); position < end; position++) {
+            outcomes.add(outcome(snapshot, catalog, position, query));
+        }
+        return outcomes;
+    }
+
+    @Override
+    public long getRuleSetVersion() {
+        return rules.getRuleSetVersion();
+    }
+
+    private DecisionTreeEngine.Outcome predict(CompiledTree snapshot, Catalog catalog, List<String> symptoms) {
+        if (symptoms == null || symptoms.isEmpty()) {
+            return new DecisionTreeEngine.Outcome("Unknown", 0.0, "Please provide symptoms.", catalog.rules.version());
+        }
+        int leaf = snapshot.leaf(snapshot.encode(symptoms));
+        return outcome(snapshot, catalog, snapshot.leafStart(leaf), catalog.rules.query(symptoms).bits);
+    }
+
+    private static DecisionTreeEngine.Outcome outcome(CompiledTree snapshot, Catalog catalog, int position, long[] query) {
+        String disease = snapshot.label(position);
+        double confidence = Math.max(0.05, Math.min(0.99, snapshot.share(position)));
+        Integer id = catalog.diseaseIds.get(disease);
+        if (id == null) {
+            // Learned from the dataset but not in the rule catalog: no rule to explain against
+            return new DecisionTreeEngine.Outcome(disease, confidence, GENERAL_PRECAUTIONS, catalog.rules.version());
+        }
+        String precautions = catalog.rules.precautions(id);
+        int matches = catalog.rules.matches(id, query);
+        return new DecisionTreeEngine.Outcome(disease, confidence,
+                precautions != null ? precautions : GENERAL_PRECAUTIONS, catalog.rules.version(),
+                Explanation.names(catalog.rules, id, query, matches), matches);
+    }
+
+    /**
+     * Rule ids by disease name for the current rule catalog, rebuilt when the rules are reloaded.
+     */
+    private Catalog catalog() {
+        RuleIndex snapshot = rules.snapshot();
+        Catalog current = catalog;
+        if (current == null || current.rules != snapshot) {
+            Map<String, Integer> diseaseIds = new HashMap<>();
+            for (int disease = 0; disease < snapshot.diseaseCount(); disease++) {
+                diseaseIds.put(snapshot.diseaseName(disease), disease);
+            }
+            current = new Catalog(snapshot, diseaseIds);
+            catalog = current;
+        }
+        return current;
+    }
+
+    private static final class Catalog {
+        final RuleIndex rules;
+        final Map<String, Integer> diseaseIds;
+
+        Catalog(RuleIndex rules, Map<String, Integer> diseaseIds) {
+            this.rules = rules;
+            this.diseaseIds = diseaseIds;
+        }
+    }
+}
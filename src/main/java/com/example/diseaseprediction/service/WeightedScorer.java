@@ -0,0 +1,153 @@
+package com.example.diseaseprediction.service;
+
+/**
+ * Sparse dot product for {@link DecisionTreeEngine.ScoringMode#WEIGHTED}: walks the postings of the submitted
+ * symptoms, adding each symptom's weight to the diseases that list it, then compares the diseases touched by
+ * matched weight over their precomputed norm. Like {@link PostingsScorer} the cost follows the postings
+ * touched, and the accumulators are per-thread arrays reset after every call.
+ */
+final class WeightedScorer {
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(() -> new Scratch(0));
+
+    private WeightedScorer() {
+    }
+
+    /**
+     * The best disease by weighted score, ties going to the lower disease id, or -1 when no rule shares a
+     * symptom with the query.
+     */
+    static int best(RuleIndex index, SpecificityWeights weights, SymptomQuery query) {
+        Scratch scratch = accumulate(index, weights, query);
+        long[] sums = scratch.sums;
+        int best = -1;
+        long bestSum = 0;
+        for (int i = 0; i < scratch.touchedCount; i++) {
+            int disease = scratch.touched[i];
+            long sum = sums[disease];
+            if (best < 0 || compare(weights, disease, sum, best, bestSum) > 0) {
+                best = disease;
+                bestSum = sum;
+            }
+            sums[disease] = 0;
+        }
+        return best;
+    }
+
+    /**
+     * Writes the best {@code out.length} diseases sharing a symptom with the query into {@code out}, best
+     * first, and returns how many were written.
+     */
+    static int top(RuleIndex index, SpecificityWeights weights, SymptomQuery query, int[] out) {
+        Scratch scratch = accumulate(index, weights, query);
+        long[] sums = scratch.sums;
+        // Min-heap of the k best so far, worst at the root
+        long[] heapSums = new long[out.length];
+        int size = 0;
+        for (int i = 0; i < scratch.touchedCount; i++) {
+            int disease = scratch.touched[i];
+            long sum = sums[disease];
+            sums[disease] = 0;
+            if (size < out.length) {
+                out[size] = disease;
+                heapSums[size] = sum;
+                siftUp(weights, out, heapSums, size++);
+            } else if (compare(weights, disease, sum, out[0], heapSums[0]) > 0) {
+                out[0] = disease;
+                heapSums[0] = sum;
+                siftDown(weights, out, heapSums, size);
+            }
+        }
+        // Pop the worst to the back until the array is ordered best first
+        for (int end = size - 1; end > 0; end--) {
+            swap(out, heapSums, 0, end);
+            siftDown(weights, out, heapSums, end);
+        }
+        return size;
+    }
+
+    private static Scratch accumulate(RuleIndex index, SpecificityWeights weights, SymptomQuery query) {
+        Scratch scratch = SCRATCH.get();
+        if (scratch.sums.length < index.diseaseCount()) {
+            scratch = new Scratch(index.diseaseCount());
+            SCRATCH.set(scratch);
+        }
+        long[] sums = scratch.sums;
+        int[] touched = scratch.touched;
+        int touchedCount = 0;
+        for (int i = 0; i < query.size; i++) {
+            int symptom = query.ids[i];
+            int weight = weights.weight(symptom);
+            int end = index.postingsEnd(symptom);
+            for (int p = index.postingsStart(symptom); p < end; p++) {
+                int disease = index.posting(p);
+                if (sums[disease] == 0) {
+                    touched[touchedCount++] = disease;
+                }
+                sums[disease] += weight;
+            }
+        }
+        scratch.touchedCount = touchedCount;
+        return scratch;
+    }
+
+    /**
+     * Orders by sum / norm through cross-multiplication, ties going to the lower disease id; positive when
+     * a ranks before b.
+     */
+    private static int compare(SpecificityWeights weights, int diseaseA, long sumA, int diseaseB, long sumB) {
+        int byScore = Double.compare((double) sumA * weights.norm(diseaseB), (double) sumB * weights.norm(diseaseA));
+        return byScore != 0 ? byScore : Integer.compare(diseaseB, diseaseA);
+    }
+
+    private static void siftUp(SpecificityWeights weights, int[] diseases, long[] sums, int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (compare(weights, diseases[parent], sums[parent], diseases[i], sums[i]) <= 0) {
+                return;
+            }
+            swap(diseases, sums, i, parent);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(SpecificityWeights weights, int[] diseases, long[] sums, int size) {
+        int i = 0;
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) {
+                return;
+            }
+            int worst = left;
+            int right = left + 1;
+            if (right < size && compare(weights, diseases[right], sums[right], diseases[left], sums[left]) < 0) {
+                worst = right;
+            }
+            if (compare(weights, diseases[i], sums[i], diseases[worst], sums[worst]) <= 0) {
+                return;
+            }
+            swap(diseases, sums, i, worst);
+            i = worst;
+        }
+    }
+
+    private static void swap(int[] diseases, long[] sums, int a, int b) {
+        int disease = diseases[a];
+        diseases[a] = diseases[b];
+        diseases[b] = disease;
+        long sum = sums[a];
+        sums[a] = sums[b];
+        sums[b] = sum;
+    }
+
+    private static final class Scratch {
+        final long[] sums;
+        final int[] touched;
+        int touchedCount;
+
+        Scratch(int size) {
+            sums = new long[size];
+            touched = new int[size];
+        }
+    }
+}
@@ -1,7 +1,13 @@
 package com.example.diseaseprediction.controller;
 
+import com.example.diseaseprediction.dto.BatchPredictionRequest;
 import com.example.diseaseprediction.dto.LoginRequest;
 import com.example.diseaseprediction.dto.PredictionRequest;
+import com.example.diseaseprediction.model.Prediction;
+import com.example.diseaseprediction.repository.PredictionRepository;
+import com.example.diseaseprediction.repository.SymptomRepository;
+import com.example.diseaseprediction.service.SymptomSetCodec;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -13,11 +19,19 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.LongStream;
 
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -35,20 +49,17 @@ class PredictionControllerIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private PredictionRepository predictionRepository;
+
+    @Autowired
+    private SymptomRepository symptomRepository;
+
     private String userToken;
 
     @BeforeEach
     void setUp() throws Exception {
-        LoginRequest userLogin = new LoginRequest();
-        userLogin.setEmail("user@demo.com");
-        userLogin.setPassword("password");
-
-        MvcResult userResult = mockMvc.perform(post("/auth/login")
-                        .contentType(MediaType.APPLICATION_JSON)
-                        .content(objectMapper.writeValueAsString(userLogin)))
-                .andReturn();
-        userToken = objectMapper.readTree(userResult.getResponse().getContentAsString())
-                .get("token").asText();
+        userToken = login("user@demo.com", "password");
     }
 
     @Nested
@@ -68,7 +79,64 @@ class PredictionControllerIntegrationTest {
                     .andExpect(status().isOk())
                     .andExpect(jsonPath("$.diseaseName", notNullValue()))
                     .andExpect(jsonPath("$.confidence", notNullValue()))
-                    .andExpect(jsonPath("$.precautions", notNullValue()));
+                    .andExpect(jsonPath("$.precautions", notNullValue()))
+                    .andExpect(jsonPath("$.matchedSymptoms", not(empty())))
+                    .andExpect(jsonPath("$.missingSymptoms", notNullValue()));
+        }
+
+        @Test
+        @DisplayName("Should store the catalog ids of the submitted symptoms and the predicted rule")
+        void shouldStoreSymptomIds() throws Exception {
+            PredictionRequest request = new PredictionRequest();
+            request.setSymptoms(Arrays.asList("Fever", "cough", "persistent hiccups", "fever"));
+
+            MvcResult result = mockMvc.perform(post("/predict")
+                            .header("Authorization", "Bearer " + userToken)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isOk())
+                    .andReturn();
+
+            Prediction stored = predictionRepository.findByUserEmailOrderByCreatedAtDesc("user@demo.com").get(0);
+            long[] expected = LongStream.of(id("fever"), id("cough"), id("persistent hiccups")).sorted().toArray();
+            assertArrayEquals(expected, SymptomSetCodec.toArray(stored.getSymptomIds()));
+
+            JsonNode response = objectMapper.readTree(result.getResponse().getContentAsString());
+            List<Long> rule = new ArrayList<>();
+            response.get("matchedSymptoms").forEach(symptom -> rule.add(id(symptom.asText())));
+            response.get("missingSymptoms").forEach(symptom -> rule.add(id(symptom.asText())));
+            assertArrayEquals(rule.stream().mapToLong(Long::longValue).sorted().toArray(),
+                    SymptomSetCodec.toArray(stored.getRuleSymptomIds()));
+        }
+
+        @Test
+        @DisplayName("Should return ranked candidates when top is given")
+        void shouldReturnTopCandidates() throws Exception {
+            PredictionRequest request = new PredictionRequest();
+            request.setSymptoms(Arrays.asList("fever", "cough", "fatigue"));
+
+            mockMvc.perform(post("/predict")
+                            .param("top", "3")
+                            .header("Authorization", "Bearer " + userToken)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.candidates", hasSize(3)))
+                    .andExpect(jsonPath("$.candidates[0].diseaseName", notNullValue()))
+                    .andExpect(jsonPath("$.candidates[0].matchedSymptoms", not(empty())));
+        }
+
+        @Test
+        @DisplayName("Should reject more than 100 symptoms")
+        void shouldRejectTooManySymptoms() throws Exception {
+            PredictionRequest request = new PredictionRequest();
+            request.setSymptoms(Collections.nCopies(101, "fever"));
+
+            mockMvc.perform(post("/predict")
+                            .header("Authorization", "Bearer " + userToken)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isBadRequest());
         }
 
         @Test
@@ -84,6 +152,94 @@ class PredictionControllerIntegrationTest {
         }
     }
 
+    @Nested
+    @DisplayName("POST /predictions/batch")
+    class BatchEndpoint {
+
+        @Test
+        @DisplayName("Should return one prediction per symptom set and record them in history")
+        void shouldPredictBatch() throws Exception {
+            PredictionRequest flu = new PredictionRequest();
+            flu.setSymptoms(Arrays.asList("fever", "cough", "body aches"));
+            PredictionRequest cold = new PredictionRequest();
+            cold.setSymptoms(Arrays.asList("sneezing", "runny nose", "brand new symptom"));
+            BatchPredictionRequest request = new BatchPredictionRequest();
+            request.setRequests(Arrays.asList(flu, cold, flu));
+
+            mockMvc.perform(post("/predictions/batch")
+                            .header("Authorization", "Bearer " + userToken)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(3)))
+                    .andExpect(jsonPath("$[1].diseaseName", is("Common Cold")));
+
+            mockMvc.perform(get("/predictions/me")
+                            .header("Authorization", "Bearer " + userToken))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$", hasSize(greaterThanOrEqualTo(3))));
+        }
+
+        @Test
+        @DisplayName("Should reject an empty batch")
+        void shouldRejectEmptyBatch() throws Exception {
+            BatchPredictionRequest request = new BatchPredictionRequest();
+            request.setRequests(java.util.List.of());
+
+            mockMvc.perform(post("/predictions/batch")
+                            .header("Authorization", "Bearer " + userToken)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    @Nested
+    @DisplayName("/predict/sessions")
+    class SessionEndpoints {
+
+        @Test
+        @DisplayName("Should refresh the ranking as symptoms are added and removed")
+        void shouldRankIncrementally() throws Exception {
+            MvcResult created = mockMvc.perform(post("/predict/sessions")
+                            .param("top", "3")
+                            .header("Authorization", "Bearer " + userToken)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"symptoms\": [\"sneezing\"]}"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.symptoms", contains("sneezing")))
+                    .andReturn();
+            String id = objectMapper.readTree(created.getResponse().getContentAsString()).get("sessionId").asText();
+
+            mockMvc.perform(put("/predict/sessions/{id}/symptoms/{symptom}", id, "runny nose")
+                            .param("top", "3")
+                            .header("Authorization", "Bearer " + userToken))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.symptoms", contains("sneezing", "runny nose")))
+                    .andExpect(jsonPath("$.candidates[0].diseaseName", is("Common Cold")));
+
+            mockMvc.perform(delete("/predict/sessions/{id}/symptoms/{symptom}", id, "sneezing")
+                            .header("Authorization", "Bearer " + userToken))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.symptoms", contains("runny nose")));
+
+            mockMvc.perform(delete("/predict/sessions/{id}", id)
+                            .header("Authorization", "Bearer " + userToken))
+                    .andExpect(status().isNoContent());
+            mockMvc.perform(get("/predict/sessions/{id}", id)
+                            .header("Authorization", "Bearer " + userToken))
+                    .andExpect(status().isNotFound());
+        }
+
+        @Test
+        @DisplayName("Should return 404 for an unknown session")
+        void shouldRejectUnknownSession() throws Exception {
+            mockMvc.perform(put("/predict/sessions/{id}/symptoms/{symptom}", "no-such-session", "fever")
+                            .header("Authorization", "Bearer " + userToken))
+                    .andExpect(status().isNotFound());
+        }
+    }
+
     @Nested
     @DisplayName("GET /api/predictions/history")
     class HistoryEndpoint {
@@ -96,5 +252,135 @@ class PredictionControllerIntegrationTest {
                     .andExpect(status().isOk())
                     .andExpect(jsonPath("$", isA(java.util.List.class)));
         }
+
+        @Test
+        @DisplayName("Pages should walk the whole history, newest first, without gaps or repeats")
+        void shouldPageThroughHistory() throws Exception {
+            PredictionRequest flu = new PredictionRequest();
+            flu.setSymptoms(Arrays.asList("fever", "cough", "fatigue"));
+            BatchPredictionRequest batch = new BatchPredictionRequest();
+            batch.setRequests(Collections.nCopies(5, flu));
+            mockMvc.perform(post("/predictions/batch")
+                            .header("Authorization", "Bearer " + userToken)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(batch)))
+                    .andExpect(status().isOk());
+
+            List<Long> expected = new ArrayList<>();
+            objectMapper.readTree(mockMvc.perform(get("/predictions/me")
+                                    .header("Authorization", "Bearer " + userToken))
+                            .andReturn().getResponse().getContentAsString())
+                    .forEach(row -> expected.add(row.get("predictionId").asLong()));
+
+            List<Long> paged = new ArrayList<>();
+            String cursor = null;
+            do {
+                MockHttpServletRequestBuilder next = get("/predictions/me/history")
+                        .param("size", "2")
+                        .header("Authorization", "Bearer " + userToken);
+                if (cursor != null) {
+                    next.param("cursor", cursor);
+                }
+                JsonNode page = objectMapper.readTree(mockMvc.perform(next)
+                                .andExpect(status().isOk())
+                                .andExpect(jsonPath("$.items", hasSize(lessThanOrEqualTo(2))))
+                                .andReturn().getResponse().getContentAsString());
+                page.get("items").forEach(row -> paged.add(row.get("predictionId").asLong()));
+                cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+            } while (cursor != null);
+
+            assertTrue(expected.size() >= 5);
+            assertEquals(expected, paged);
+        }
+
+        @Test
+        @DisplayName("Should reject a malformed cursor or page size")
+        void shouldRejectBadPageParameters() throws Exception {
+            mockMvc.perform(get("/predictions/me/history")
+                            .param("cursor", "not-a-cursor")
+                            .header("Authorization", "Bearer " + userToken))
+                    .andExpect(status().isBadRequest());
+            mockMvc.perform(get("/predictions/me/history")
+                            .param("size", "0")
+                            .header("Authorization", "Bearer " + userToken))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /admin/statistics")
+    class StatisticsEndpoint {
+
+        @Test
+        @DisplayName("A new prediction should show in the statistics at once")
+        void shouldCountNewPrediction() throws Exception {
+            String adminToken = login("admin@demo.com", "admin123");
+            long before = objectMapper.readTree(mockMvc.perform(get("/admin/statistics")
+                                    .header("Authorization", "Bearer " + adminToken))
+                            .andExpect(status().isOk())
+                            .andReturn().getResponse().getContentAsString())
+                    .get("totalPredictions").asLong();
+
+            PredictionRequest request = new PredictionRequest();
+            request.setSymptoms(Arrays.asList("fever", "cough", "fatigue"));
+            mockMvc.perform(post("/predict")
+                            .header("Authorization", "Bearer " + userToken)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isOk());
+
+            mockMvc.perform(get("/admin/statistics")
+                            .header("Authorization", "Bearer " + adminToken))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.totalPredictions", is((int) before + 1)))
+                    .andExpect(jsonPath("$.topDiseases[0].count", greaterThanOrEqualTo(1)));
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /predictions/me/export")
+    class ExportEndpoint {
+
+        @Test
+        @DisplayName("Should stream the history as a CSV attachment")
+        void shouldExportHistoryAsCsv() throws Exception {
+            MvcResult started = mockMvc.perform(get("/predictions/me/export")
+                            .param("format", "csv")
+                            .header("Authorization", "Bearer " + userToken))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            mockMvc.perform(asyncDispatch(started))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("Content-Disposition", containsString("predictions.csv")))
+                    .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                    .andExpect(content().string(startsWith("id,user,created_at,disease,confidence,")));
+        }
+
+        @Test
+        @DisplayName("Should reject an unknown format before streaming")
+        void shouldRejectUnknownFormat() throws Exception {
+            mockMvc.perform(get("/predictions/me/export")
+                            .param("format", "xml")
+                            .header("Authorization", "Bearer " + userToken))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    private String login(String email, String password) throws Exception {
+        LoginRequest login = new LoginRequest();
+        login.setEmail(email);
+        login.setPassword(password);
+
+        MvcResult result = mockMvc.perform(post("/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(login)))
+                .andReturn();
+        return objectMapper.readTree(result.getResponse().getContentAsString())
+                .get("token").asText();
+    }
+
+    private long id(String symptom) {
+        return symptomRepository.findBySymptomName(symptom).orElseThrow().getId();
     }
 }
@@ -0,0 +1,50 @@
+package com.example.diseaseprediction.exception;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for GlobalExceptionHandler - which database failures are answered as load shedding.
+ */
+class GlobalExceptionHandlerTest {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+    @Nested
+    @DisplayName("Database failures")
+    class DatabaseFailures {
+
+        @Test
+        @DisplayName("A connection pool timeout should be answered 503 with Retry-After")
+        void shouldShedPoolTimeout() {
+            CannotCreateTransactionException ex = new CannotCreateTransactionException("Could not open JDBC Connection",
+                    new SQLTransientConnectionException("HikariPool-1 - Connection is not available"));
+
+            ResponseEntity<Map<String, String>> response = handler.handleBusy(ex);
+
+            assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+            assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        }
+
+        @Test
+        @DisplayName("Any other resource failure should be rethrown")
+        void shouldRethrowOtherFailures() {
+            DataAccessResourceFailureException ex = new DataAccessResourceFailureException("Database is down",
+                    new SQLException("Connection refused"));
+
+            assertSame(ex, assertThrows(DataAccessResourceFailureException.class, () -> handler.handleBusy(ex)));
+        }
+    }
+}
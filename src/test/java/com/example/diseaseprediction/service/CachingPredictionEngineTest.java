@@ -0,0 +1,82 @@
+package com.example.diseaseprediction.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CachingPredictionEngine - the canonical symptom-set cache.
+ */
+class CachingPredictionEngineTest {
+
+    private DecisionTreeEngine engine;
+    private CachingPredictionEngine cached;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        engine = new DecisionTreeEngine();
+        registry = new SimpleMeterRegistry();
+        cached = new CachingPredictionEngine(engine, 100, registry);
+    }
+
+    @Nested
+    @DisplayName("Cache Hits")
+    class CacheHits {
+
+        @Test
+        @DisplayName("Reordered, re-cased and duplicated symptoms should hit the same entry")
+        void equivalentInputsShouldShareEntry() {
+            DecisionTreeEngine.Outcome first = cached.predict(Arrays.asList("fever", "cough", "fatigue"));
+            DecisionTreeEngine.Outcome second = cached.predict(Arrays.asList("Fatigue ", "cough", "FEVER", "cough"));
+
+            assertSame(first, second);
+            assertEquals(1, cached.stats().hitCount());
+            assertEquals(1, cached.stats().missCount());
+            assertEquals(1.0, registry.get("cache.gets").tag("cache", "predictions").tag("result", "hit")
+                    .functionCounter().count());
+        }
+
+        @Test
+        @DisplayName("Cached outcomes should equal uncached ones")
+        void cachedOutcomesShouldMatchEngine() {
+            List<String> symptoms = Arrays.asList("nausea", "vomiting", "headache", "fever");
+
+            cached.predictTopK(symptoms, 4);
+            List<DecisionTreeEngine.Outcome> hit = cached.predictTopK(symptoms, 4);
+            List<DecisionTreeEngine.Outcome> direct = engine.predictTopK(symptoms, 4);
+
+            assertEquals(direct.stream().map(DecisionTreeEngine.Outcome::getDiseaseName).toList(),
+                    hit.stream().map(DecisionTreeEngine.Outcome::getDiseaseName).toList());
+            assertEquals(engine.predict(symptoms).getDiseaseName(), cached.predict(symptoms).getDiseaseName());
+        }
+    }
+
+    @Nested
+    @DisplayName("Invalidation")
+    class Invalidation {
+
+        @Test
+        @DisplayName("A rule reload should drop cached outcomes")
+        void reloadShouldInvalidate() {
+            List<String> symptoms = Arrays.asList("sneezing", "itchy eyes");
+            String before = cached.predict(symptoms).getDiseaseName();
+
+            long version = engine.reload(Map.of("Hay Fever", List.of("sneezing", "itchy eyes")), Map.of());
+            DecisionTreeEngine.Outcome after = cached.predict(symptoms);
+
+            assertNotEquals("Hay Fever", before);
+            assertEquals("Hay Fever", after.getDiseaseName());
+            assertEquals(version, after.getRuleSetVersion());
+            assertEquals(1, cached.size());
+        }
+    }
+}
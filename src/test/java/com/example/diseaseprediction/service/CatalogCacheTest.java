@@ -0,0 +1,150 @@
+package com.example.diseaseprediction.service;
+
+import com.example.diseaseprediction.repository.CatalogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for CatalogCache - symptom ids by name over an in-memory database.
+ */
+class CatalogCacheTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private CountingCatalogRepository repository;
+    private CatalogCache cache;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:catalog-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE symptoms (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "symptom_name VARCHAR(255) NOT NULL UNIQUE)");
+        jdbcTemplate.update("INSERT INTO symptoms (symptom_name) VALUES ('fever'), ('cough')");
+        repository = new CountingCatalogRepository(jdbcTemplate);
+        cache = new CatalogCache(repository, null, new DataSourceTransactionManager(dataSource));
+        cache.loadSymptoms();
+    }
+
+    @Nested
+    @DisplayName("Symptom Ids")
+    class SymptomIds {
+
+        @Test
+        @DisplayName("Catalogued symptoms should resolve without touching the database")
+        void shouldResolveKnownSymptomsFromMemory() {
+            Map<String, Long> ids = cache.symptomIds(Arrays.asList(" Fever", "COUGH", "fever"));
+
+            assertEquals(Map.of("fever", 1L, "cough", 2L), ids);
+            assertTrue(repository.batches.isEmpty());
+        }
+
+        @Test
+        @DisplayName("New symptoms should be inserted once, in one batch, and then served from memory")
+        void shouldInsertNewSymptomsInOneBatch() {
+            Map<String, Long> ids = cache.symptomIds(Arrays.asList("rash", "fever", "Joint Pain", "rash", " "));
+            Map<String, Long> again = cache.symptomIds(Arrays.asList("joint pain", "rash"));
+
+            assertEquals(List.of(List.of("joint pain", "rash")), repository.batches);
+            assertEquals(3, ids.size());
+            assertEquals(ids.get("rash"), again.get("rash"));
+            assertEquals(4, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM symptoms", Integer.class));
+        }
+
+        @Test
+        @DisplayName("Concurrent first inserts of the same symptom should be coalesced into one")
+        void shouldCoalesceConcurrentInserts() throws Exception {
+            repository.release = new CountDownLatch(1);
+            ExecutorService pool = Executors.newFixedThreadPool(2);
+            try {
+                Future<Map<String, Long>> first = pool.submit(() -> cache.symptomIds(List.of("chills")));
+                assertTrue(repository.inserting.await(5, TimeUnit.SECONDS));
+                Future<Map<String, Long>> second = pool.submit(() -> cache.symptomIds(List.of("Chills", "fever")));
+                Thread.sleep(100);
+                assertFalse(second.isDone());
+
+                repository.release.countDown();
+
+                assertEquals(first.get(5, TimeUnit.SECONDS).get("chills"), second.get(5, TimeUnit.SECONDS).get("chills"));
+                assertEquals(1, repository.batches.size());
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+
+        @Test
+        @DisplayName("A name the collation equates with a stored one should get that row's id, also for waiters")
+        void shouldResolveCollationEquivalentNames() throws Exception {
+            // What an accent-insensitive collation does: the insert is ignored and the IN lookup misses
+            repository.collation = Map.of("fevér", "fever");
+            repository.release = new CountDownLatch(1);
+            ExecutorService pool = Executors.newFixedThreadPool(2);
+            try {
+                Future<Map<String, Long>> first = pool.submit(() -> cache.symptomIds(List.of("fevér", "rash")));
+                assertTrue(repository.inserting.await(5, TimeUnit.SECONDS));
+                Future<Map<String, Long>> second = pool.submit(() -> cache.symptomIds(List.of("Fevér")));
+                Thread.sleep(100);
+
+                repository.release.countDown();
+
+                assertEquals(1L, first.get(5, TimeUnit.SECONDS).get("fevér"));
+                assertEquals(Map.of("fevér", 1L), second.get(5, TimeUnit.SECONDS));
+                assertNotNull(SymptomSetCodec.encode(first.get().values()));
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+    }
+
+    private static class CountingCatalogRepository extends CatalogRepository {
+        final List<List<String>> batches = new ArrayList<>();
+        final CountDownLatch inserting = new CountDownLatch(1);
+        volatile CountDownLatch release;
+        // Name -> the stored name the database considers equal
+        volatile Map<String, String> collation = Map.of();
+
+        CountingCatalogRepository(JdbcTemplate jdbcTemplate) {
+            super(jdbcTemplate);
+        }
+
+        @Override
+        public void insertSymptoms(List<String> names) {
+            synchronized (batches) {
+                batches.add(List.copyOf(names));
+            }
+            inserting.countDown();
+            if (release != null) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            super.insertSymptoms(names.stream().filter(name -> !collation.containsKey(name)).toList());
+        }
+
+        @Override
+        public Optional<Long> findSymptomId(String name) {
+            return super.findSymptomId(collation.getOrDefault(name, name));
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.diseaseprediction.service;
+
+import com.example.diseaseprediction.repository.CatalogRepository;
+import com.example.diseaseprediction.repository.ConfirmedDiagnosisRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ConfirmedDiagnosisService - Naive Bayes training stored in, and replayed from, an in-memory
+ * database.
+ */
+class ConfirmedDiagnosisServiceTest {
+
+    private static final List<String> FLU = List.of("fever", "cough", "body aches");
+
+    private JdbcTemplate jdbcTemplate;
+    private DriverManagerDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:diagnoses-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE symptoms (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "symptom_name VARCHAR(255) NOT NULL UNIQUE)");
+        jdbcTemplate.execute("CREATE TABLE confirmed_diagnoses (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "disease_name VARCHAR(255) NOT NULL, symptom_ids VARBINARY(1000), created_at TIMESTAMP)");
+    }
+
+    @Nested
+    @DisplayName("Persistence")
+    class Persistence {
+
+        @Test
+        @DisplayName("A restarted engine should replay the stored diagnoses")
+        void shouldReplayAfterRestart() {
+            Replica first = new Replica(true);
+            first.service.start();
+            first.service.record(FLU, "Flu (Influenza)");
+            first.service.record(List.of("sneezing"), "Common Cold");
+
+            Replica restarted = new Replica(true);
+            restarted.service.start();
+
+            assertEquals(1, restarted.engine.observations("Flu (Influenza)"));
+            assertEquals(1, restarted.engine.observations("Common Cold"));
+            assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM confirmed_diagnoses", Integer.class));
+        }
+
+        @Test
+        @DisplayName("A sync should count other replicas' diagnoses once, and never the replica's own again")
+        void shouldSyncOtherReplicas() {
+            Replica a = new Replica(true);
+            Replica b = new Replica(true);
+            a.service.start();
+            b.service.start();
+
+            a.service.record(FLU, "Flu (Influenza)");
+            b.service.record(FLU, "Flu (Influenza)");
+            b.service.record(FLU, "Flu (Influenza)");
+
+            assertEquals(2, a.service.sync());
+            assertEquals(0, a.service.sync());
+            assertEquals(1, b.service.sync());
+            assertEquals(3, a.engine.observations("Flu (Influenza)"));
+            assertEquals(3, b.engine.observations("Flu (Influenza)"));
+        }
+
+        @Test
+        @DisplayName("Nothing should be stored or replayed when the engine is not enabled")
+        void shouldIgnoreDisabledEngine() {
+            Replica enabled = new Replica(true);
+            enabled.service.start();
+            enabled.service.record(FLU, "Flu (Influenza)");
+            Replica disabled = new Replica(false);
+
+            disabled.service.start();
+
+            assertEquals(0, disabled.engine.observations("Flu (Influenza)"));
+            assertThrows(IllegalArgumentException.class, () -> disabled.service.record(FLU, "Flu (Influenza)"));
+            assertEquals(1, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM confirmed_diagnoses", Integer.class));
+        }
+    }
+
+    // One application instance over the shared database
+    private class Replica {
+        final NaiveBayesEngine engine;
+        final ConfirmedDiagnosisService service;
+
+        Replica(boolean enabled) {
+            engine = new NaiveBayesEngine(new DecisionTreeEngine(),
+                    enabled ? PredictionEngine.Type.NAIVE_BAYES : PredictionEngine.Type.DECISION_TREE, List.of());
+            CatalogRepository catalogRepository = new CatalogRepository(jdbcTemplate);
+            service = new ConfirmedDiagnosisService(new ConfirmedDiagnosisRepository(jdbcTemplate), catalogRepository,
+                    new CatalogCache(catalogRepository, null, new DataSourceTransactionManager(dataSource)), engine,
+                    Duration.ZERO);
+        }
+    }
+}
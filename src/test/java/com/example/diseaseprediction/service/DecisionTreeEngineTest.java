@@ -4,10 +4,23 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -138,6 +151,16 @@ class DecisionTreeEngineTest {
             assertNotNull(result1);
             assertNotNull(result2);
         }
+
+        @Test
+        @DisplayName("Should count repeated symptoms only once")
+        void shouldIgnoreDuplicateSymptoms() {
+            DecisionTreeEngine.Outcome once = engine.predict(Arrays.asList("sneezing", "runny nose"));
+            DecisionTreeEngine.Outcome twice = engine.predict(Arrays.asList("sneezing", "Sneezing ", "runny nose"));
+
+            assertEquals(once.getDiseaseName(), twice.getDiseaseName());
+            assertEquals(once.getConfidence(), twice.getConfidence());
+        }
     }
 
     @Nested
@@ -187,4 +210,493 @@ class DecisionTreeEngineTest {
             assertFalse(result.getPrecautions().isBlank());
         }
     }
+
+    @Nested
+    @DisplayName("Inverted Index Scoring")
+    class InvertedScoring {
+
+        @Test
+        @DisplayName("Should agree with bitset scoring")
+        void shouldAgreeWithBitsetScoring() {
+            DecisionTreeEngine inverted = new DecisionTreeEngine(DecisionTreeEngine.ScoringMode.INVERTED);
+            List<List<String>> inputs = List.of(
+                    Arrays.asList("fever", "cough", "sore throat", "fatigue", "body aches"),
+                    Arrays.asList("nausea", "vomiting", "diarrhea", "abdominal pain"),
+                    Arrays.asList("headache", "dizziness"),
+                    Arrays.asList("fatigue"),
+                    Arrays.asList("unknown_symptom"));
+
+            for (List<String> symptoms : inputs) {
+                DecisionTreeEngine.Outcome expected = engine.predict(symptoms);
+                DecisionTreeEngine.Outcome actual = inverted.predict(symptoms);
+
+                assertEquals(expected.getDiseaseName(), actual.getDiseaseName(), symptoms.toString());
+                assertEquals(expected.getConfidence(), actual.getConfidence(), symptoms.toString());
+            }
+        }
+
+        @Test
+        @DisplayName("Should agree with bitset scoring over sparse rule rows")
+        void shouldAgreeWithSparseRows() {
+            Map<String, List<String>> rules = new LinkedHashMap<>();
+            Random random = new Random(5);
+            for (int d = 0; d < 1000; d++) {
+                List<String> rule = new ArrayList<>();
+                for (int i = 0; i < 6; i++) {
+                    rule.add("symptom " + random.nextInt(20000));
+                }
+                rules.put("Disease " + d, rule);
+            }
+            DecisionTreeEngine bitset = new DecisionTreeEngine(DecisionTreeEngine.ScoringMode.BITSET, rules, Map.of());
+            DecisionTreeEngine inverted = new DecisionTreeEngine(DecisionTreeEngine.ScoringMode.INVERTED, rules, Map.of());
+            assertNull(bitset.snapshot().ruleBits(), "a wide vocabulary should be kept as sparse rows");
+
+            List<String> known = List.copyOf(rules.get("Disease 0"));
+            for (int i = 0; i < 100; i++) {
+                List<String> symptoms = List.of(known.get(random.nextInt(known.size())),
+                        rules.get("Disease " + random.nextInt(1000)).get(0), "symptom " + random.nextInt(20000));
+                DecisionTreeEngine.Outcome expected = inverted.predict(symptoms);
+                DecisionTreeEngine.Outcome actual = bitset.predict(symptoms);
+
+                assertEquals(expected.getDiseaseName(), actual.getDiseaseName(), symptoms.toString());
+                assertEquals(expected.getConfidence(), actual.getConfidence(), symptoms.toString());
+                assertEquals(names(inverted.predictTopK(symptoms, 5)), names(bitset.predictTopK(symptoms, 5)));
+
+                Set<String> explained = new HashSet<>(actual.getMatchedSymptoms());
+                explained.addAll(actual.getMissingSymptoms());
+                assertEquals(new HashSet<>(rules.get(actual.getDiseaseName())), explained);
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Explanations")
+    class Explanations {
+
+        private final Map<String, List<String>> rules = Map.of(
+                "Hay Fever", List.of("sneezing", "itchy eyes", "runny nose"),
+                "Flu", List.of("fever", "cough"));
+
+        @Test
+        @DisplayName("Should list matched and missing rule symptoms of the prediction")
+        void shouldExplainPrediction() {
+            DecisionTreeEngine custom = new DecisionTreeEngine(DecisionTreeEngine.ScoringMode.BITSET, rules, Map.of());
+
+            DecisionTreeEngine.Outcome outcome = custom.predict(Arrays.asList("Sneezing", "runny nose", "cough", "rash"));
+
+            assertEquals("Hay Fever", outcome.getDiseaseName());
+            assertEquals(List.of("sneezing", "runny nose"), outcome.getMatchedSymptoms());
+            assertEquals(List.of("itchy eyes"), outcome.getMissingSymptoms());
+        }
+
+        @Test
+        @DisplayName("Should explain every top-K candidate in every scoring mode")
+        void shouldExplainCandidates() {
+            for (DecisionTreeEngine.ScoringMode mode : DecisionTreeEngine.ScoringMode.values()) {
+                DecisionTreeEngine custom = new DecisionTreeEngine(mode, rules, Map.of());
+
+                List<DecisionTreeEngine.Outcome> outcomes = custom.predictTopK(Arrays.asList("sneezing", "cough"), 2);
+
+                assertEquals(List.of("Flu", "Hay Fever"), names(outcomes), mode.name());
+                assertEquals(List.of("cough"), outcomes.get(0).getMatchedSymptoms(), mode.name());
+                assertEquals(List.of("fever"), outcomes.get(0).getMissingSymptoms(), mode.name());
+                assertEquals(List.of("sneezing"), outcomes.get(1).getMatchedSymptoms(), mode.name());
+                assertEquals(List.of("itchy eyes", "runny nose"), outcomes.get(1).getMissingSymptoms(), mode.name());
+            }
+        }
+
+        @Test
+        @DisplayName("Should not explain a prediction made without symptoms")
+        void shouldNotExplainEmptyInput() {
+            DecisionTreeEngine.Outcome outcome = engine.predict(List.of());
+
+            assertTrue(outcome.getMatchedSymptoms().isEmpty());
+            assertTrue(outcome.getMissingSymptoms().isEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("Vector Scoring")
+    class VectorScoring {
+
+        @Test
+        @DisplayName("Should agree with bitset scoring on a catalog wider than one vector")
+        void shouldAgreeWithBitsetScoring() {
+            Map<String, List<String>> rules = new LinkedHashMap<>();
+            Random random = new Random(3);
+            for (int d = 0; d < 300; d++) {
+                List<String> rule = new ArrayList<>();
+                for (int i = 0; i < 6; i++) {
+                    rule.add("symptom " + random.nextInt(700));
+                }
+                rules.put("Disease " + d, rule);
+            }
+            DecisionTreeEngine bitset = new DecisionTreeEngine(DecisionTreeEngine.ScoringMode.BITSET, rules, Map.of());
+            DecisionTreeEngine vector = new DecisionTreeEngine(DecisionTreeEngine.ScoringMode.VECTOR, rules, Map.of());
+
+            for (int i = 0; i < 100; i++) {
+                List<String> symptoms = List.of("symptom " + random.nextInt(700), "symptom " + random.nextInt(700),
+                        "symptom " + random.nextInt(700));
+                assertEquals(bitset.predict(symptoms).getDiseaseName(), vector.predict(symptoms).getDiseaseName());
+                assertEquals(names(bitset.predictTopK(symptoms, 5)), names(vector.predictTopK(symptoms, 5)));
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Compiled Scoring")
+    class CompiledScoring {
+
+        @Test
+        @DisplayName("Should agree with bitset scoring on dense and sparse catalogs spread over many methods")
+        void shouldAgreeWithBitsetScoring() {
+            Random random = new Random(11);
+            for (int vocabulary : List.of(700, 20000)) {
+                Map<String, List<String>> rules = new LinkedHashMap<>();
+                for (int d = 0; d < 2000; d++) {
+                    List<String> rule = new ArrayList<>();
+                    for (int i = 0; i < 1 + random.nextInt(8); i++) {
+                        rule.add("symptom " + random.nextInt(vocabulary));
+                    }
+                    rules.put("Disease " + d, rule);
+                }
+                DecisionTreeEngine bitset = new DecisionTreeEngine(DecisionTreeEngine.ScoringMode.BITSET, rules, Map.of());
+                DecisionTreeEngine compiled = new DecisionTreeEngine(DecisionTreeEngine.ScoringMode.COMPILED, rules, Map.of());
+
+                for (int i = 0; i < 100; i++) {
+                    List<String> symptoms = List.of(rules.get("Disease " + random.nextInt(2000)).get(0),
+                            "symptom " + random.nextInt(vocabulary), "symptom " + random.nextInt(vocabulary));
+                    DecisionTreeEngine.Outcome expected = bitset.predict(symptoms);
+                    DecisionTreeEngine.Outcome actual = compiled.predict(symptoms);
+
+                    assertEquals(expected.getDiseaseName(), actual.getDiseaseName(), symptoms.toString());
+                    assertEquals(expected.getConfidence(), actual.getConfidence(), symptoms.toString());
+                    assertEquals(names(bitset.predictTopK(symptoms, 5)), names(compiled.predictTopK(symptoms, 5)));
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("Should score with the rules of the latest reload and model file")
+        void shouldRecompileOnRuleChanges(@TempDir Path tempDir) throws IOException {
+            DecisionTreeEngine compiled = new DecisionTreeEngine(DecisionTreeEngine.ScoringMode.COMPILED);
+            Path modelFile = tempDir.resolve("rules.bin");
+            engine.export(modelFile);
+
+            long version = compiled.reload(Map.of("Hay Fever", List.of("sneezing", "itchy eyes")), Map.of());
+            DecisionTreeEngine.Outcome reloaded = compiled.predict(Arrays.asList("sneezing"));
+            compiled.open(modelFile);
+            DecisionTreeEngine.Outcome opened = compiled.predict(Arrays.asList("fever", "cough", "fatigue"));
+
+            assertEquals("Hay Fever", reloaded.getDiseaseName());
+            assertEquals(version, reloaded.getRuleSetVersion());
+            assertEquals(engine.predict(Arrays.asList("fever", "cough", "fatigue")).getDiseaseName(),
+                    opened.getDiseaseName());
+        }
+    }
+
+    @Nested
+    @DisplayName("Weighted Scoring")
+    class WeightedScoring {
+
+        private final Map<String, List<String>> rules = new LinkedHashMap<>();
+
+        @BeforeEach
+        void setUpRules() {
+            rules.put("Cold", List.of("fatigue", "cough"));
+            rules.put("Anosmia", List.of("loss of smell", "congestion"));
+        }
+
+        @Test
+        @DisplayName("A rare symptom should outweigh a common one")
+        void rareSymptomShouldOutweighCommonOne() {
+            rules.put("Flu", List.of("fatigue", "fever"));
+            rules.put("Mono", List.of("fatigue", "sore throat"));
+            DecisionTreeEngine bitset = new DecisionTreeEngine(DecisionTreeEngine.ScoringMode.BITSET, rules, Map.of());
+            DecisionTreeEngine weighted = new DecisionTreeEngine(DecisionTreeEngine.ScoringMode.WEIGHTED, rules, Map.of());
+            List<String> symptoms = Arrays.asList("fatigue", "loss of smell");
+
+            DecisionTreeEngine.Outcome outcome = weighted.predict(symptoms);
+
+            assertEquals("Cold", bitset.predict(symptoms).getDiseaseName());
+            assertEquals("Anosmia", outcome.getDiseaseName());
+            assertEquals(0.5, outcome.getConfidence(), 1e-4);
+            assertEquals(List.of("loss of smell"), outcome.getMatchedSymptoms());
+            // fatigue is in 3 of 4 rules: ln(5/3) / (ln(5/3) + ln 5)
+            assertEquals(Math.log(5 / 3.0) / (Math.log(5 / 3.0) + Math.log(5)),
+                    weighted.predictTopK(symptoms, 4).get(1).getConfidence(), 1e-4);
+        }
+
+        @Test
+        @DisplayName("Should rank like a direct weighted computation")
+        void shouldMatchReferenceScores() {
+            Map<String, List<String>> catalog = new LinkedHashMap<>();
+            Random random = new Random(13);
+            for (int d = 0; d < 400; d++) {
+                List<String> rule = new ArrayList<>();
+                for (int i = 0; i < 2 + random.nextInt(6); i++) {
+                    rule.add("symptom " + (int) Math.sqrt(random.nextInt(250_000)));
+                }
+                catalog.put("Disease " + d, rule);
+            }
+            DecisionTreeEngine weighted = new DecisionTreeEngine(DecisionTreeEngine.ScoringMode.WEIGHTED, catalog, Map.of());
+            Map<String, Double> idf = new HashMap<>();
+            catalog.values().stream().flatMap(rule -> rule.stream().distinct())
+                    .forEach(symptom -> idf.merge(symptom, 1.0, Double::sum));
+            idf.replaceAll((symptom, df) -> Math.log((catalog.size() + 1) / df));
+
+            for (int i = 0; i < 100; i++) {
+                Set<String> symptoms = Set.of("symptom " + random.nextInt(500), "symptom " + random.nextInt(500),
+                        "symptom " + (200 + random.nextInt(300)));
+                Map<String, Double> reference = new HashMap<>();
+                catalog.forEach((disease, rule) -> {
+                    Set<String> distinct = new HashSet<>(rule);
+                    double norm = distinct.stream().mapToDouble(idf::get).sum();
+                    double matched = distinct.stream().filter(symptoms::contains).mapToDouble(idf::get).sum();
+                    reference.put(disease, matched / norm);
+                });
+                double best = reference.values().stream().mapToDouble(Double::doubleValue).max().orElseThrow();
+                if (best == 0) {
+                    continue;
+                }
+
+                List<DecisionTreeEngine.Outcome> outcomes = weighted.predictTopK(List.copyOf(symptoms), 5);
+
+                assertEquals(weighted.predict(List.copyOf(symptoms)).getDiseaseName(), outcomes.get(0).getDiseaseName());
+                assertEquals(best, reference.get(outcomes.get(0).getDiseaseName()), 1e-4, symptoms.toString());
+                for (DecisionTreeEngine.Outcome outcome : outcomes) {
+                    assertEquals(Math.max(0.05, Math.min(0.99, reference.get(outcome.getDiseaseName()))),
+                            outcome.getConfidence(), 1e-4);
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("Should reweight symptoms when the rules change")
+        void shouldReweightAfterReload() {
+            DecisionTreeEngine weighted = new DecisionTreeEngine(DecisionTreeEngine.ScoringMode.WEIGHTED, rules, Map.of());
+            List<String> symptoms = Arrays.asList("fatigue", "loss of smell");
+            String before = weighted.predict(symptoms).getDiseaseName();
+
+            rules.put("Flu", List.of("fatigue", "fever"));
+            rules.put("Mono", List.of("fatigue", "sore throat"));
+            weighted.reload(rules, Map.of());
+
+            // Equal weights tie and keep the earlier rule until fatigue becomes common
+            assertEquals("Cold", before);
+            assertEquals("Anosmia", weighted.predict(symptoms).getDiseaseName());
+        }
+    }
+
+    @Nested
+    @DisplayName("Top-K Candidates")
+    class TopKCandidates {
+
+        @Test
+        @DisplayName("First candidate should match the single prediction")
+        void firstCandidateShouldMatchPrediction() {
+            List<String> symptoms = Arrays.asList("fever", "cough", "fatigue", "headache");
+
+            List<DecisionTreeEngine.Outcome> candidates = engine.predictTopK(symptoms, 5);
+            DecisionTreeEngine.Outcome best = engine.predict(symptoms);
+
+            assertEquals(5, candidates.size());
+            assertEquals(best.getDiseaseName(), candidates.get(0).getDiseaseName());
+            assertEquals(best.getConfidence(), candidates.get(0).getConfidence());
+        }
+
+        @Test
+        @DisplayName("Candidates should be ranked by confidence in both scoring modes")
+        void candidatesShouldBeRanked() {
+            List<String> symptoms = Arrays.asList("nausea", "vomiting", "headache", "fever");
+            DecisionTreeEngine inverted = new DecisionTreeEngine(DecisionTreeEngine.ScoringMode.INVERTED);
+
+            List<DecisionTreeEngine.Outcome> bitset = engine.predictTopK(symptoms, 8);
+            List<DecisionTreeEngine.Outcome> sparse = inverted.predictTopK(symptoms, 8);
+
+            for (int i = 1; i < bitset.size(); i++) {
+                assertTrue(bitset.get(i - 1).getConfidence() >= bitset.get(i).getConfidence());
+            }
+            assertEquals(bitset.stream().map(DecisionTreeEngine.Outcome::getDiseaseName).toList(),
+                    sparse.stream().map(DecisionTreeEngine.Outcome::getDiseaseName).toList());
+        }
+
+        @Test
+        @DisplayName("Should fall back to a single outcome when nothing matches")
+        void shouldFallBackWhenNothingMatches() {
+            List<DecisionTreeEngine.Outcome> candidates = engine.predictTopK(Arrays.asList("unknown_symptom"), 3);
+
+            assertEquals(1, candidates.size());
+        }
+    }
+
+    @Nested
+    @DisplayName("Rule Reloading")
+    class RuleReloading {
+
+        @Test
+        @DisplayName("Reload should swap in the new rules under a new version")
+        void reloadShouldSwapRules() {
+            long before = engine.getRuleSetVersion();
+
+            long after = engine.reload(
+                    Map.of("Hay Fever", List.of("sneezing", "itchy eyes")),
+                    Map.of("Hay Fever", "Avoid pollen."));
+            DecisionTreeEngine.Outcome result = engine.predict(Arrays.asList("sneezing", "itchy eyes"));
+
+            assertTrue(after > before);
+            assertEquals("Hay Fever", result.getDiseaseName());
+            assertEquals("Avoid pollen.", result.getPrecautions());
+            assertEquals(after, result.getRuleSetVersion());
+        }
+
+        @Test
+        @DisplayName("Reloading an empty rule set should stop predicting the removed diseases in every mode")
+        void reloadShouldPublishEmptyRuleSet(@TempDir Path tempDir) throws IOException {
+            for (DecisionTreeEngine.ScoringMode mode : DecisionTreeEngine.ScoringMode.values()) {
+                DecisionTreeEngine custom = new DecisionTreeEngine(mode);
+                long before = custom.getRuleSetVersion();
+
+                long after = custom.reload(Map.of(), Map.of());
+                Path modelFile = tempDir.resolve(mode + ".bin");
+                custom.export(modelFile);
+                DecisionTreeEngine mapped = new DecisionTreeEngine(mode);
+                mapped.open(modelFile);
+
+                assertTrue(after > before, mode.toString());
+                assertEquals("Unknown", custom.predict(Arrays.asList("fever", "cough")).getDiseaseName(), mode.toString());
+                assertTrue(custom.predictTopK(Arrays.asList("fever", "cough"), 3).stream()
+                        .allMatch(o -> o.getDiseaseName().equals("Unknown")), mode.toString());
+                assertEquals("Unknown", mapped.predict(Arrays.asList("fever")).getDiseaseName(), mode.toString());
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Mapped Model File")
+    class MappedModelFile {
+
+        @TempDir
+        Path tempDir;
+
+        @Test
+        @DisplayName("Mapped model should score like the compiled rules in both modes")
+        void mappedModelShouldMatchCompiledRules() throws IOException {
+            Path modelFile = tempDir.resolve("rules.bin");
+            engine.export(modelFile);
+            DecisionTreeEngine mapped = new DecisionTreeEngine(DecisionTreeEngine.ScoringMode.INVERTED);
+            long version = mapped.open(modelFile);
+            List<List<String>> inputs = List.of(
+                    Arrays.asList("Fever", "cough", "sore throat", "fatigue", "body aches"),
+                    Arrays.asList("nausea", "vomiting", "headache", "fever"),
+                    Arrays.asList("unknown_symptom"));
+
+            assertEquals(engine.getRuleSetVersion(), version);
+            for (List<String> symptoms : inputs) {
+                List<DecisionTreeEngine.Outcome> expected = engine.predictTopK(symptoms, 5);
+                List<DecisionTreeEngine.Outcome> actual = mapped.predictTopK(symptoms, 5);
+
+                assertEquals(expected.size(), actual.size(), symptoms.toString());
+                for (int i = 0; i < expected.size(); i++) {
+                    assertEquals(expected.get(i).getDiseaseName(), actual.get(i).getDiseaseName());
+                    assertEquals(expected.get(i).getConfidence(), actual.get(i).getConfidence());
+                    assertEquals(expected.get(i).getPrecautions(), actual.get(i).getPrecautions());
+                    assertEquals(expected.get(i).getMatchedSymptoms(), actual.get(i).getMatchedSymptoms());
+                    assertEquals(expected.get(i).getMissingSymptoms(), actual.get(i).getMissingSymptoms());
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("Mapped model of a wide vocabulary should store sparse rows and score like the heap rules")
+        void mappedSparseModelShouldMatchHeapRules() throws IOException {
+            Map<String, List<String>> rules = new LinkedHashMap<>();
+            Random random = new Random(5);
+            for (int d = 0; d < 1000; d++) {
+                List<String> rule = new ArrayList<>();
+                for (int i = 0; i < 6; i++) {
+                    rule.add("symptom " + random.nextInt(20000));
+                }
+                rules.put("Disease " + d, rule);
+            }
+            DecisionTreeEngine heap = new DecisionTreeEngine(DecisionTreeEngine.ScoringMode.INVERTED, rules, Map.of());
+            Path modelFile = tempDir.resolve("rules.bin");
+            heap.export(modelFile);
+            // A dense matrix would take 1000 rows of 313 words, about 2.5 MB
+            assertTrue(Files.size(modelFile) < 1_000_000, "rules should be written as sparse rows");
+
+            for (DecisionTreeEngine.ScoringMode mode : List.of(DecisionTreeEngine.ScoringMode.INVERTED,
+                    DecisionTreeEngine.ScoringMode.BITSET)) {
+                DecisionTreeEngine mapped = new DecisionTreeEngine(mode);
+                mapped.open(modelFile);
+                for (int i = 0; i < 50; i++) {
+                    List<String> symptoms = List.of(rules.get("Disease " + random.nextInt(1000)).get(0),
+                            rules.get("Disease " + random.nextInt(1000)).get(1), "symptom " + random.nextInt(20000));
+                    List<DecisionTreeEngine.Outcome> expected = heap.predictTopK(symptoms, 5);
+                    List<DecisionTreeEngine.Outcome> actual = mapped.predictTopK(symptoms, 5);
+
+                    assertEquals(names(expected), names(actual), mode + " " + symptoms);
+                    for (int k = 0; k < expected.size(); k++) {
+                        assertEquals(expected.get(k).getConfidence(), actual.get(k).getConfidence());
+                        assertEquals(expected.get(k).getMatchedSymptoms(), actual.get(k).getMatchedSymptoms());
+                        assertEquals(expected.get(k).getMissingSymptoms(), actual.get(k).getMissingSymptoms());
+                    }
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("Symptom hash table should be at most half full")
+        void shouldSizeHashTableForHalfLoad() throws IOException {
+            Map<String, List<String>> rules = new LinkedHashMap<>();
+            for (int d = 0; d < 100; d++) {
+                List<String> rule = new ArrayList<>();
+                for (int i = 0; i < 10; i++) {
+                    rule.add("symptom " + (d * 10 + i));
+                }
+                rules.put("Disease " + d, rule);
+            }
+            Path modelFile = tempDir.resolve("rules.bin");
+            new DecisionTreeEngine(DecisionTreeEngine.ScoringMode.INVERTED, rules, Map.of()).export(modelFile);
+
+            ByteBuffer header = ByteBuffer.wrap(Files.readAllBytes(modelFile)).order(ByteOrder.LITTLE_ENDIAN);
+            // 1000 symptoms: 2048 slots, not 1024
+            assertEquals(1000, header.getInt(20));
+            assertEquals(2048, header.getInt(28));
+            DecisionTreeEngine mapped = new DecisionTreeEngine(DecisionTreeEngine.ScoringMode.INVERTED);
+            mapped.open(modelFile);
+            assertEquals("Disease 42",
+                    mapped.predict(List.of("symptom 420", "symptom 421", "no such symptom")).getDiseaseName());
+        }
+
+        @Test
+        @DisplayName("Reload after opening a model file should move to a newer version")
+        void reloadAfterOpenShouldUseNewerVersion() throws IOException {
+            Path modelFile = tempDir.resolve("rules.bin");
+            engine.reload(Map.of("Hay Fever", List.of("sneezing", "itchy eyes")), Map.of());
+            engine.reload(Map.of("Hay Fever", List.of("sneezing", "itchy eyes")), Map.of());
+            engine.export(modelFile);
+            DecisionTreeEngine fresh = new DecisionTreeEngine();
+
+            long opened = fresh.open(modelFile);
+            DecisionTreeEngine.Outcome result = fresh.predict(Arrays.asList("sneezing"));
+            long reloaded = fresh.reload(DecisionTreeEngine.defaultRules(), DecisionTreeEngine.defaultPrecautions());
+
+            assertEquals("Hay Fever", result.getDiseaseName());
+            assertEquals(opened, result.getRuleSetVersion());
+            assertTrue(reloaded > opened);
+        }
+
+        @Test
+        @DisplayName("Should reject a file that is not a rule model")
+        void shouldRejectForeignFile() throws IOException {
+            Path modelFile = Files.write(tempDir.resolve("rules.bin"), new byte[64]);
+
+            assertThrows(IllegalArgumentException.class, () -> engine.open(modelFile));
+        }
+    }
+
+    private static List<String> names(List<DecisionTreeEngine.Outcome> outcomes) {
+        return outcomes.stream().map(DecisionTreeEngine.Outcome::getDiseaseName).toList();
+    }
 }
@@ -0,0 +1,127 @@
+package com.example.diseaseprediction.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for DecisionTreeTrainer - learning a tree from labeled symptom rows.
+ */
+class DecisionTreeTrainerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Nested
+    @DisplayName("Training Tests")
+    class TrainingTests {
+
+        @Test
+        @DisplayName("Should classify every training row of a separable dataset")
+        void shouldFitSeparableDataset() throws IOException {
+            Path csv = Files.write(tempDir.resolve("train.csv"), List.of(
+                    "Disease,Symptom_1,Symptom_2,Symptom_3",
+                    "Common Cold,sneezing,runny nose,",
+                    "Common Cold,sneezing,sore throat,",
+                    "Flu (Influenza),fever,body aches,chills",
+                    "Flu (Influenza),fever,cough,",
+                    "Migraine,severe headache,nausea,",
+                    "Migraine,severe headache,sensitivity to light,"));
+
+            CompiledTree tree = new DecisionTreeTrainer().train(SymptomDataset.read(csv));
+
+            assertEquals("Common Cold", predict(tree, "Sneezing", "runny nose"));
+            assertEquals("Flu (Influenza)", predict(tree, "fever", "chills"));
+            assertEquals("Migraine", predict(tree, "severe headache"));
+            assertEquals(6, tree.trainingRows());
+        }
+
+        @Test
+        @DisplayName("Parallel and single-threaded training should build the same tree")
+        void parallelTrainingShouldBeDeterministic() {
+            SymptomDataset data = SymptomDataset.of(noisyExamples(40, 60, 3000));
+            ForkJoinPool single = new ForkJoinPool(1);
+            ForkJoinPool parallel = new ForkJoinPool(4);
+            try {
+                CompiledTree a = new DecisionTreeTrainer(DecisionTreeTrainer.DEFAULT_MAX_DEPTH, 2, single).train(data);
+                CompiledTree b = new DecisionTreeTrainer(DecisionTreeTrainer.DEFAULT_MAX_DEPTH, 2, parallel).train(data);
+
+                assertEquals(a.nodeCount(), b.nodeCount());
+                Random random = new Random(7);
+                for (int i = 0; i < 200; i++) {
+                    List<String> symptoms = List.of("symptom " + random.nextInt(60), "symptom " + random.nextInt(60));
+                    assertEquals(a.label(a.leafStart(a.leaf(a.encode(symptoms)))),
+                            b.label(b.leafStart(b.leaf(b.encode(symptoms)))));
+                }
+            } finally {
+                single.shutdown();
+                parallel.shutdown();
+            }
+        }
+
+        @Test
+        @DisplayName("Max depth zero should yield a single leaf with the majority label")
+        void maxDepthZeroShouldYieldMajorityLeaf() {
+            SymptomDataset data = SymptomDataset.of(Map.of(
+                    "Asthma", List.of(List.of("wheezing"), List.of("wheezing", "cough")),
+                    "Bronchitis", List.of(List.of("cough"))));
+
+            CompiledTree tree = new DecisionTreeTrainer(0, 2, ForkJoinPool.commonPool()).train(data);
+
+            assertEquals(1, tree.nodeCount());
+            assertEquals("Asthma", predict(tree, "cough"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Edge Cases")
+    class EdgeCases {
+
+        @Test
+        @DisplayName("Should reject rows without a disease label")
+        void shouldRejectMissingLabel() throws IOException {
+            Path csv = Files.write(tempDir.resolve("bad.csv"), List.of("Asthma,wheezing", ",cough"));
+
+            assertThrows(IllegalArgumentException.class, () -> SymptomDataset.read(csv));
+        }
+
+        @Test
+        @DisplayName("Should reject an empty dataset")
+        void shouldRejectEmptyDataset() {
+            assertThrows(IllegalArgumentException.class,
+                    () -> new DecisionTreeTrainer().train(SymptomDataset.of(Map.of())));
+        }
+    }
+
+    private static String predict(CompiledTree tree, String... symptoms) {
+        return tree.label(tree.leafStart(tree.leaf(tree.encode(Arrays.asList(symptoms)))));
+    }
+
+    private static Map<String, List<List<String>>> noisyExamples(int diseases, int symptoms, int rows) {
+        Random random = new Random(42);
+        Map<String, List<List<String>>> examples = new LinkedHashMap<>();
+        for (int i = 0; i < rows; i++) {
+            int disease = random.nextInt(diseases);
+            List<String> row = new ArrayList<>();
+            row.add("symptom " + disease % symptoms);
+            row.add("symptom " + (disease * 7 + 3) % symptoms);
+            row.add("symptom " + random.nextInt(symptoms));
+            examples.computeIfAbsent("Disease " + disease, d -> new ArrayList<>()).add(row);
+        }
+        return examples;
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.diseaseprediction.service;
+
+import com.example.diseaseprediction.support.SyntheticCatalog;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Capacity-planning suite: builds the engine over synthetic catalogs from 1k to 1M diseases and records
+ * build time, index heap footprint and per-query latency for each scoring mode. Excluded from the default
+ * build; run with {@code ./mvnw -Pscaling test}. Results go to the log and to
+ * {@code target/scaling-report.csv}. Heap figures are used-heap deltas around explicit GCs, so treat them
+ * as estimates.
+ */
+@Tag("scaling")
+class EngineScalingTest {
+
+    private static final Logger log = LoggerFactory.getLogger(EngineScalingTest.class);
+
+    private static final int QUERY_SIZE = 5;
+    private static PrintWriter report;
+
+    @BeforeAll
+    static void openReport() throws IOException {
+        Path path = Path.of("target", "scaling-report.csv");
+        Files.createDirectories(path.getParent());
+        report = new PrintWriter(Files.newBufferedWriter(path));
+        report.println("diseases,symptoms,layout,build_ms,index_mb,mode,queries,p50_us,p99_us,max_us");
+    }
+
+    @AfterAll
+    static void closeReport() {
+        report.close();
+    }
+
+    @ParameterizedTest(name = "{0} diseases x {1} symptoms")
+    @CsvSource({
+            "1000, 100",
+            "10000, 1000",
+            "100000, 10000",
+            "1000000, 50000"
+    })
+    @DisplayName("Engine build, footprint and latency by catalog size")
+    void measure(int diseases, int symptoms) {
+        SyntheticCatalog catalog = SyntheticCatalog.generate(diseases, symptoms, 42);
+        Random random = new Random(7);
+        List<List<String>> queries = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            queries.add(catalog.patientQuery(random, QUERY_SIZE));
+        }
+
+        long heapBefore = usedHeap();
+        long started = System.nanoTime();
+        DecisionTreeEngine bitset = new DecisionTreeEngine(DecisionTreeEngine.ScoringMode.BITSET,
+                catalog.rules, catalog.precautions);
+        long buildMillis = (System.nanoTime() - started) / 1_000_000;
+        double indexMb = (usedHeap() - heapBefore) / (1024.0 * 1024.0);
+        String layout = bitset.snapshot().ruleBits() != null ? "dense" : "sparse";
+
+        DecisionTreeEngine inverted = new DecisionTreeEngine(DecisionTreeEngine.ScoringMode.INVERTED,
+                catalog.rules, catalog.precautions);
+        for (List<String> query : queries.subList(0, 20)) {
+            assertEquals(bitset.predict(query).getDiseaseName(), inverted.predict(query).getDiseaseName());
+        }
+
+        for (DecisionTreeEngine engine : List.of(bitset, inverted)) {
+            // A full scan of a million rules takes milliseconds, so fewer queries are timed at that size
+            int count = engine.getScoringMode() == DecisionTreeEngine.ScoringMode.BITSET && diseases >= 100_000
+                    ? 200 : queries.size();
+            long[] latencies = time(engine, queries.subList(0, count));
+            log.info("{} diseases x {} symptoms ({} rows): build {} ms, index {} MB, {} p50 {} us, p99 {} us, max {} us",
+                    diseases, symptoms, layout, buildMillis, String.format("%.1f", indexMb), engine.getScoringMode(),
+                    micros(latencies, 0.50), micros(latencies, 0.99), micros(latencies, 1.0));
+            report.printf("%d,%d,%s,%d,%.1f,%s,%d,%d,%d,%d%n", diseases, symptoms, layout, buildMillis, indexMb,
+                    engine.getScoringMode(), count, micros(latencies, 0.50), micros(latencies, 0.99),
+                    micros(latencies, 1.0));
+        }
+        report.flush();
+    }
+
+    private static long[] time(DecisionTreeEngine engine, List<List<String>> queries) {
+        // Warm up the scoring path before timing it
+        for (int round = 0; round < 3; round++) {
+            for (List<String> query : queries.subList(0, Math.min(200, queries.size()))) {
+                engine.predict(query);
+            }
+        }
+        long[] latencies = new long[queries.size()];
+        for (int i = 0; i < latencies.length; i++) {
+            long started = System.nanoTime();
+            engine.predict(queries.get(i));
+            latencies[i] = System.nanoTime() - started;
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    private static long micros(long[] sortedNanos, double quantile) {
+        int index = (int) Math.min(sortedNanos.length - 1, Math.ceil(quantile * sortedNanos.length) - 1);
+        return sortedNanos[Math.max(0, index)] / 1_000;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
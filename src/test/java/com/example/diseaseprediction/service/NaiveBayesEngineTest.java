@@ -0,0 +1,170 @@
+package com.example.diseaseprediction.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for NaiveBayesEngine - the incrementally trained scorer.
+ */
+class NaiveBayesEngineTest {
+
+    private DecisionTreeEngine rules;
+    private NaiveBayesEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        rules = new DecisionTreeEngine();
+        engine = new NaiveBayesEngine(rules);
+    }
+
+    @Nested
+    @DisplayName("Prediction Tests")
+    class PredictionTests {
+
+        @Test
+        @DisplayName("Should predict the disease whose rule matches exactly")
+        void shouldPredictExactRule() {
+            DecisionTreeEngine.Outcome result = engine.predict(
+                    Arrays.asList("sneezing", "runny nose", "sore throat", "nasal congestion", "mild fever"));
+
+            assertEquals("Common Cold", result.getDiseaseName());
+            assertTrue(result.getConfidence() > 0.5);
+            assertEquals(rules.getRuleSetVersion(), result.getRuleSetVersion());
+        }
+
+        @Test
+        @DisplayName("Top-K candidates should be ranked and start with the single prediction")
+        void topKShouldBeRanked() {
+            List<String> symptoms = Arrays.asList("nausea", "vomiting", "headache", "fever");
+
+            List<DecisionTreeEngine.Outcome> candidates = engine.predictTopK(symptoms, 5);
+
+            assertEquals(5, candidates.size());
+            assertEquals(engine.predict(symptoms).getDiseaseName(), candidates.get(0).getDiseaseName());
+            for (int i = 1; i < candidates.size(); i++) {
+                assertTrue(candidates.get(i - 1).getConfidence() >= candidates.get(i).getConfidence());
+            }
+        }
+
+        @Test
+        @DisplayName("Should return Unknown for empty symptoms")
+        void shouldReturnUnknownForEmptySymptoms() {
+            assertEquals("Unknown", engine.predict(List.of()).getDiseaseName());
+        }
+
+        @Test
+        @DisplayName("Should score a catalog of more (disease, symptom) pairs than an int can index")
+        void shouldScoreWideCatalog() {
+            Map<String, List<String>> wide = new LinkedHashMap<>();
+            for (int d = 0; d < 50_000; d++) {
+                List<String> rule = new ArrayList<>();
+                for (int i = 0; i < 3; i++) {
+                    rule.add("symptom " + (d * 3 + i) % 60_000);
+                }
+                wide.put("Disease " + d, rule);
+            }
+            NaiveBayesEngine wideEngine = new NaiveBayesEngine(
+                    new DecisionTreeEngine(DecisionTreeEngine.ScoringMode.INVERTED, wide, Map.of()));
+
+            assertEquals("Disease 42", wideEngine.predict(wide.get("Disease 42")).getDiseaseName());
+            wideEngine.observe(List.of("symptom 59999", "symptom 0"), "Disease 7");
+            assertEquals("Disease 7", wideEngine.predict(List.of("symptom 59999", "symptom 0")).getDiseaseName());
+            assertEquals(1, wideEngine.observations("Disease 7"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Incremental Training")
+    class IncrementalTraining {
+
+        @Test
+        @DisplayName("Confirmed diagnoses should shift an ambiguous prediction")
+        void confirmedDiagnosesShouldShiftPrediction() {
+            List<String> symptoms = Arrays.asList("nausea", "vomiting", "diarrhea", "abdominal pain", "fever");
+            String before = engine.predict(symptoms).getDiseaseName();
+            String other = before.equals("Food Poisoning") ? "Gastroenteritis" : "Food Poisoning";
+
+            for (int i = 0; i < 20; i++) {
+                engine.observe(symptoms, other);
+            }
+
+            assertEquals(other, engine.predict(symptoms).getDiseaseName());
+            assertEquals(20, engine.observations(other));
+        }
+
+        @Test
+        @DisplayName("Should reject diagnoses of diseases outside the rule set")
+        void shouldRejectUnknownDisease() {
+            assertThrows(IllegalArgumentException.class,
+                    () -> engine.observe(List.of("fever"), "Not A Disease"));
+        }
+
+        @Test
+        @DisplayName("Should reject diagnoses when the engine is neither selected nor shadowing")
+        void shouldRejectDiagnosesWhenNotSelected() {
+            NaiveBayesEngine unused = new NaiveBayesEngine(rules, PredictionEngine.Type.DECISION_TREE,
+                    List.of(PredictionEngine.Type.TRAINED_TREE));
+            NaiveBayesEngine shadow = new NaiveBayesEngine(rules, PredictionEngine.Type.DECISION_TREE,
+                    List.of(PredictionEngine.Type.NAIVE_BAYES));
+
+            assertThrows(IllegalArgumentException.class,
+                    () -> unused.observe(List.of("fever"), "Flu (Influenza)"));
+            shadow.observe(List.of("fever"), "Flu (Influenza)");
+            assertEquals(1, shadow.observations("Flu (Influenza)"));
+        }
+
+        @Test
+        @DisplayName("Learned counts should survive a rule reload")
+        void learnedCountsShouldSurviveReload() {
+            engine.observe(List.of("fever", "cough"), "Flu (Influenza)");
+
+            rules.reload(Map.of("Flu (Influenza)", List.of("fever", "cough"), "Hay Fever", List.of("sneezing")),
+                    Map.of());
+
+            assertEquals(1, engine.observations("Flu (Influenza)"));
+            assertEquals(rules.getRuleSetVersion(), engine.getRuleSetVersion());
+            assertEquals("Hay Fever", engine.predict(List.of("sneezing")).getDiseaseName());
+        }
+
+        @Test
+        @DisplayName("Diagnoses racing rule reloads should all be kept")
+        void diagnosesRacingReloadsShouldBeKept() throws InterruptedException {
+            List<String> symptoms = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                symptoms.add("sign " + i);
+            }
+            Map<String, List<String>> catalog = Map.of("Flu (Influenza)", symptoms.subList(0, 3),
+                    "Hay Fever", symptoms.subList(3, 40));
+            rules.reload(catalog, Map.of());
+            Thread[] threads = new Thread[4];
+            for (int t = 0; t < threads.length; t++) {
+                threads[t] = new Thread(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        engine.observe(symptoms.subList(i % 20, i % 20 + 20), "Flu (Influenza)");
+                    }
+                });
+                threads[t].start();
+            }
+            for (int i = 0; i < 50; i++) {
+                rules.reload(catalog, Map.of());
+                engine.predict(symptoms.subList(0, 3));
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+
+            assertEquals(2000, engine.observations("Flu (Influenza)"));
+            assertEquals("Flu (Influenza)", engine.predict(symptoms.subList(0, 3)).getDiseaseName());
+        }
+    }
+}
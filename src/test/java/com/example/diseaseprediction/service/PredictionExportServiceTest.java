@@ -0,0 +1,169 @@
+package com.example.diseaseprediction.service;
+
+import com.example.diseaseprediction.exception.TooManyRequestsException;
+import com.example.diseaseprediction.repository.CatalogRepository;
+import com.example.diseaseprediction.repository.PredictionExportRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PredictionExportService - NDJSON and CSV exports over an in-memory database.
+ */
+class PredictionExportServiceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private PredictionExportService service;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:export-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE users (id BIGINT PRIMARY KEY, email VARCHAR(255))");
+        jdbcTemplate.execute("CREATE TABLE diseases (id BIGINT PRIMARY KEY, disease_name VARCHAR(255))");
+        jdbcTemplate.execute("CREATE TABLE symptoms (id BIGINT AUTO_INCREMENT PRIMARY KEY, "
+                + "symptom_name VARCHAR(255) NOT NULL UNIQUE)");
+        jdbcTemplate.execute("CREATE TABLE predictions (id BIGINT PRIMARY KEY, user_id BIGINT, disease_id BIGINT, "
+                + "confidence DOUBLE, created_at TIMESTAMP, symptom_ids VARBINARY(1000))");
+        jdbcTemplate.update("INSERT INTO users VALUES (1, 'user@demo.com'), (2, 'other@demo.com')");
+        jdbcTemplate.update("INSERT INTO diseases VALUES (1, 'Flu'), (2, 'Cold, \"common\"')");
+        jdbcTemplate.update("INSERT INTO symptoms (symptom_name) VALUES ('fever'), ('cough'), ('sneezing')");
+
+        insert(1, 1, 1, LocalDateTime.of(2026, 1, 1, 10, 0), List.of(1L, 2L));
+        insert(2, 1, 2, LocalDateTime.of(2026, 1, 2, 10, 0), List.of(3L, 9L));
+        insert(3, 2, 1, LocalDateTime.of(2026, 1, 3, 10, 0), null);
+
+        service = new PredictionExportService(new PredictionExportRepository(jdbcTemplate, 2),
+                new CatalogRepository(jdbcTemplate), new DataSourceTransactionManager(dataSource), 1);
+    }
+
+    @Nested
+    @DisplayName("Formats")
+    class Formats {
+
+        @Test
+        @DisplayName("NDJSON should hold one object per prediction of the user, newest first, with symptom names")
+        void shouldExportNdjson() throws IOException {
+            String[] lines = export(out -> service.exportUser("user@demo.com", PredictionExportService.Format.NDJSON, out))
+                    .split("\n");
+
+            assertEquals(2, lines.length);
+            ObjectMapper mapper = new ObjectMapper();
+            JsonNode newest = mapper.readTree(lines[0]);
+            JsonNode oldest = mapper.readTree(lines[1]);
+            assertEquals(2, newest.get("id").asLong());
+            assertEquals("Cold, \"common\"", newest.get("disease").asText());
+            assertEquals("2026-01-02T10:00", newest.get("createdAt").asText());
+            // Id 9 is not in the catalog: exported as the id
+            assertEquals(List.of("sneezing", "9"), mapper.convertValue(newest.get("symptoms"), List.class));
+            assertEquals(List.of("fever", "cough"), mapper.convertValue(oldest.get("symptoms"), List.class));
+        }
+
+        @Test
+        @DisplayName("CSV should quote fields holding commas or quotes")
+        void shouldExportCsv() throws IOException {
+            String csv = export(out -> service.exportUser("user@demo.com", PredictionExportService.Format.CSV, out));
+
+            assertEquals("id,user,created_at,disease,confidence,symptoms\r\n"
+                    + "2,user@demo.com,2026-01-02T10:00,\"Cold, \"\"common\"\"\",0.5,\"sneezing, 9\"\r\n"
+                    + "1,user@demo.com,2026-01-01T10:00,Flu,0.5,\"fever, cough\"\r\n", csv);
+        }
+
+        @Test
+        @DisplayName("Should reject an unknown format")
+        void shouldRejectUnknownFormat() {
+            assertEquals(PredictionExportService.Format.CSV, PredictionExportService.Format.of("CSV"));
+            assertThrows(IllegalArgumentException.class, () -> PredictionExportService.Format.of("xml"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Streaming")
+    class Streaming {
+
+        @Test
+        @DisplayName("The full export should cover every user, by id, across many fetches")
+        void shouldExportAllUsers() throws IOException {
+            for (long id = 4; id <= 1000; id++) {
+                insert(id, 2, 1, LocalDateTime.of(2026, 2, 1, 0, 0).plusMinutes(id), List.of(id % 3 + 1));
+            }
+
+            String[] lines = export(out -> service.exportAll(PredictionExportService.Format.NDJSON, out)).split("\n");
+
+            assertEquals(1000, lines.length);
+            assertTrue(lines[0].startsWith("{\"id\":1,\"user\":\"user@demo.com\""));
+            assertTrue(lines[999].startsWith("{\"id\":1000,\"user\":\"other@demo.com\""));
+        }
+
+        @Test
+        @DisplayName("A failing output stream should end the export with its IOException")
+        void shouldStopWhenTheClientGoesAway() {
+            OutputStream closed = new OutputStream() {
+                @Override
+                public void write(int b) throws IOException {
+                    throw new IOException("Broken pipe");
+                }
+
+                @Override
+                public void write(byte[] b, int off, int len) throws IOException {
+                    throw new IOException("Broken pipe");
+                }
+            };
+            for (long id = 4; id <= 5000; id++) {
+                insert(id, 1, 1, LocalDateTime.of(2026, 2, 1, 0, 0), List.of(1L));
+            }
+
+            IOException e = assertThrows(IOException.class,
+                    () -> service.exportAll(PredictionExportService.Format.CSV, closed));
+            assertEquals("Broken pipe", e.getMessage());
+        }
+
+        @Test
+        @DisplayName("An export should be refused while every slot is taken, and allowed once the slot is freed")
+        void shouldLimitConcurrentExports() throws IOException {
+            StreamingResponseBody first = service.streamAll(PredictionExportService.Format.CSV);
+
+            assertThrows(TooManyRequestsException.class,
+                    () -> service.streamUser("user@demo.com", PredictionExportService.Format.CSV));
+
+            export(first::writeTo);
+            String csv = export(service.streamUser("user@demo.com", PredictionExportService.Format.CSV)::writeTo);
+            assertEquals(3, csv.split("\r\n").length);
+        }
+    }
+
+    private void insert(long id, long userId, long diseaseId, LocalDateTime createdAt, List<Long> symptomIds) {
+        jdbcTemplate.update("INSERT INTO predictions VALUES (?, ?, ?, 0.5, ?, ?)", id, userId, diseaseId,
+                Timestamp.valueOf(createdAt), symptomIds != null ? SymptomSetCodec.encode(symptomIds) : null);
+    }
+
+    private static String export(Export export) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        export.to(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    @FunctionalInterface
+    private interface Export {
+        void to(OutputStream out) throws IOException;
+    }
+}
@@ -0,0 +1,155 @@
+package com.example.diseaseprediction.service;
+
+import com.example.diseaseprediction.dto.PredictionResponse;
+import com.example.diseaseprediction.dto.PredictionSessionResponse;
+import com.example.diseaseprediction.exception.ResourceNotFoundException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PredictionSessionService - incremental scoring of interactive symptom entry.
+ */
+class PredictionSessionServiceTest {
+
+    private static final String USER = "user@demo.com";
+
+    private DecisionTreeEngine engine;
+    private PredictionSessionService sessions;
+
+    @BeforeEach
+    void setUp() {
+        engine = new DecisionTreeEngine();
+        sessions = new PredictionSessionService(engine, 100, Duration.ofMinutes(15), new SimpleMeterRegistry());
+    }
+
+    @Nested
+    @DisplayName("Incremental Scoring")
+    class IncrementalScoring {
+
+        @Test
+        @DisplayName("Should rank like a full re-score after every add and remove")
+        void shouldMatchFullRescore() {
+            List<String> vocabulary = new ArrayList<>(new LinkedHashSet<>(
+                    DecisionTreeEngine.defaultRules().values().stream().flatMap(List::stream).toList()));
+            String id = sessions.create(USER, List.of(), 8).getSessionId();
+            Set<String> current = new LinkedHashSet<>();
+            Random random = new Random(17);
+
+            for (int step = 0; step < 300; step++) {
+                String symptom = vocabulary.get(random.nextInt(vocabulary.size()));
+                PredictionSessionResponse response;
+                if (current.remove(symptom)) {
+                    response = sessions.removeSymptom(USER, id, symptom, 8);
+                } else {
+                    current.add(symptom);
+                    response = sessions.addSymptom(USER, id, symptom, 8);
+                }
+
+                assertEquals(List.copyOf(current), response.getSymptoms());
+                if (current.isEmpty()) {
+                    assertTrue(response.getCandidates().isEmpty());
+                } else {
+                    assertEquals(names(engine.predictTopK(List.copyOf(current), 8)),
+                            response.getCandidates().stream().map(PredictionResponse.Candidate::getDiseaseName).toList(),
+                            current.toString());
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("Should ignore case, duplicates and removal of absent symptoms")
+        void shouldIgnoreRepeatedChanges() {
+            String id = sessions.create(USER, List.of("Fever", "cough"), null).getSessionId();
+
+            sessions.addSymptom(USER, id, "COUGH ", null);
+            PredictionSessionResponse response = sessions.removeSymptom(USER, id, "headache", null);
+
+            assertEquals(List.of("fever", "cough"), response.getSymptoms());
+            assertEquals(engine.predictTopK(List.of("fever", "cough"), 1).get(0).getDiseaseName(),
+                    response.getCandidates().get(0).getDiseaseName());
+        }
+
+        @Test
+        @DisplayName("Should keep unknown symptoms without matching any disease")
+        void shouldKeepUnknownSymptoms() {
+            PredictionSessionResponse response = sessions.create(USER, List.of("brand new symptom"), null);
+
+            assertEquals(List.of("brand new symptom"), response.getSymptoms());
+            assertTrue(response.getCandidates().isEmpty());
+        }
+
+        @Test
+        @DisplayName("Should rescore against reloaded rules")
+        void shouldRescoreAfterReload() {
+            String id = sessions.create(USER, List.of("glowing skin"), null).getSessionId();
+            Map<String, List<String>> rules = new LinkedHashMap<>(DecisionTreeEngine.defaultRules());
+            rules.put("Luminescence", List.of("glowing skin", "fatigue"));
+            long version = engine.reload(rules, DecisionTreeEngine.defaultPrecautions());
+
+            PredictionSessionResponse response = sessions.get(USER, id, null);
+
+            assertEquals(version, response.getRuleSetVersion());
+            assertEquals("Luminescence", response.getCandidates().get(0).getDiseaseName());
+        }
+    }
+
+    @Nested
+    @DisplayName("Session Lifecycle")
+    class SessionLifecycle {
+
+        @Test
+        @DisplayName("Should hide sessions from other users")
+        void shouldHideOtherUsersSessions() {
+            String id = sessions.create(USER, List.of("fever"), null).getSessionId();
+
+            assertThrows(ResourceNotFoundException.class, () -> sessions.get("admin@demo.com", id, null));
+            assertThrows(ResourceNotFoundException.class, () -> sessions.addSymptom("admin@demo.com", id, "cough", null));
+        }
+
+        @Test
+        @DisplayName("Should forget closed sessions")
+        void shouldForgetClosedSessions() {
+            String id = sessions.create(USER, List.of("fever"), null).getSessionId();
+
+            sessions.close(USER, id);
+
+            assertThrows(ResourceNotFoundException.class, () -> sessions.get(USER, id, null));
+            assertEquals(0, sessions.size());
+        }
+
+        @Test
+        @DisplayName("Should evict beyond the maximum number of sessions")
+        void shouldBoundSessionCount() {
+            for (int i = 0; i < 150; i++) {
+                sessions.create(USER, List.of("fever"), null);
+            }
+
+            assertTrue(sessions.size() <= 100);
+        }
+
+        @Test
+        @DisplayName("Should reject top outside 1..25")
+        void shouldRejectInvalidTop() {
+            assertThrows(IllegalArgumentException.class, () -> sessions.create(USER, List.of("fever"), 0));
+            assertThrows(IllegalArgumentException.class, () -> sessions.create(USER, List.of("fever"), 26));
+        }
+    }
+
+    private static List<String> names(List<DecisionTreeEngine.Outcome> outcomes) {
+        return outcomes.stream().map(DecisionTreeEngine.Outcome::getDiseaseName).toList();
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.diseaseprediction.service;
+
+import com.example.diseaseprediction.repository.PredictionStatisticsRepository;
+import com.example.diseaseprediction.repository.PredictionStatisticsRepository.DiseaseCount;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PredictionStatistics - in-memory counts per disease reconciled with an in-memory database.
+ */
+class PredictionStatisticsTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private PredictionStatistics statistics;
+    private final Map<Long, Long> queued = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                "jdbc:h2:mem:statistics-" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE diseases (id BIGINT PRIMARY KEY, disease_name VARCHAR(255))");
+        jdbcTemplate.execute("CREATE TABLE predictions (id BIGINT AUTO_INCREMENT PRIMARY KEY, disease_id BIGINT)");
+        jdbcTemplate.update("INSERT INTO diseases VALUES (1, 'Flu'), (2, 'Common Cold'), (3, 'Migraine')");
+        jdbcTemplate.update("INSERT INTO predictions (disease_id) VALUES (1), (1), (1), (2)");
+        statistics = new PredictionStatistics(new PredictionStatisticsRepository(jdbcTemplate), new QueuedWriter(),
+                Duration.ZERO);
+        statistics.start();
+    }
+
+    @Nested
+    @DisplayName("Counts")
+    class Counts {
+
+        @Test
+        @DisplayName("Startup should load the grouped counts, leaving out diseases never predicted")
+        void shouldLoadCountsOnStart() {
+            assertEquals(Map.of("Flu", 3L, "Common Cold", 1L), statistics.countsByDisease());
+        }
+
+        @Test
+        @DisplayName("Recorded predictions should count without a query")
+        void shouldCountRecordedPredictions() {
+            jdbcTemplate.execute("DROP TABLE predictions");
+
+            statistics.recorded(1, "Flu");
+            statistics.recorded(3, "Migraine");
+
+            assertEquals(Map.of("Flu", 4L, "Common Cold", 1L, "Migraine", 1L), statistics.countsByDisease());
+        }
+
+        @Test
+        @DisplayName("Reconciling should correct lost writes, deletions and renames")
+        void shouldReconcileWithDatabase() {
+            statistics.recorded(1, "Flu");
+            statistics.recorded(3, "Migraine");
+            jdbcTemplate.update("INSERT INTO predictions (disease_id) VALUES (1)");
+            jdbcTemplate.update("DELETE FROM predictions WHERE disease_id = 2");
+            jdbcTemplate.update("UPDATE diseases SET disease_name = 'Influenza' WHERE id = 1");
+
+            statistics.reconcile();
+
+            assertEquals(Map.of("Influenza", 4L), statistics.countsByDisease());
+        }
+
+        @Test
+        @DisplayName("Reconciling should keep predictions still queued for write-behind")
+        void shouldKeepQueuedPredictions() {
+            statistics.recorded(2, "Common Cold");
+            statistics.recorded(3, "Migraine");
+            queued.put(2L, 1L);
+            queued.put(3L, 1L);
+
+            statistics.reconcile();
+
+            assertEquals(Map.of("Flu", 3L, "Common Cold", 2L, "Migraine", 1L), statistics.countsByDisease());
+        }
+
+        @Test
+        @DisplayName("Reconciling should keep predictions recorded while the query runs")
+        void shouldKeepPredictionsRecordedDuringQuery() {
+            Runnable[] duringQuery = {() -> { }};
+            PredictionStatistics recording = new PredictionStatistics(
+                    new PredictionStatisticsRepository(jdbcTemplate) {
+                        @Override
+                        public List<DiseaseCount> countByDisease() {
+                            List<DiseaseCount> counts = super.countByDisease();
+                            duringQuery[0].run();
+                            return counts;
+                        }
+                    }, new QueuedWriter(), Duration.ZERO);
+            recording.start();
+            duringQuery[0] = () -> {
+                recording.recorded(1, "Flu");
+                recording.recorded(3, "Migraine");
+            };
+
+            recording.reconcile();
+
+            assertEquals(Map.of("Flu", 4L, "Common Cold", 1L, "Migraine", 1L), recording.countsByDisease());
+        }
+    }
+
+    // Write-behind off; reports the test's queued predictions
+    private class QueuedWriter extends PredictionWriter {
+        QueuedWriter() {
+            super(null, null, false, 1, Duration.ofSeconds(1), 1, Duration.ZERO,
+                    new StaticListableBeanFactory().getBeanProvider(MeterRegistry.class));
+        }
+
+        @Override
+        Map<Long, Long> queuedByDisease() {
+            return queued;
+        }
+    }
+}
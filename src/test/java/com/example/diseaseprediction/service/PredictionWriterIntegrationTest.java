@@ -0,0 +1,97 @@
+package com.example.diseaseprediction.service;
+
+import com.example.diseaseprediction.model.Disease;
+import com.example.diseaseprediction.model.Prediction;
+import com.example.diseaseprediction.model.User;
+import com.example.diseaseprediction.repository.DiseaseRepository;
+import com.example.diseaseprediction.repository.PredictionBatchRepository;
+import com.example.diseaseprediction.repository.PredictionRepository;
+import com.example.diseaseprediction.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for PredictionWriter - write-behind retries through the JPA batch insert.
+ */
+@SpringBootTest
+class PredictionWriterIntegrationTest {
+
+    @Autowired
+    private PredictionBatchRepository predictionBatchRepository;
+
+    @Autowired
+    private PredictionRepository predictionRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DiseaseRepository diseaseRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> created = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        created.forEach(id -> jdbcTemplate.update("DELETE FROM predictions WHERE id = ?", id));
+    }
+
+    @Nested
+    @DisplayName("Retries")
+    class Retries {
+
+        @Test
+        @DisplayName("A batch whose flush failed should be written by the retry, with new ids")
+        void shouldRetryAfterFailedFlush() throws InterruptedException {
+            User user = userRepository.findByEmail("user@demo.com").orElseThrow();
+            Disease disease = diseaseRepository.findAll().get(0);
+            Prediction probe = new Prediction(user, disease, 0.5);
+            predictionBatchRepository.insertAll(List.of(probe));
+            created.add(probe.getId());
+            // The next pooled id is already taken, so the first flush fails on the primary key
+            long taken = probe.getId() + 1;
+            jdbcTemplate.update("INSERT INTO predictions (id, user_id, disease_id, confidence, created_at) "
+                    + "VALUES (?, ?, ?, 0.5, ?)", taken, user.getId(), disease.getId(),
+                    Timestamp.valueOf(LocalDateTime.now()));
+            created.add(taken);
+
+            SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            StaticListableBeanFactory beans = new StaticListableBeanFactory();
+            beans.addBean("meterRegistry", registry);
+            PredictionWriter writer = new PredictionWriter(predictionRepository, predictionBatchRepository, true, 10,
+                    Duration.ofMillis(20), 100, Duration.ofSeconds(1), beans.getBeanProvider(MeterRegistry.class));
+            List<Prediction> predictions = IntStream.range(0, 3)
+                    .mapToObj(i -> new Prediction(user, disease, i / 10.0))
+                    .toList();
+
+            predictions.forEach(writer::write);
+            writer.close();
+
+            List<Long> ids = predictions.stream().map(Prediction::getId).toList();
+            created.addAll(ids);
+            assertTrue(ids.stream().allMatch(id -> id != null && id > taken), ids.toString());
+            assertEquals(3, predictionRepository.findAllById(ids).size());
+            assertEquals(0.0, registry.get("prediction.write-behind.rows").tag("result", "failed").counter().count());
+            assertEquals(3.0, registry.get("prediction.write-behind.rows").tag("result", "written").counter().count());
+        }
+    }
+}
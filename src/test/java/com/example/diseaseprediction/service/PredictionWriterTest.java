@@ -0,0 +1,162 @@
+package com.example.diseaseprediction.service;
+
+import com.example.diseaseprediction.model.Prediction;
+import com.example.diseaseprediction.repository.PredictionBatchRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for PredictionWriter - write-behind batching of prediction inserts.
+ */
+class PredictionWriterTest {
+
+    private RecordingBatchRepository repository;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        repository = new RecordingBatchRepository();
+        registry = new SimpleMeterRegistry();
+    }
+
+    @Nested
+    @DisplayName("Write-Behind")
+    class WriteBehind {
+
+        @Test
+        @DisplayName("Queued predictions should be written in batches and drained on close")
+        void shouldBatchAndDrain() throws InterruptedException {
+            PredictionWriter writer = writer(4, 100, Duration.ofSeconds(1));
+            repository.release = new CountDownLatch(1);
+
+            predictions(10).forEach(writer::write);
+            repository.release.countDown();
+            writer.close();
+
+            assertEquals(10, repository.rows());
+            assertTrue(repository.batches.stream().allMatch(batch -> batch.size() <= 4));
+            assertEquals(10.0, rows("written"));
+            assertEquals(0.0, rows("direct"));
+        }
+
+        @Test
+        @DisplayName("A caller should insert its own predictions when the queue stays full")
+        void shouldApplyBackpressure() throws InterruptedException {
+            PredictionWriter writer = writer(1, 2, Duration.ofMillis(10));
+            repository.release = new CountDownLatch(1);
+
+            writer.writeAll(predictions(6));
+            repository.release.countDown();
+            writer.close();
+
+            assertEquals(6, repository.rows());
+            assertTrue(rows("direct") >= 3, "at most one held and two queued");
+            assertEquals(6.0, rows("direct") + rows("written"));
+        }
+
+        @Test
+        @DisplayName("A failed batch should be retried")
+        void shouldRetryFailedBatch() throws InterruptedException {
+            PredictionWriter writer = writer(10, 100, Duration.ofSeconds(1));
+            repository.failures = 1;
+
+            predictions(3).forEach(writer::write);
+            writer.close();
+
+            assertEquals(3, repository.rows());
+            assertEquals(0.0, rows("failed"));
+        }
+
+        @Test
+        @DisplayName("Once the flusher has stopped, callers should insert their own predictions")
+        void shouldWriteDirectlyAfterFlusherStopped() throws InterruptedException {
+            PredictionWriter writer = writer(10, 100, Duration.ofSeconds(5));
+            repository.interrupt = new CountDownLatch(1);
+
+            writer.write(new Prediction(null, null, 0.9));
+            assertTrue(repository.interrupt.await(5, TimeUnit.SECONDS));
+            repository.flusher.join(5000);
+            assertFalse(repository.flusher.isAlive());
+            writer.writeAll(predictions(3));
+
+            assertEquals(3, repository.rows());
+            assertEquals(3.0, rows("direct"));
+            // The batch the flusher held is written on close
+            writer.close();
+            assertEquals(4, repository.rows());
+            assertEquals(1.0, rows("written"));
+        }
+    }
+
+    private PredictionWriter writer(int batchSize, int queueCapacity, Duration offerTimeout) {
+        StaticListableBeanFactory beans = new StaticListableBeanFactory();
+        beans.addBean("meterRegistry", registry);
+        return new PredictionWriter(null, repository, true, batchSize, Duration.ofMillis(20), queueCapacity,
+                offerTimeout, beans.getBeanProvider(MeterRegistry.class));
+    }
+
+    private double rows(String result) {
+        return registry.get("prediction.write-behind.rows").tag("result", result).counter().count();
+    }
+
+    private static List<Prediction> predictions(int count) {
+        return IntStream.range(0, count).mapToObj(i -> new Prediction(null, null, i / 10.0)).toList();
+    }
+
+    private static class RecordingBatchRepository extends PredictionBatchRepository {
+        final List<List<Prediction>> batches = Collections.synchronizedList(new ArrayList<>());
+        volatile CountDownLatch release;
+        volatile int failures;
+        // Fails one insert with the calling thread interrupted, as a shutdown would
+        volatile CountDownLatch interrupt;
+        volatile Thread flusher;
+
+        RecordingBatchRepository() {
+            super(100, null);
+        }
+
+        @Override
+        public void insertAll(List<Prediction> predictions) {
+            CountDownLatch latch = release;
+            if (latch != null) {
+                try {
+                    latch.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            CountDownLatch interrupting = interrupt;
+            if (interrupting != null) {
+                interrupt = null;
+                flusher = Thread.currentThread();
+                flusher.interrupt();
+                interrupting.countDown();
+                throw new IllegalStateException("interrupted");
+            }
+            if (failures > 0) {
+                failures--;
+                throw new IllegalStateException("database unavailable");
+            }
+            batches.add(List.copyOf(predictions));
+        }
+
+        int rows() {
+            return batches.stream().mapToInt(List::size).sum();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.diseaseprediction.service;
+
+import com.example.diseaseprediction.model.Disease;
+import com.example.diseaseprediction.repository.DiseaseRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Integration tests for RuleSetLoader - trained model files imported into the disease tables.
+ */
+@SpringBootTest
+class RuleSetLoaderIntegrationTest {
+
+    private static final List<String> TRAINED_RULE = List.of("alpha sign", "beta sign");
+
+    @Autowired
+    private DiseaseRepository diseaseRepository;
+
+    @Autowired
+    private DecisionTreeEngine decisionTreeEngine;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private RuleSetLoader ruleSetLoader;
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void tearDown() {
+        diseaseRepository.findByDiseaseName("Trained Fever").ifPresent(diseaseRepository::delete);
+        ruleSetLoader.reload();
+    }
+
+    @Nested
+    @DisplayName("Trained model files")
+    class TrainedModelFiles {
+
+        @Test
+        @DisplayName("Startup should import a trained file, and later reloads should keep its rules")
+        void shouldImportTrainedModel() throws IOException {
+            Path modelFile = trainedModel();
+            RuleSetLoader loader = new RuleSetLoader(diseaseRepository, decisionTreeEngine, transactionManager,
+                    modelFile.toString());
+
+            loader.loadOnStartup();
+
+            Disease imported = diseaseRepository.findAllWithRuleSymptoms().stream()
+                    .filter(disease -> disease.getDiseaseName().equals("Trained Fever"))
+                    .findFirst().orElseThrow();
+            assertEquals(TRAINED_RULE, imported.getRuleSymptoms());
+            assertFalse(RuleModelFile.isTrained(modelFile), "the file should be rewritten from the database");
+
+            // What an admin change does
+            loader.reload();
+
+            assertEquals("Trained Fever", decisionTreeEngine.predict(TRAINED_RULE).getDiseaseName());
+            assertEquals("Common Cold", decisionTreeEngine.predict(
+                    List.of("sneezing", "runny nose", "sore throat", "congestion")).getDiseaseName());
+        }
+
+        @Test
+        @DisplayName("A reload should not overwrite a trained file that was not imported")
+        void shouldKeepUnimportedTrainedModel() throws IOException {
+            Path modelFile = trainedModel();
+            byte[] trained = Files.readAllBytes(modelFile);
+            RuleSetLoader loader = new RuleSetLoader(diseaseRepository, decisionTreeEngine, transactionManager,
+                    modelFile.toString());
+
+            loader.reload();
+
+            assertArrayEquals(trained, Files.readAllBytes(modelFile));
+            assertTrue(diseaseRepository.findByDiseaseName("Trained Fever").isEmpty());
+        }
+    }
+
+    private Path trainedModel() throws IOException {
+        Path modelFile = tempDir.resolve("rules.bin");
+        new RuleSetTrainer.Result(Map.of("Trained Fever", TRAINED_RULE), 10, TRAINED_RULE.size(), 0, 1)
+                .write(modelFile, 7);
+        assertTrue(RuleModelFile.isTrained(modelFile));
+        return modelFile;
+    }
+}
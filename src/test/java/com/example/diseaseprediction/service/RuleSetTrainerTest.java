@@ -0,0 +1,116 @@
+package com.example.diseaseprediction.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for RuleSetTrainer - streaming rule training from symptom CSVs.
+ */
+class RuleSetTrainerTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Nested
+    @DisplayName("Parsing")
+    class Parsing {
+
+        @Test
+        @DisplayName("Should normalize symptoms and skip the header, blank cells and blank lines")
+        void shouldParseLikeTheDatasetReader() throws IOException {
+            Path csv = write("Disease,Symptom_1,Symptom_2,Symptom_3\r\n"
+                    + "Flu, Fever ,cough,,\r\n"
+                    + "\n"
+                    + "Flu,fever,COUGH,cough\n"
+                    + "Flu,fever,fatigue\n"
+                    + "Cold,sneezing,runny nose\n"
+                    + "Cold,sneezing");
+
+            RuleSetTrainer.Result result = new RuleSetTrainer(0.5, 12, 1, 1 << 20).train(csv);
+
+            assertEquals(5, result.rows);
+            assertEquals(Map.of("Flu", List.of("fever", "cough"), "Cold", List.of("sneezing", "runny nose")),
+                    result.rules);
+            assertEquals(List.of("Flu", "Cold"), List.copyOf(result.rules.keySet()));
+        }
+
+        @Test
+        @DisplayName("Should count the same rows whatever the chunk size and thread count")
+        void shouldNotDependOnChunking() throws IOException {
+            Path csv = tempDir.resolve("history.csv");
+            Random random = new Random(21);
+            try (BufferedWriter writer = Files.newBufferedWriter(csv, StandardCharsets.UTF_8)) {
+                for (int row = 0; row < 5000; row++) {
+                    int disease = random.nextInt(40);
+                    writer.write("Disease " + disease);
+                    for (int i = 0; i < 1 + random.nextInt(6); i++) {
+                        writer.write(",symptom " + (disease + random.nextInt(8)));
+                    }
+                    writer.write(row % 3 == 0 ? "\r\n" : "\n");
+                }
+            }
+
+            RuleSetTrainer.Result whole = new RuleSetTrainer(0.3, 5, 1, 1 << 20).train(csv);
+            RuleSetTrainer.Result chunked = new RuleSetTrainer(0.3, 5, 4, 997).train(csv);
+
+            assertEquals(5000, whole.rows);
+            assertEquals(whole.rows, chunked.rows);
+            assertEquals(whole.rules, chunked.rules);
+            assertEquals(List.copyOf(whole.rules.keySet()), List.copyOf(chunked.rules.keySet()));
+        }
+
+        @Test
+        @DisplayName("Should reject a row without a disease label")
+        void shouldRejectMissingLabel() throws IOException {
+            Path csv = write("Flu,fever\n,cough\n");
+
+            assertThrows(IllegalArgumentException.class, () -> new RuleSetTrainer(0.5, 12, 1, 1 << 20).train(csv));
+        }
+    }
+
+    @Nested
+    @DisplayName("Model Output")
+    class ModelOutput {
+
+        @Test
+        @DisplayName("Written rules should load into the engine as a model file")
+        void shouldWriteLoadableModel() throws IOException {
+            List<String> rows = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                rows.add("Migraine,severe headache,nausea" + (i % 2 == 0 ? ",sensitivity to light" : ""));
+                rows.add("Gastroenteritis,nausea,vomiting,diarrhea");
+            }
+            Path csv = write(String.join("\n", rows));
+            Path model = tempDir.resolve("rules.bin");
+            DecisionTreeEngine engine = new DecisionTreeEngine();
+
+            new RuleSetTrainer(0.5, 12, 2, 64).train(csv).write(model, 7);
+            long version = engine.open(model);
+
+            assertEquals(7, version);
+            assertEquals("Migraine", engine.predict(Arrays.asList("sensitivity to light", "nausea")).getDiseaseName());
+            assertEquals("Gastroenteritis", engine.predict(Arrays.asList("vomiting")).getDiseaseName());
+        }
+    }
+
+    private Path write(String content) throws IOException {
+        Path csv = tempDir.resolve("input.csv");
+        Files.writeString(csv, content, StandardCharsets.UTF_8);
+        return csv;
+    }
+}
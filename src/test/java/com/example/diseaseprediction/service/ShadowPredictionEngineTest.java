@@ -0,0 +1,155 @@
+package com.example.diseaseprediction.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for ShadowPredictionEngine - background comparison of candidate engines.
+ */
+class ShadowPredictionEngineTest {
+
+    private static final List<String> FLU = List.of("fever", "cough", "fatigue");
+    private static final long VERSION = 1;
+
+    private DecisionTreeEngine primary;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        primary = new DecisionTreeEngine();
+        registry = new SimpleMeterRegistry();
+    }
+
+    @Nested
+    @DisplayName("Comparisons")
+    class Comparisons {
+
+        @Test
+        @DisplayName("Should serve the primary outcome and record agreement per engine")
+        void shouldRecordAgreement() throws InterruptedException {
+            Map<String, PredictionEngine> shadows = new LinkedHashMap<>();
+            shadows.put("same", new DecisionTreeEngine());
+            shadows.put("fixed", new FixedEngine("Common Cold", null));
+            ShadowPredictionEngine engine = new ShadowPredictionEngine("decision-tree", primary, shadows, 1, 100, registry);
+
+            DecisionTreeEngine.Outcome outcome = engine.predict(FLU);
+            engine.predictTopK(FLU, 3);
+            engine.predictAll(List.of(FLU, List.of("sneezing", "runny nose")));
+            engine.close();
+
+            assertEquals(primary.predict(FLU).getDiseaseName(), outcome.getDiseaseName());
+            assertEquals(4.0, comparisons("same", "agree"));
+            assertEquals(1.0, agreement("same"));
+            assertEquals(3.0, comparisons("fixed", "disagree"));
+            assertEquals(0.25, agreement("fixed"));
+            assertEquals(2, registry.get("prediction.engine.latency").tag("engine", "decision-tree")
+                    .tag("call", "single").timer().count());
+            assertEquals(1, registry.get("prediction.engine.latency").tag("engine", "same")
+                    .tag("call", "batch").timer().count());
+        }
+
+        @Test
+        @DisplayName("Should count failing shadows without affecting the response")
+        void shouldIsolateShadowFailures() throws InterruptedException {
+            ShadowPredictionEngine engine = new ShadowPredictionEngine("decision-tree", primary,
+                    Map.of("broken", new FixedEngine(null, null)), 1, 100, registry);
+
+            assertEquals(primary.predict(FLU).getDiseaseName(), engine.predict(FLU).getDiseaseName());
+            engine.close();
+
+            assertEquals(1.0, comparisons("broken", "error"));
+            assertTrue(Double.isNaN(agreement("broken")));
+        }
+    }
+
+    @Nested
+    @DisplayName("Back-pressure")
+    class BackPressure {
+
+        @Test
+        @DisplayName("Should drop shadow work when the queue is full instead of blocking the caller")
+        void shouldDropWhenSaturated() throws InterruptedException {
+            CountDownLatch release = new CountDownLatch(1);
+            ShadowPredictionEngine engine = new ShadowPredictionEngine("decision-tree", primary,
+                    Map.of("slow", new FixedEngine("Influenza", release)), 1, 1, registry);
+
+            // One task runs and blocks, one waits in the queue, the rest are dropped
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+                for (int i = 0; i < 5; i++) {
+                    engine.predict(FLU);
+                }
+            });
+            release.countDown();
+            engine.close();
+
+            assertEquals(3.0, registry.get("prediction.shadow.dropped").counter().count());
+            assertEquals(2.0, comparisons("slow", "agree") + comparisons("slow", "disagree"));
+        }
+
+        @Test
+        @DisplayName("Should reject an empty pool or queue")
+        void shouldRejectInvalidSizes() {
+            assertThrows(IllegalArgumentException.class, () -> new ShadowPredictionEngine("decision-tree", primary,
+                    Map.of(), 0, 10, registry));
+            assertThrows(IllegalArgumentException.class, () -> new ShadowPredictionEngine("decision-tree", primary,
+                    Map.of(), 1, 0, registry));
+        }
+    }
+
+    private double comparisons(String engine, String result) {
+        return registry.get("prediction.shadow.comparisons").tag("engine", engine).tag("result", result)
+                .counter().count();
+    }
+
+    private double agreement(String engine) {
+        return registry.get("prediction.shadow.agreement").tag("engine", engine).gauge().value();
+    }
+
+    /**
+     * Always names the same disease, optionally waiting for a latch first; a null disease fails every call.
+     */
+    private record FixedEngine(String disease, CountDownLatch gate) implements PredictionEngine {
+
+        @Override
+        public DecisionTreeEngine.Outcome predict(List<String> symptoms) {
+            if (gate != null) {
+                try {
+                    gate.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (disease == null) {
+                throw new IllegalStateException("Engine unavailable");
+            }
+            return new DecisionTreeEngine.Outcome(disease, 0.5, "Rest", VERSION);
+        }
+
+        @Override
+        public List<DecisionTreeEngine.Outcome> predictAll(List<List<String>> symptomSets) {
+            return symptomSets.stream().map(this::predict).toList();
+        }
+
+        @Override
+        public List<DecisionTreeEngine.Outcome> predictTopK(List<String> symptoms, int k) {
+            return List.of(predict(symptoms));
+        }
+
+        @Override
+        public long getRuleSetVersion() {
+            return VERSION;
+        }
+    }
+}
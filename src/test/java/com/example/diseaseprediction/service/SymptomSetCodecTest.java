@@ -0,0 +1,75 @@
+package com.example.diseaseprediction.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for SymptomSetCodec - varint-packed symptom id sets.
+ */
+class SymptomSetCodecTest {
+
+    @Nested
+    @DisplayName("Encoding")
+    class Encoding {
+
+        @Test
+        @DisplayName("Should sort, deduplicate and pack close ids into one byte each")
+        void shouldPackSortedGaps() {
+            byte[] encoded = SymptomSetCodec.encode(List.of(42L, 7L, 12L, 42L, 9L));
+
+            assertArrayEquals(new byte[]{7, 2, 3, 30}, encoded);
+            assertEquals(4, SymptomSetCodec.size(encoded));
+            assertArrayEquals(new long[]{7, 9, 12, 42}, SymptomSetCodec.toArray(encoded));
+        }
+
+        @Test
+        @DisplayName("Should encode the empty set as no bytes")
+        void shouldEncodeEmptySet() {
+            byte[] encoded = SymptomSetCodec.encode(List.of());
+
+            assertEquals(0, encoded.length);
+            assertEquals(0, SymptomSetCodec.size(encoded));
+            assertFalse(SymptomSetCodec.contains(encoded, 1));
+        }
+
+        @Test
+        @DisplayName("Should reject ids that are not positive")
+        void shouldRejectNonPositiveIds() {
+            assertThrows(IllegalArgumentException.class, () -> SymptomSetCodec.encode(List.of(3L, 0L)));
+        }
+    }
+
+    @Nested
+    @DisplayName("Decoding")
+    class Decoding {
+
+        @Test
+        @DisplayName("Random sets with wide gaps should round-trip")
+        void shouldRoundTripRandomSets() {
+            Random random = new Random(21);
+            for (int round = 0; round < 200; round++) {
+                TreeSet<Long> ids = new TreeSet<>();
+                for (int i = 0; i < 1 + random.nextInt(100); i++) {
+                    ids.add(1 + (random.nextBoolean() ? random.nextInt(5000) : random.nextLong() >>> 1));
+                }
+                byte[] encoded = SymptomSetCodec.encode(ids);
+                List<Long> decoded = new ArrayList<>();
+                SymptomSetCodec.forEach(encoded, decoded::add);
+
+                assertEquals(List.copyOf(ids), decoded);
+                assertEquals(ids.size(), SymptomSetCodec.size(encoded));
+                assertTrue(encoded.length <= ids.size() * SymptomSetCodec.MAX_VALUE_BYTES);
+                assertTrue(SymptomSetCodec.contains(encoded, ids.last()));
+                assertEquals(ids.contains(2500L), SymptomSetCodec.contains(encoded, 2500L));
+            }
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.diseaseprediction.support;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Closed-loop HTTP load against a running instance: {@code clients} threads each send a request, wait
+ * for the answer and send the next, for {@code seconds} after a warm-up of the same length. Reports
+ * throughput, latency percentiles and the share of 503 (pool exhausted) and other failures.
+ * <pre>
+ * ./mvnw -Pload test-compile exec:exec -Dload.args="http://localhost:8082 200 30 predict"
+ * </pre>
+ * Scenarios: {@code predict} (POST /predict with 3 to 5 seed symptoms), {@code report} (GET
+ * /reports/history, a PDF of the demo user's history). Start the server with
+ * {@code --app.ratelimit.enabled=false --spring.jpa.show-sql=false}, or the rate limiter and SQL logging
+ * are what gets measured.
+ */
+public final class LoadGenerator {
+
+    private static final List<String> SYMPTOMS = List.of("fever", "cough", "fatigue", "headache", "nausea",
+            "sore throat", "runny nose", "body aches", "chills", "vomiting", "diarrhea", "shortness of breath");
+
+    private LoadGenerator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 3) {
+            System.err.println("Usage: LoadGenerator <base-url> <clients> <seconds> [predict|report]");
+            System.exit(2);
+        }
+        String baseUrl = args[0];
+        int clients = Integer.parseInt(args[1]);
+        int seconds = Integer.parseInt(args[2]);
+        String scenario = args.length > 3 ? args[3] : "predict";
+
+        HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+        String token = login(http, baseUrl);
+
+        run(http, baseUrl, token, scenario, clients, seconds, false);
+        Result result = run(http, baseUrl, token, scenario, clients, seconds, true);
+        System.out.printf("%s clients=%d: %.0f req/s, p50 %.1f ms, p99 %.1f ms, max %.1f ms, 503 %.2f%%, errors %.2f%%%n",
+                scenario, clients, result.count / (double) seconds, result.percentile(0.50), result.percentile(0.99),
+                result.percentile(1.0), 100.0 * result.busy / Math.max(1, result.count),
+                100.0 * result.errors / Math.max(1, result.count));
+    }
+
+    private static Result run(HttpClient http, String baseUrl, String token, String scenario, int clients,
+                              int seconds, boolean measure) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        long[][] latencies = new long[clients][];
+        int[] counts = new int[clients];
+        AtomicLong busy = new AtomicLong();
+        AtomicLong errors = new AtomicLong();
+        CountDownLatch done = new CountDownLatch(clients);
+        for (int c = 0; c < clients; c++) {
+            int client = c;
+            Thread thread = new Thread(() -> {
+                Random random = new Random(client);
+                long[] samples = new long[1024];
+                int count = 0;
+                try {
+                    while (System.nanoTime() < deadline) {
+                        HttpRequest request = request(baseUrl, token, scenario, random);
+                        long started = System.nanoTime();
+                        int status;
+                        try {
+                            status = http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        } catch (Exception e) {
+                            status = -1;
+                        }
+                        long elapsed = System.nanoTime() - started;
+                        if (status == 503) {
+                            busy.incrementAndGet();
+                        } else if (status != 200) {
+                            errors.incrementAndGet();
+                        }
+                        if (count == samples.length) {
+                            samples = Arrays.copyOf(samples, count * 2);
+                        }
+                        samples[count++] = elapsed;
+                    }
+                } finally {
+                    latencies[client] = samples;
+                    counts[client] = count;
+                    done.countDown();
+                }
+            }, "load-" + client);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        done.await();
+        if (!measure) {
+            return null;
+        }
+        int total = Arrays.stream(counts).sum();
+        long[] all = new long[total];
+        int offset = 0;
+        for (int c = 0; c < clients; c++) {
+            System.arraycopy(latencies[c], 0, all, offset, counts[c]);
+            offset += counts[c];
+        }
+        Arrays.sort(all);
+        return new Result(all, busy.get(), errors.get());
+    }
+
+    private static HttpRequest request(String baseUrl, String token, String scenario, Random random) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder().timeout(Duration.ofSeconds(60))
+                .header("Authorization", "Bearer " + token);
+        if (scenario.equals("report")) {
+            return builder.uri(URI.create(baseUrl + "/reports/history")).GET().build();
+        }
+        int size = 3 + random.nextInt(3);
+        StringBuilder body = new StringBuilder("{\"symptoms\":[");
+        for (int i = 0; i < size; i++) {
+            body.append(i > 0 ? "," : "").append('"').append(SYMPTOMS.get(random.nextInt(SYMPTOMS.size()))).append('"');
+        }
+        body.append("]}");
+        return builder.uri(URI.create(baseUrl + "/predict"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+    }
+
+    private static String login(HttpClient http, String baseUrl) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/auth/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"email\":\"user@demo.com\",\"password\":\"password\"}"))
+                .build();
+        String body = http.send(request, HttpResponse.BodyHandlers.ofString()).body();
+        Matcher token = Pattern.compile("\"token\"\\s*:\\s*\"([^\"]+)\"").matcher(body);
+        if (!token.find()) {
+            throw new IllegalStateException("Login failed: " + body);
+        }
+        return token.group(1);
+    }
+
+    private static final class Result {
+        final long[] sortedLatencies;
+        final long count;
+        final long busy;
+        final long errors;
+
+        Result(long[] sortedLatencies, long busy, long errors) {
+            this.sortedLatencies = sortedLatencies;
+            this.count = sortedLatencies.length;
+            this.busy = busy;
+            this.errors = errors;
+        }
+
+        double percentile(double p) {
+            if (count == 0) {
+                return 0;
+            }
+            int index = (int) Math.min(count - 1, Math.ceil(p * count) - 1);
+            return sortedLatencies[Math.max(0, index)] / 1e6;
+        }
+    }
+}
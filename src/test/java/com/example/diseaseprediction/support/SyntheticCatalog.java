@@ -0,0 +1,132 @@
+package com.example.diseaseprediction.support;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Deterministic synthetic rule catalogs and patient queries for scaling tests and benchmarks.
+ * Symptom use follows a Zipf law (a few symptoms such as "fever" appear in a large share of rules,
+ * most are rare), rules have 3 to 12 symptoms, and query diseases are drawn by Zipf-distributed
+ * prevalence. The same arguments always produce the same catalog.
+ */
+public final class SyntheticCatalog {
+
+    public static final double SYMPTOM_SKEW = 1.07;
+    public static final double PREVALENCE_SKEW = 1.0;
+
+    public final Map<String, List<String>> rules;
+    public final Map<String, String> precautions;
+    public final List<String> vocabulary;
+    private final List<String> diseaseNames;
+    private final Zipf symptomRanks;
+    private final Zipf prevalence;
+
+    private SyntheticCatalog(Map<String, List<String>> rules, Map<String, String> precautions, List<String> vocabulary,
+                             Zipf symptomRanks) {
+        this.rules = rules;
+        this.precautions = precautions;
+        this.vocabulary = vocabulary;
+        this.diseaseNames = List.copyOf(rules.keySet());
+        this.symptomRanks = symptomRanks;
+        this.prevalence = new Zipf(diseaseNames.size(), PREVALENCE_SKEW);
+    }
+
+    public static SyntheticCatalog generate(int diseases, int symptoms, long seed) {
+        List<String> vocabulary = new ArrayList<>(symptoms);
+        for (int rank = 0; rank < symptoms; rank++) {
+            vocabulary.add("symptom " + rank);
+        }
+        Zipf symptomRanks = new Zipf(symptoms, SYMPTOM_SKEW);
+        Random random = new Random(seed);
+        Map<String, List<String>> rules = new LinkedHashMap<>(diseases * 2);
+        Map<String, String> precautions = new HashMap<>(diseases * 2);
+        int[] rule = new int[12];
+        for (int d = 0; d < diseases; d++) {
+            int size = Math.min(symptoms, 3 + random.nextInt(4) + random.nextInt(7));
+            int filled = 0;
+            while (filled < size) {
+                int rank = symptomRanks.sample(random);
+                if (!contains(rule, filled, rank)) {
+                    rule[filled++] = rank;
+                }
+            }
+            String[] names = new String[size];
+            for (int i = 0; i < size; i++) {
+                names[i] = vocabulary.get(rule[i]);
+            }
+            String name = "Disease " + d;
+            rules.put(name, Arrays.asList(names));
+            precautions.put(name, "Precautions for " + name);
+        }
+        return new SyntheticCatalog(rules, precautions, List.copyOf(vocabulary), symptomRanks);
+    }
+
+    /**
+     * A patient presenting {@code size} symptoms: most from the rule of a disease drawn by prevalence,
+     * the rest (and roughly one in four) common background symptoms.
+     */
+    public List<String> patientQuery(Random random, int size) {
+        List<String> rule = new ArrayList<>(rules.get(diseaseNames.get(prevalence.sample(random))));
+        Collections.shuffle(rule, random);
+        List<String> query = new ArrayList<>(size);
+        for (String symptom : rule) {
+            if (query.size() == size) {
+                break;
+            }
+            if (random.nextInt(4) != 0) {
+                query.add(symptom);
+            }
+        }
+        while (query.size() < size) {
+            query.add(vocabulary.get(symptomRanks.sample(random)));
+        }
+        return query;
+    }
+
+    public List<String> sampleSymptoms(Random random, int count) {
+        List<String> sample = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            sample.add(vocabulary.get(symptomRanks.sample(random)));
+        }
+        return sample;
+    }
+
+    private static boolean contains(int[] values, int size, int value) {
+        for (int i = 0; i < size; i++) {
+            if (values[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Samples ranks 0..n-1 with probability proportional to 1 / (rank + 1)^skew by binary search over the CDF.
+     */
+    private static final class Zipf {
+        private final double[] cdf;
+
+        Zipf(int n, double skew) {
+            cdf = new double[n];
+            double sum = 0;
+            for (int rank = 0; rank < n; rank++) {
+                sum += 1.0 / Math.pow(rank + 1, skew);
+                cdf[rank] = sum;
+            }
+            for (int rank = 0; rank < n; rank++) {
+                cdf[rank] /= sum;
+            }
+        }
+
+        int sample(Random random) {
+            int index = Arrays.binarySearch(cdf, random.nextDouble());
+            return Math.min(index >= 0 ? index : -index - 1, cdf.length - 1);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.diseaseprediction.service;
+
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link RowScorer} that ANDs and bit-counts {@code SPECIES.length()} rule words per instruction.
+ * Lane counts are accumulated in a vector and reduced once per row; the tail of each row that does not
+ * fill a vector is scored with scalar popcounts. Rows narrower than one vector are scored entirely scalar,
+ * as the reduction would cost more than it saves.
+ */
+final class VectorRowScorer implements RowScorer {
+
+    private static final VectorSpecies<Long> SPECIES = LongVector.SPECIES_PREFERRED;
+
+    @Override
+    public void matchAll(long[] ruleBits, int words, long[] query, int[] counts) {
+        int lanes = SPECIES.length();
+        if (words < lanes) {
+            RowScorers.SCALAR.matchAll(ruleBits, words, query, counts);
+            return;
+        }
+        int vectorWords = SPECIES.loopBound(words);
+        for (int disease = 0, base = 0; disease < counts.length; disease++, base += words) {
+            LongVector sum = LongVector.zero(SPECIES);
+            int w = 0;
+            for (; w < vectorWords; w += lanes) {
+                LongVector row = LongVector.fromArray(SPECIES, ruleBits, base + w);
+                LongVector q = LongVector.fromArray(SPECIES, query, w);
+                sum = sum.add(row.and(q).lanewise(VectorOperators.BIT_COUNT));
+            }
+            int count = (int) sum.reduceLanes(VectorOperators.ADD);
+            for (; w < words; w++) {
+                count += Long.bitCount(ruleBits[base + w] & query[w]);
+            }
+            counts[disease] = count;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return SPECIES.length() + " x 64-bit lanes";
+    }
+}